@@ -0,0 +1,115 @@
+package com.moujib.lookmax_backend.configurations;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût du chemin d'authentification : extraction des rôles, parsing du token, vérification
+ * RS256 locale (tokens émis par {@link TestTokenIssuer}) et hit du cache de tokens.
+ * <p>
+ * {@code authenticateCachedToken} reproduit le chemin d'une requête authentifiée dans
+ * {@link FirebaseAuthenticationFilter} ; avec {@code -prof gc}, son {@code gc.alloc.rate.norm}
+ * doit rester de l'ordre de quelques dizaines d'octets (la clé du cache), hors token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuthenticationBenchmark {
+
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Map<String, Object> userClaims;
+    private Map<String, Object> adminClaims;
+    private TestTokenIssuer issuer;
+    private FirebaseKeyManager keyManager;
+    private VerifiedTokenCache tokenCache;
+    private VerifiedTokenCache.TokenVerifier verifier;
+    private FirebaseAuthenticationFilter filter;
+    private String token;
+    private String payloadSegment;
+
+    @Setup
+    public void setUp() throws Exception {
+        userClaims = Map.of("sub", "user-1");
+        adminClaims = Map.of("sub", "admin-1", "roles", List.of("coach", "premium"), "admin", true);
+
+        issuer = new TestTokenIssuer();
+        keyManager = issuer.keyManager();
+        token = issuer.mintFor("user-1", Map.of("roles", List.of("premium")));
+        payloadSegment = token.substring(token.indexOf('.') + 1, token.lastIndexOf('.'));
+
+        tokenCache = new VerifiedTokenCache(true, 10_000, 30);
+        verifier = idToken -> {
+            Map<String, Object> claims = keyManager.verifyIdToken(idToken);
+            List<GrantedAuthority> authorities = FirebaseAuthenticationFilter.extractAuthorities(claims);
+            long exp = ((Number) claims.get("exp")).longValue() * 1000L;
+            return new VerifiedTokenCache.CachedAuthentication(new FirebaseAuthentication(claims, authorities), exp);
+        };
+        tokenCache.getOrVerify(token, verifier);
+        filter = new FirebaseAuthenticationFilter(tokenCache, keyManager, new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        issuer.close();
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> extractAuthoritiesUser() {
+        return FirebaseAuthenticationFilter.extractAuthorities(userClaims);
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> extractAuthoritiesAdmin() {
+        return FirebaseAuthenticationFilter.extractAuthorities(adminClaims);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseTokenPayload() throws Exception {
+        return objectMapper.readValue(Base64.getUrlDecoder().decode(payloadSegment), CLAIMS_TYPE);
+    }
+
+    @Benchmark
+    public Map<String, Object> verifyTokenLocally() throws Exception {
+        return keyManager.verifyIdToken(token);
+    }
+
+    @Benchmark
+    public VerifiedTokenCache.CachedAuthentication verifyTokenCached() throws Exception {
+        return tokenCache.getOrVerify(token, verifier);
+    }
+
+    @Benchmark
+    public Authentication authenticateCachedToken() throws Exception {
+        Authentication authentication = filter.authenticate(token);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return authentication;
+    }
+}
@@ -0,0 +1,72 @@
+package com.moujib.lookmax_backend.configurations;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.DefaultCorsProcessor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Résolution de la configuration CORS par {@code UrlBasedCorsConfigurationSource} et traitement
+ * d'une requête cross-origin (simple et preflight), avec les valeurs par défaut de {@link CorsConfig}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CorsMatchingBenchmark {
+
+    private CorsConfigurationSource source;
+    private final DefaultCorsProcessor processor = new DefaultCorsProcessor();
+
+    @Setup
+    public void setUp() {
+        CorsConfig corsConfig = new CorsConfig();
+        ReflectionTestUtils.setField(corsConfig, "allowedOrigins",
+                "http://localhost:9000,http://localhost:8080,http://localhost:3000,"
+                        + "http://127.0.0.1:9000,http://127.0.0.1:8080,http://127.0.0.1:3000");
+        ReflectionTestUtils.setField(corsConfig, "allowedMethods", "GET,POST,PUT,DELETE,OPTIONS,PATCH");
+        ReflectionTestUtils.setField(corsConfig, "allowedHeaders", "*");
+        ReflectionTestUtils.setField(corsConfig, "exposedHeaders", "Authorization,Content-Type,X-Total-Count");
+        ReflectionTestUtils.setField(corsConfig, "allowCredentials", true);
+        ReflectionTestUtils.setField(corsConfig, "maxAge", 3600L);
+        source = corsConfig.corsConfigurationSource();
+    }
+
+    @Benchmark
+    public CorsConfiguration resolveConfiguration() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/main");
+        return source.getCorsConfiguration(request);
+    }
+
+    @Benchmark
+    public boolean processSimpleRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/main");
+        request.addHeader("Origin", "http://localhost:9000");
+        return processor.processRequest(source.getCorsConfiguration(request), request, new MockHttpServletResponse());
+    }
+
+    @Benchmark
+    public boolean processPreflightRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/api/user/profile");
+        request.addHeader("Origin", "http://127.0.0.1:3000");
+        request.addHeader("Access-Control-Request-Method", "GET");
+        request.addHeader("Access-Control-Request-Headers", "authorization,content-type");
+        return processor.processRequest(source.getCorsConfiguration(request), request, new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,132 @@
+package com.moujib.lookmax_backend.configurations;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Surcoût de l'instrumentation Micrometer sur le chemin de requête, avec le registre
+ * Prometheus réel et des histogrammes activés : {@code cachedAuthentication} sert de référence,
+ * {@code instrumentedCachedAuthentication} ajoute le compteur et le timer du filtre.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MetricsOverheadBenchmark {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    private PrometheusMeterRegistry registry;
+    private Counter counter;
+    private Timer timer;
+    private DistributionSummary summary;
+    private HttpPayloadMetricsFilter payloadFilter;
+    private VerifiedTokenCache tokenCache;
+    private VerifiedTokenCache.TokenVerifier verifier;
+
+    @Setup
+    public void setUp() throws Exception {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        counter = Counter.builder("lookmax.auth.requests").tag("outcome", "verified").register(registry);
+        timer = Timer.builder("lookmax.auth.token.verification")
+                .tag("mode", "local")
+                .tag("outcome", "valid")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+        summary = DistributionSummary.builder("http.server.response.size")
+                .baseUnit("bytes")
+                .tag("uri", "/api/main")
+                .tag("method", "GET")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(64.0)
+                .maximumExpectedValue(64.0 * 1024 * 1024)
+                .register(registry);
+
+        payloadFilter = new HttpPayloadMetricsFilter(registry, true);
+
+        tokenCache = new VerifiedTokenCache(true, 10_000, 30);
+        long expiresAt = System.currentTimeMillis() + 3_600_000L;
+        VerifiedTokenCache.CachedAuthentication cached = new VerifiedTokenCache.CachedAuthentication(
+                new FirebaseAuthentication(Map.of("sub", "user-1"), FirebaseAuthenticationFilter.extractAuthorities(Map.of())),
+                expiresAt);
+        verifier = idToken -> cached;
+        tokenCache.getOrVerify(TOKEN, verifier);
+    }
+
+    @Benchmark
+    public void counterIncrement() {
+        counter.increment();
+    }
+
+    @Benchmark
+    public void timerRecordWithHistogram() {
+        timer.record(42_000, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void payloadSummaryLookupAndRecord() {
+        // Chemin de HttpPayloadMetricsFilter : compteur retrouvé dans sa map locale
+        payloadFilter.summary("http.server.response.size", "/api/main", "GET").record(512);
+    }
+
+    @Benchmark
+    public void payloadSummaryBuilderAndRecord() {
+        // Référence : builder + recherche dans le registre à chaque requête
+        DistributionSummary.builder("http.server.response.size")
+                .baseUnit("bytes")
+                .tag("uri", "/api/main")
+                .tag("method", "GET")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(64.0)
+                .maximumExpectedValue(64.0 * 1024 * 1024)
+                .register(registry)
+                .record(512);
+    }
+
+    @Benchmark
+    public void payloadSummaryRecord() {
+        summary.record(512);
+    }
+
+    @Benchmark
+    public VerifiedTokenCache.CachedAuthentication cachedAuthentication() throws Exception {
+        return tokenCache.getOrVerify(TOKEN, verifier);
+    }
+
+    @Benchmark
+    public VerifiedTokenCache.CachedAuthentication instrumentedCachedAuthentication() throws Exception {
+        long start = System.nanoTime();
+        VerifiedTokenCache.CachedAuthentication result = tokenCache.getOrVerify(TOKEN, verifier);
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        counter.increment();
+        return result;
+    }
+
+    @Benchmark
+    public String scrape() {
+        return registry.scrape();
+    }
+}
@@ -0,0 +1,62 @@
+package com.moujib.lookmax_backend.configurations;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût d'une décision de débit sous contention : une clé partagée par tous les threads (pire
+ * cas CAS) et 100 000 utilisateurs distincts (cas nominal, seaux déjà créés).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RateLimiterBenchmark {
+
+    private static final int USERS = 100_000;
+
+    private TokenBucketRateLimiter limiter;
+    private String[] uids;
+
+    @Setup
+    public void setUp() {
+        // Limites très hautes : on mesure le chemin d'acceptation, pas les refus
+        limiter = new TokenBucketRateLimiter(1_000_000, 1_000_000_000, 1_000_000, 1_000_000_000,
+                1_000_000, 1_000_000_000, USERS * 2);
+        uids = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            uids[i] = "user-" + i;
+            limiter.tryAcquire(TokenBucketRateLimiter.Group.READS, uids[i]);
+        }
+    }
+
+    @Benchmark
+    public long hotKey() {
+        return limiter.tryAcquire(TokenBucketRateLimiter.Group.READS, "user-0");
+    }
+
+    @Benchmark
+    public long manyUsers() {
+        return limiter.tryAcquire(TokenBucketRateLimiter.Group.READS, uids[ThreadLocalRandom.current().nextInt(USERS)]);
+    }
+
+    @Benchmark
+    public TokenBucketRateLimiter.Group resolveGroup() {
+        return RateLimitFilter.groupOf("POST", "/api/photos/0123abcd/analysis");
+    }
+}
@@ -0,0 +1,57 @@
+package com.moujib.lookmax_backend.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moujib.lookmax_backend.temporary.FirebaseUserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction des réponses {@code HashMap} de {@link MainController} et sérialisation Jackson,
+ * avec un {@code ObjectMapper} configuré comme celui de Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ResponseSerializationBenchmark {
+
+    private MainController controller;
+    private ObjectMapper objectMapper;
+    private FirebaseUserPrincipal principal;
+
+    @Setup
+    public void setUp() {
+        controller = new MainController(null, 0);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        principal = new FirebaseUserPrincipal("user-1", "user-1@lookmax.test", "User One");
+    }
+
+    @Benchmark
+    public Map<String, Object> buildMainResponse() {
+        return controller.getMainControllerSomething(principal).getBody();
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeMainResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(controller.getMainControllerSomething(principal).getBody());
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeHealth() throws Exception {
+        return objectMapper.writeValueAsBytes(controller.healthCheck().getBody());
+    }
+}
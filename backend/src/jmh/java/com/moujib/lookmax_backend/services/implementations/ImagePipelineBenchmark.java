@@ -0,0 +1,81 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.AnalysisResult;
+import com.moujib.lookmax_backend.models.DecodedImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipeline image : décodage sous-échantillonné d'un JPEG 12 MP et calcul des métriques.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+public class ImagePipelineBenchmark {
+
+    private Path jpeg;
+    private DecodedImage decoded;
+    private ImagePreprocessingServiceImpl preprocessing;
+    private FacialAnalysisServiceImpl sequentialEngine;
+    private FacialAnalysisServiceImpl parallelEngine;
+
+    @Setup
+    public void setUp() throws Exception {
+        BufferedImage photo = new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(1);
+        for (int y = 0; y < photo.getHeight(); y++) {
+            for (int x = 0; x < photo.getWidth(); x++) {
+                // Dégradé bruité : plus représentatif d'une photo qu'un bruit blanc pour l'encodeur
+                int base = (x * 255 / photo.getWidth()) << 16 | (y * 255 / photo.getHeight()) << 8;
+                photo.setRGB(x, y, base | random.nextInt(64));
+            }
+        }
+        jpeg = Files.createTempFile("lookmax-bench-", ".jpg");
+        ImageIO.write(photo, "jpg", jpeg.toFile());
+
+        preprocessing = new ImagePreprocessingServiceImpl(1024, 100_000_000L, 16L << 20, 128L << 20, 0, 10_000);
+        sequentialEngine = new FacialAnalysisServiceImpl(1, true, 32);
+        parallelEngine = new FacialAnalysisServiceImpl(0, false, 32);
+        decoded = preprocessing.decode(jpeg);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        parallelEngine.shutdown();
+        Files.deleteIfExists(jpeg);
+    }
+
+    @Benchmark
+    public DecodedImage decode12MegapixelJpeg() throws Exception {
+        return preprocessing.decode(jpeg);
+    }
+
+    @Benchmark
+    public AnalysisResult analyzeSequential() {
+        return sequentialEngine.analyze(decoded);
+    }
+
+    @Benchmark
+    public AnalysisResult analyzeParallel() {
+        return parallelEngine.analyze(decoded);
+    }
+}
@@ -0,0 +1,78 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.SimilarPhoto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requêtes par rayon de Hamming sur plusieurs millions d'empreintes, comparées au parcours
+ * linéaire qu'elles remplacent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SimilarityIndexBenchmark {
+
+    @Param({"1000000", "4000000"})
+    public int size;
+
+    @Param({"4", "8", "12"})
+    public int radius;
+
+    private MultiIndexHashTable index;
+    private long[] hashes;
+    private long[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        hashes = new long[size];
+        long[] keys = new long[size * 4];
+        for (int i = 0; i < size; i++) {
+            hashes[i] = random.nextLong();
+            MultiIndexHashTable.encode("%064x".formatted(i), keys, i);
+        }
+        index = new MultiIndexHashTable(4096);
+        index.replaceAll(hashes, keys, size);
+
+        // Requêtes proches d'empreintes existantes : quelques bits modifiés
+        queries = new long[1024];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = hashes[random.nextInt(size)] ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64));
+        }
+    }
+
+    @Benchmark
+    public List<SimilarPhoto> multiIndex() {
+        return index.search(queries[next++ & (queries.length - 1)], radius, 20);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        long query = queries[next++ & (queries.length - 1)];
+        int matches = 0;
+        for (long hash : hashes) {
+            if (Long.bitCount(hash ^ query) <= radius) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
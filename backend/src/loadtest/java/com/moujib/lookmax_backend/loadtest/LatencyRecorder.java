@@ -0,0 +1,100 @@
+package com.moujib.lookmax_backend.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latences d'un scénario, en nanosecondes, dans un tableau préalloué (pas d'allocation pendant
+ * la mesure). Les échantillons au-delà de la capacité sont comptés mais pas conservés.
+ * <p>
+ * Les erreurs de transport et les timeouts sont enregistrés avec le temps écoulé jusqu'à
+ * l'échec : les percentiles portent sur toutes les tentatives, sans quoi un backend qui
+ * décroche afficherait de meilleures latences.
+ */
+final class LatencyRecorder {
+
+    private final String name;
+    private final long[] samples;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder errors = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    LatencyRecorder(String name, int capacity) {
+        this.name = name;
+        this.samples = new long[capacity];
+    }
+
+    String name() {
+        return name;
+    }
+
+    void record(int status, long latencyNanos) {
+        store(latencyNanos);
+        statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+    }
+
+    void recordError(long latencyNanos) {
+        store(latencyNanos);
+        errors.increment();
+    }
+
+    private void store(long latencyNanos) {
+        int index = next.getAndIncrement();
+        if (index < samples.length) {
+            samples[index] = latencyNanos;
+        }
+    }
+
+    Summary summarize(double seconds) {
+        int count = Math.min(next.get(), samples.length);
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        double sum = 0;
+        for (long sample : sorted) {
+            sum += sample;
+        }
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, adder) -> statusCounts.put(status, adder.sum()));
+        long failures = errors.sum() + statusCounts.entrySet().stream()
+                .filter(entry -> entry.getKey() >= 400)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+        long requests = next.get();
+        return new Summary(name, requests, failures, statusCounts, (requests - errors.sum()) / seconds,
+                millis(percentile(sorted, 0.50)),
+                millis(percentile(sorted, 0.90)),
+                millis(percentile(sorted, 0.99)),
+                millis(percentile(sorted, 0.999)),
+                millis(count > 0 ? sorted[count - 1] : 0),
+                millis(count > 0 ? sum / count : 0));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(double nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    record Summary(String scenario,
+                   long requests,
+                   long failures,
+                   Map<Integer, Long> statusCounts,
+                   double throughput,
+                   double p50Ms,
+                   double p90Ms,
+                   double p99Ms,
+                   double p999Ms,
+                   double maxMs,
+                   double meanMs) {
+    }
+}
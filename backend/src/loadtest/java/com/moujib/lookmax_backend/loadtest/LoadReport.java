@@ -0,0 +1,106 @@
+package com.moujib.lookmax_backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rapport d'une exécution : {@code report.json} pour comparer les runs, {@code report.html}
+ * pour une lecture rapide.
+ */
+final class LoadReport {
+
+    private final Map<String, String> options;
+    private final Instant startedAt;
+    private final double elapsedSeconds;
+    private final int targetRps;
+    private final List<LatencyRecorder.Summary> scenarios;
+
+    LoadReport(Map<String, String> options, Instant startedAt, double elapsedSeconds, int targetRps,
+               List<LatencyRecorder.Summary> scenarios) {
+        this.options = options;
+        this.startedAt = startedAt;
+        this.elapsedSeconds = elapsedSeconds;
+        this.targetRps = targetRps;
+        this.scenarios = scenarios;
+    }
+
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("startedAt", startedAt.toString());
+        json.put("options", options);
+        json.put("targetRps", targetRps);
+        json.put("elapsedSeconds", elapsedSeconds);
+        json.put("achievedRps", scenarios.stream().mapToLong(LatencyRecorder.Summary::requests).sum() / elapsedSeconds);
+        json.put("scenarios", scenarios);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("report.json").toFile(), json);
+
+        Files.writeString(directory.resolve("report.html"), html(), StandardCharsets.UTF_8);
+    }
+
+    void printTo(PrintStream out) {
+        out.printf("%-10s %9s %8s %9s %9s %9s %9s %9s%n",
+                "scenario", "requests", "failed", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (LatencyRecorder.Summary s : scenarios) {
+            out.printf(Locale.ROOT, "%-10s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    s.scenario(), s.requests(), s.failures(), s.throughput(), s.p50Ms(), s.p99Ms(), s.p999Ms(), s.maxMs());
+        }
+    }
+
+    private String html() {
+        StringBuilder rows = new StringBuilder();
+        for (LatencyRecorder.Summary s : scenarios) {
+            rows.append(String.format(Locale.ROOT,
+                    "<tr><td>%s</td><td>%d</td><td>%d</td><td>%.1f</td><td>%.2f</td><td>%.2f</td>"
+                            + "<td>%.2f</td><td>%.2f</td><td>%.2f</td><td>%.2f</td><td>%s</td></tr>%n",
+                    s.scenario(), s.requests(), s.failures(), s.throughput(), s.p50Ms(), s.p90Ms(), s.p99Ms(),
+                    s.p999Ms(), s.maxMs(), s.meanMs(), s.statusCounts()));
+        }
+        StringBuilder settings = new StringBuilder();
+        options.forEach((key, value) -> settings.append("<li><code>").append(key).append("</code> = ")
+                .append(escape(value)).append("</li>"));
+
+        return String.format(Locale.ROOT, """
+                <!DOCTYPE html>
+                <html lang="fr">
+                <head>
+                <meta charset="utf-8">
+                <title>LookMax load test</title>
+                <style>
+                body { font-family: sans-serif; margin: 2rem; }
+                table { border-collapse: collapse; }
+                th, td { border: 1px solid #ccc; padding: 0.3rem 0.6rem; text-align: right; }
+                th:first-child, td:first-child { text-align: left; }
+                </style>
+                </head>
+                <body>
+                <h1>LookMax load test</h1>
+                <p>%s &middot; %.1f s &middot; cible %d req/s</p>
+                <table>
+                <tr><th>Scénario</th><th>Requêtes</th><th>Échecs</th><th>req/s</th><th>p50 ms</th><th>p90 ms</th>
+                <th>p99 ms</th><th>p999 ms</th><th>max ms</th><th>moy. ms</th><th>Statuts</th></tr>
+                %s</table>
+                <h2>Paramètres</h2>
+                <ul>%s</ul>
+                </body>
+                </html>
+                """, startedAt, elapsedSeconds, targetRps, rows, settings);
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
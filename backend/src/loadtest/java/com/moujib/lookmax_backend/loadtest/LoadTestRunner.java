@@ -0,0 +1,266 @@
+package com.moujib.lookmax_backend.loadtest;
+
+import com.moujib.lookmax_backend.configurations.TestTokenIssuer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Générateur de charge à débit constant (modèle ouvert) contre un backend lancé avec le profil
+ * {@code loadtest}.
+ * <p>
+ * Les requêtes partent à intervalle fixe quelle que soit la latence du serveur, et chaque latence
+ * est mesurée depuis l'instant prévu d'envoi : un serveur qui ralentit voit ses percentiles
+ * monter au lieu de ralentir le générateur (pas d'omission coordonnée). Utilisateurs, scénarios
+ * et images sont tirés d'un {@link Random} à graine fixe : deux exécutions envoient la même suite
+ * de requêtes.
+ * <p>
+ * Arguments ({@code --clé=valeur}) : base-url, rps, duration-seconds, warmup-seconds, users,
+ * admin-ratio, mix ({@code main=50,profile=35,upload=15}), issuer-port, seed, report-dir.
+ */
+public final class LoadTestRunner {
+
+    private static final int DISTINCT_UPLOADS = 64;
+
+    private final Map<String, String> options;
+    private final HttpClient httpClient;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private LoadTestRunner(Map<String, String> options) {
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("base-url", "http://localhost:8080");
+        options.put("rps", "200");
+        options.put("duration-seconds", "60");
+        options.put("warmup-seconds", "10");
+        options.put("users", "1000");
+        options.put("admin-ratio", "0.05");
+        options.put("mix", "main=50,profile=35,upload=15");
+        options.put("issuer-port", "9099");
+        options.put("seed", "42");
+        options.put("report-dir", "target/loadtest");
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int separator = arg.indexOf('=');
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        new LoadTestRunner(options).run();
+    }
+
+    private void run() throws Exception {
+        long seed = Long.parseLong(options.get("seed"));
+        int rps = Integer.parseInt(options.get("rps"));
+        int durationSeconds = Integer.parseInt(options.get("duration-seconds"));
+        int warmupSeconds = Integer.parseInt(options.get("warmup-seconds"));
+        String baseUrl = options.get("base-url");
+
+        try (TestTokenIssuer issuer = new TestTokenIssuer(Integer.parseInt(options.get("issuer-port")), seed)) {
+            System.out.println("🔑 Token issuer serving " + issuer.keysUrl());
+            List<String> tokens = mintTokens(issuer, seed);
+            List<byte[]> uploads = generateUploads(seed);
+            Scenario[] mix = parseMix(options.get("mix"), baseUrl, uploads);
+
+            awaitBackend(baseUrl);
+
+            System.out.printf("🔥 Warm-up: %d s at %d req/s%n", warmupSeconds, rps);
+            drive(mix, tokens, rps, warmupSeconds, new Random(seed), false);
+
+            System.out.printf("🚀 Measuring: %d s at %d req/s%n", durationSeconds, rps);
+            Instant startedAt = Instant.now();
+            double elapsed = drive(mix, tokens, rps, durationSeconds, new Random(seed + 1), true);
+
+            List<LatencyRecorder.Summary> summaries = new ArrayList<>();
+            for (Scenario scenario : mix) {
+                summaries.add(scenario.recorder().summarize(elapsed));
+            }
+            LoadReport report = new LoadReport(options, startedAt, elapsed, rps, summaries);
+            Path directory = Path.of(options.get("report-dir"));
+            report.write(directory);
+            report.printTo(System.out);
+            System.out.println("📊 Report written to " + directory.toAbsolutePath());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Envoie {@code rps} requêtes par seconde pendant {@code seconds} puis attend les réponses.
+     *
+     * @return la durée réelle, réponses comprises, en secondes
+     */
+    private double drive(Scenario[] mix, List<String> tokens, int rps, int seconds, Random random, boolean record) {
+        long total = (long) rps * seconds;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        int weightSum = 0;
+        for (Scenario scenario : mix) {
+            weightSum += scenario.weight();
+        }
+
+        long start = System.nanoTime();
+        // close() attend la dernière réponse
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long intended = start + i * intervalNanos;
+                long delay = intended - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+
+                Scenario scenario = pick(mix, random.nextInt(weightSum));
+                String token = tokens.get(random.nextInt(tokens.size()));
+                HttpRequest request = scenario.request(token, random);
+                senders.execute(() -> send(scenario, request, intended, record));
+            }
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private void send(Scenario scenario, HttpRequest request, long intendedNanos, boolean record) {
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (record) {
+                scenario.recorder().record(response.statusCode(), System.nanoTime() - intendedNanos);
+            }
+        } catch (IOException e) {
+            // Timeouts compris : le temps jusqu'à l'échec compte dans les percentiles
+            if (record) {
+                scenario.recorder().recordError(System.nanoTime() - intendedNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<String> mintTokens(TestTokenIssuer issuer, long seed) throws Exception {
+        int users = Integer.parseInt(options.get("users"));
+        double adminRatio = Double.parseDouble(options.get("admin-ratio"));
+        Random random = new Random(seed);
+        List<String> tokens = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            Map<String, Object> claims = new LinkedHashMap<>();
+            claims.put("name", "Load User " + i);
+            claims.put("roles", i % 3 == 0 ? List.of("premium") : List.of());
+            if (random.nextDouble() < adminRatio) {
+                claims.put("admin", true);
+            }
+            tokens.add(issuer.mintFor("load-user-" + i, claims));
+        }
+        return tokens;
+    }
+
+    private static List<byte[]> generateUploads(long seed) throws IOException {
+        Random random = new Random(seed);
+        List<byte[]> uploads = new ArrayList<>(DISTINCT_UPLOADS);
+        for (int i = 0; i < DISTINCT_UPLOADS; i++) {
+            BufferedImage image = new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    image.setRGB(x, y, random.nextInt(0x1000000));
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", out);
+            uploads.add(out.toByteArray());
+        }
+        return uploads;
+    }
+
+    private void awaitBackend(String baseUrl) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/api/health")).GET().build();
+        for (int attempt = 0; attempt < 60; attempt++) {
+            try {
+                if (httpClient.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ignored) {
+                // Backend pas encore démarré
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("Backend not reachable at " + baseUrl);
+    }
+
+    private static Scenario pick(Scenario[] mix, int roll) {
+        for (Scenario scenario : mix) {
+            roll -= scenario.weight();
+            if (roll < 0) {
+                return scenario;
+            }
+        }
+        return mix[mix.length - 1];
+    }
+
+    private Scenario[] parseMix(String mix, String baseUrl, List<byte[]> uploads) {
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8,
+                (long) Integer.parseInt(options.get("rps")) * Integer.parseInt(options.get("duration-seconds")));
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split("=");
+            int weight = Integer.parseInt(entry[1]);
+            if (weight <= 0) {
+                continue;
+            }
+            LatencyRecorder recorder = new LatencyRecorder(entry[0], capacity);
+            scenarios.add(switch (entry[0]) {
+                case "main" -> new Scenario(weight, recorder, (token, random) -> get(baseUrl + "/api/main", token));
+                case "profile" -> new Scenario(weight, recorder, (token, random) -> get(baseUrl + "/api/user/profile", token));
+                case "upload" -> new Scenario(weight, recorder, (token, random) -> HttpRequest
+                        .newBuilder(URI.create(baseUrl + "/api/photos"))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "image/jpeg")
+                        .timeout(Duration.ofSeconds(30))
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(uploads.get(random.nextInt(uploads.size()))))
+                        .build());
+                default -> throw new IllegalArgumentException("Unknown scenario: " + entry[0]);
+            });
+        }
+        return scenarios.toArray(Scenario[]::new);
+    }
+
+    private static HttpRequest get(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        HttpRequest create(String token, Random random);
+    }
+
+    private record Scenario(int weight, LatencyRecorder recorder, RequestFactory factory) {
+
+        HttpRequest request(String token, Random random) {
+            return factory.create(token, random);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.moujib.lookmax_backend.configurations;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Listes d'autorités partagées, une par signature (rôles, admin).
+ * <p>
+ * Les utilisateurs se répartissent sur une poignée de profils : plutôt que de reconstruire la
+ * liste (et ses {@code "ROLE_" + role.toUpperCase()}) à chaque vérification de token, chaque
+ * profil est construit une fois et la même instance immuable est partagée par tous ses tokens.
+ */
+final class AuthoritySets {
+
+    // Les rôles viennent de claims signés, mais on ne fait pas confiance à leur cardinalité
+    private static final int MAX_INTERNED = 1024;
+
+    private static final GrantedAuthority ROLE_USER = new SimpleGrantedAuthority("ROLE_USER");
+    private static final GrantedAuthority ROLE_ADMIN = new SimpleGrantedAuthority("ROLE_ADMIN");
+    private static final List<GrantedAuthority> USER = List.of(ROLE_USER);
+    private static final List<GrantedAuthority> USER_ADMIN = List.of(ROLE_USER, ROLE_ADMIN);
+
+    private static final Map<Signature, List<GrantedAuthority>> interned = new ConcurrentHashMap<>();
+
+    private record Signature(List<?> roles, boolean admin) {
+    }
+
+    private AuthoritySets() {
+    }
+
+    /**
+     * @param roles claim {@code roles} brut (liste de noms de rôles, ou absent)
+     */
+    static List<GrantedAuthority> of(Object roles, boolean admin) {
+        if (!(roles instanceof List<?> list) || list.isEmpty()) {
+            return admin ? USER_ADMIN : USER;
+        }
+
+        List<GrantedAuthority> cached = interned.get(new Signature(list, admin));
+        if (cached != null) {
+            return cached;
+        }
+
+        List<GrantedAuthority> authorities = build(list, admin);
+        if (interned.size() < MAX_INTERNED && list.stream().allMatch(String.class::isInstance)) {
+            // Clé copiée : la liste des claims reste modifiable par son propriétaire
+            List<GrantedAuthority> previous = interned.putIfAbsent(new Signature(List.copyOf(list), admin), authorities);
+            if (previous != null) {
+                return previous;
+            }
+        }
+        return authorities;
+    }
+
+    private static List<GrantedAuthority> build(List<?> roles, boolean admin) {
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size() + 2);
+
+        // Rôle par défaut pour tous les utilisateurs authentifiés
+        authorities.add(ROLE_USER);
+        for (Object role : roles) {
+            if (role != null) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + role.toString().toUpperCase(Locale.ROOT)));
+            }
+        }
+        if (admin) {
+            authorities.add(ROLE_ADMIN);
+        }
+        return List.copyOf(authorities);
+    }
+}
@@ -22,7 +22,7 @@ public class CorsConfig {
     @Value("${cors.allowed-headers:*}")
     private String allowedHeaders;
 
-    @Value("${cors.exposed-headers:Authorization,Content-Type,X-Total-Count}")
+    @Value("${cors.exposed-headers:Authorization,Content-Type,X-Total-Count,Location,Upload-Offset,Upload-Length}")
     private String exposedHeaders;
 
     @Value("${cors.allow-credentials:true}")
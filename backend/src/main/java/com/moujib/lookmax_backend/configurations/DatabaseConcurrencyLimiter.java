@@ -0,0 +1,149 @@
+package com.moujib.lookmax_backend.configurations;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite le nombre de threads qui tentent d'obtenir une connexion JDBC en même temps.
+ * <p>
+ * Avec des threads virtuels, des milliers de requêtes peuvent atteindre Hikari simultanément
+ * alors que le pool n'a que {@code maximum-pool-size} connexions : un sémaphore équitable,
+ * dimensionné sur le pool, fait patienter les threads en amont plutôt que de saturer la base
+ * et la file d'attente de Hikari. Le permis est rendu à la fermeture de la connexion.
+ */
+@Component
+public class DatabaseConcurrencyLimiter implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseConcurrencyLimiter.class);
+
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final long acquireTimeoutMs;
+
+    public DatabaseConcurrencyLimiter(
+            @Value("${lookmax.database.concurrency-limit.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+            @Value("${lookmax.database.concurrency-limit.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${lookmax.database.concurrency-limit.acquire-timeout-ms:${spring.datasource.hikari.connection-timeout:30000}}") long acquireTimeoutMs) {
+        this.enabled = enabled;
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (enabled && bean instanceof DataSource dataSource && !(bean instanceof LimitedDataSource)) {
+            logger.info("🚦 JDBC concurrency limited to {} for datasource '{}'", maxConcurrent, beanName);
+            return new LimitedDataSource(dataSource, new Semaphore(maxConcurrent, true), acquireTimeoutMs);
+        }
+        return bean;
+    }
+
+    static final class LimitedDataSource extends DelegatingDataSource {
+
+        private final Semaphore permits;
+        private final long acquireTimeoutMs;
+        // Attente devant le sémaphore, exposée par MetricsConfig à côté de hikaricp.connections.acquire
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+
+        LimitedDataSource(DataSource target, Semaphore permits, long acquireTimeoutMs) {
+            super(target);
+            this.permits = permits;
+            this.acquireTimeoutMs = acquireTimeoutMs;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return releasing(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return releasing(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        int availablePermits() {
+            return permits.availablePermits();
+        }
+
+        long acquisitions() {
+            return acquisitions.sum();
+        }
+
+        double totalWaitNanos() {
+            return waitNanos.sum();
+        }
+
+        private void acquire() throws SQLException {
+            long start = System.nanoTime();
+            try {
+                if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new SQLTransientConnectionException(
+                            "Database concurrency limit reached, no permit after " + acquireTimeoutMs + "ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while waiting for a database permit", e);
+            } finally {
+                acquisitions.increment();
+                waitNanos.add(System.nanoTime() - start);
+            }
+        }
+
+        private Connection releasing(Connection connection) {
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            } finally {
+                                permits.release();
+                            }
+                        }
+                        if ("unwrap".equals(method.getName()) || "isWrapperFor".equals(method.getName())) {
+                            // Laisser Hibernate/Hikari accéder à la connexion réelle
+                            if (args[0] instanceof Class<?> type && type.isInstance(connection)) {
+                                return "unwrap".equals(method.getName()) ? connection : true;
+                            }
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
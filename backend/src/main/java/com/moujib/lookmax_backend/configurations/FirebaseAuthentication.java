@@ -0,0 +1,90 @@
+package com.moujib.lookmax_backend.configurations;
+
+import com.moujib.lookmax_backend.temporary.FirebaseUserPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Authentification issue d'un ID token Firebase vérifié.
+ * <p>
+ * Immuable et mise en cache avec le token par {@link VerifiedTokenCache} : chaque requête qui
+ * présente le même token réutilise cette instance au lieu d'en construire une nouvelle. Le
+ * {@link FirebaseUserPrincipal} n'est construit qu'au premier accès ; les détails sont les
+ * claims du token, exposés en lecture seule sans copie.
+ */
+public final class FirebaseAuthentication implements Authentication {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, Object> claims;
+    private final List<GrantedAuthority> authorities;
+    // Course bénigne : au pire deux principals identiques sont construits
+    private transient volatile FirebaseUserPrincipal principal;
+
+    public FirebaseAuthentication(Map<String, Object> claims, List<GrantedAuthority> authorities) {
+        this.claims = Collections.unmodifiableMap(claims);
+        this.authorities = authorities;
+    }
+
+    public FirebaseUserPrincipal principal() {
+        FirebaseUserPrincipal current = principal;
+        if (current == null) {
+            String email = (String) claims.get("email");
+            String name = (String) claims.get("name");
+            current = new FirebaseUserPrincipal(getName(), email, name != null ? name : email);
+            principal = current;
+        }
+        return current;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public Object getCredentials() {
+        // Le token n'est jamais conservé
+        return null;
+    }
+
+    @Override
+    public Map<String, Object> getDetails() {
+        return claims;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return principal();
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        // Instance partagée entre les requêtes du même token : elle ne peut pas être révoquée en place
+        if (!authenticated) {
+            throw new IllegalArgumentException("A verified Firebase authentication cannot be marked as unauthenticated");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return (String) claims.get("sub");
+    }
+
+    @Override
+    public String toString() {
+        return "FirebaseAuthentication[uid=" + getName() + ", authorities=" + authorities + "]";
+    }
+}
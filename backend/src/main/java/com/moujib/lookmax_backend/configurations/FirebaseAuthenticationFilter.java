@@ -1,26 +1,27 @@
 package com.moujib.lookmax_backend.configurations;
 
-import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
-import com.moujib.lookmax_backend.temporary.FirebaseUserPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
@@ -28,57 +29,87 @@ public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(FirebaseAuthenticationFilter.class);
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
+    private static final long REJECTION_LOG_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private final VerifiedTokenCache tokenCache;
+
+    private final FirebaseKeyManager keyManager;
+
+    // Référence de méthode créée une fois, pas à chaque requête
+    private final VerifiedTokenCache.TokenVerifier verifier = this::verifyToken;
+
+    private final AtomicLong lastRejectionLogMillis = new AtomicLong();
+    private final LongAdder suppressedRejections = new LongAdder();
+
+    // Compteurs résolus une fois : un increment par requête, sans recherche dans le registre
+    private final Counter skippedCounter;
+    private final Counter anonymousCounter;
+    private final Counter verifiedCounter;
+    private final Counter invalidCounter;
+    private final Counter errorCounter;
+
+    public FirebaseAuthenticationFilter(VerifiedTokenCache tokenCache,
+                                        FirebaseKeyManager keyManager,
+                                        MeterRegistry meterRegistry) {
+        this.tokenCache = tokenCache;
+        this.keyManager = keyManager;
+        this.skippedCounter = outcomeCounter(meterRegistry, "skipped");
+        this.anonymousCounter = outcomeCounter(meterRegistry, "anonymous");
+        this.verifiedCounter = outcomeCounter(meterRegistry, "verified");
+        this.invalidCounter = outcomeCounter(meterRegistry, "invalid");
+        this.errorCounter = outcomeCounter(meterRegistry, "error");
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("lookmax.auth.requests")
+                .description("Requêtes traitées par le filtre d'authentification Firebase, par issue")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
+        // Chemin emprunté par chaque requête : les logs de debug sont gardés pour ne rien allouer
+        boolean debug = logger.isDebugEnabled();
         String path = request.getRequestURI();
-        logger.debug("🔍 Processing request: {} {}", request.getMethod(), path);
+        if (debug) {
+            logger.debug("🔍 Processing request: {} {}", request.getMethod(), path);
+        }
 
         // Exclure certains endpoints de l'authentification
         if (shouldSkipAuthentication(path)) {
-            logger.debug("⏭️ Skipping authentication for public endpoint: {}", path);
+            if (debug) {
+                logger.debug("⏭️ Skipping authentication for public endpoint: {}", path);
+            }
+            skippedCounter.increment();
             filterChain.doFilter(request, response);
             return;
         }
 
         String authHeader = request.getHeader(AUTHORIZATION_HEADER);
-        logger.debug("🔑 Auth header present: {}", authHeader != null);
 
         if (StringUtils.hasText(authHeader) && authHeader.startsWith(BEARER_PREFIX)) {
             String idToken = authHeader.substring(BEARER_PREFIX.length());
-            logger.debug("🎫 Token extracted, length: {}", idToken.length());
+            if (debug) {
+                logger.debug("🎫 Token extracted, length: {}", idToken.length());
+            }
 
             try {
-                FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(idToken);
-                logger.info("✅ Token verified successfully for user: {}", decodedToken.getUid());
-
-                // Créer le principal avec les informations du token
-                FirebaseUserPrincipal principal = new FirebaseUserPrincipal(
-                        decodedToken.getUid(),
-                        decodedToken.getEmail(),
-                        decodedToken.getName() != null ? decodedToken.getName() : decodedToken.getEmail()
-                );
-
-                // Extraire les rôles/claims personnalisés si présents
-                List<SimpleGrantedAuthority> authorities = extractAuthorities(decodedToken);
-
-                // Créer l'objet d'authentification
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(principal, null, authorities);
-
-                // Ajouter des détails supplémentaires
-                authentication.setDetails(decodedToken.getClaims());
+                Authentication authentication = authenticate(idToken);
 
                 // Définir l'authentification dans le contexte de sécurité
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-                logger.debug("🔐 Authentication set in SecurityContext for user: {}", principal.uid());
+                verifiedCounter.increment();
+                if (debug) {
+                    logger.debug("🔐 Authentication set in SecurityContext for user: {}", authentication.getName());
+                }
 
-            } catch (FirebaseAuthException e) {
-                logger.error("❌ Firebase token verification failed: {}", e.getMessage());
-                logger.debug("Error details: ", e);
+            } catch (FirebaseAuthException | InvalidIdTokenException e) {
+                invalidCounter.increment();
+                logRejection(e);
 
                 // Optionnel : Envoyer une réponse d'erreur directement
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -89,46 +120,72 @@ public class FirebaseAuthenticationFilter extends OncePerRequestFilter {
             } catch (Exception e) {
                 logger.error("❌ Unexpected error during authentication: {}", e.getMessage());
                 logger.debug("Error details: ", e);
+                errorCounter.increment();
             }
         } else {
-            logger.debug("ℹ️ No Bearer token found in Authorization header");
+            if (debug) {
+                logger.debug("ℹ️ No Bearer token found in Authorization header");
+            }
+            anonymousCounter.increment();
         }
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Authentification portée par ce token. Sur un hit du cache, l'instance partagée est
+     * renvoyée telle quelle : ni crypto, ni allocation.
+     */
+    Authentication authenticate(String idToken) throws FirebaseAuthException, InvalidIdTokenException {
+        return tokenCache.getOrVerify(idToken, verifier).authentication();
+    }
+
+    /**
+     * Un client bloqué sur un token expiré le renvoie à chaque requête : un avertissement par
+     * intervalle suffit, les rejets intermédiaires sont seulement comptés.
+     */
+    private void logRejection(Exception e) {
+        long now = System.currentTimeMillis();
+        long last = lastRejectionLogMillis.get();
+        if (now - last >= REJECTION_LOG_INTERVAL_MILLIS && lastRejectionLogMillis.compareAndSet(last, now)) {
+            logger.warn("❌ Firebase token verification failed: {} ({} similar rejections not logged)",
+                    e.getMessage(), suppressedRejections.sumThenReset());
+        } else {
+            suppressedRejections.increment();
+        }
+        logger.debug("Error details: ", e);
+    }
+
     private boolean shouldSkipAuthentication(String path) {
         // Liste des endpoints publics qui ne nécessitent pas d'authentification
         return path.startsWith("/api/health") ||
                 path.startsWith("/api/test") ||
                 path.startsWith("/api/cors-test") ||
-                path.startsWith("/actuator") ||
                 path.equals("/error");
     }
 
-    private List<SimpleGrantedAuthority> extractAuthorities(FirebaseToken token) {
-        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-
-        // Rôle par défaut pour tous les utilisateurs authentifiés
-        authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+    private VerifiedTokenCache.CachedAuthentication verifyToken(String idToken)
+            throws FirebaseAuthException, InvalidIdTokenException {
+        // Vérification locale contre les clés préchargées, le SDK Firebase n'étant qu'un repli
+        Map<String, Object> claims = keyManager.verifyIdToken(idToken);
+        logger.debug("✅ Token verified successfully for user: {}", claims.get("sub"));
 
-        // Extraire les rôles personnalisés des claims si présents
-        Map<String, Object> claims = token.getClaims();
-        if (claims.containsKey("roles")) {
-            Object rolesObj = claims.get("roles");
-            if (rolesObj instanceof List<?>) {
-                List<?> roles = (List<?>) rolesObj;
-                for (Object role : roles) {
-                    authorities.add(new SimpleGrantedAuthority("ROLE_" + role.toString().toUpperCase()));
-                }
-            }
-        }
+        // Le principal est construit au premier accès, les rôles viennent d'une liste partagée
+        FirebaseAuthentication authentication = new FirebaseAuthentication(claims, extractAuthorities(claims));
+        return new VerifiedTokenCache.CachedAuthentication(authentication, expiresAtMillis(claims));
+    }
 
-        // Vérifier si l'utilisateur est admin
-        if (claims.containsKey("admin") && Boolean.TRUE.equals(claims.get("admin"))) {
-            authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        }
+    /**
+     * Rôles de l'utilisateur : {@code ROLE_USER}, ses rôles personnalisés et {@code ROLE_ADMIN}
+     * s'il est admin. La liste renvoyée est immuable et partagée entre tous les tokens de même profil.
+     */
+    static List<GrantedAuthority> extractAuthorities(Map<String, Object> claims) {
+        return AuthoritySets.of(claims.get("roles"), Boolean.TRUE.equals(claims.get("admin")));
+    }
 
-        return authorities;
+    private static long expiresAtMillis(Map<String, Object> claims) {
+        // Sans claim exp exploitable, l'entrée est considérée expirée et n'est pas mise en cache
+        Object exp = claims.get("exp");
+        return exp instanceof Number number ? number.longValue() * 1000L : 0L;
     }
-}
\ No newline at end of file
+}
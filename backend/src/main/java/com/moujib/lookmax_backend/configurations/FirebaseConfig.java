@@ -3,7 +3,9 @@ package com.moujib.lookmax_backend.configurations;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
+import com.google.firebase.auth.FirebaseAuth;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
@@ -12,9 +14,26 @@ import javax.annotation.PostConstruct;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Initialisation du SDK Firebase Admin.
+ * <p>
+ * {@code firebase.init-mode} : {@code eager} (au démarrage, bloquant), {@code background}
+ * (lancée au démarrage sur un thread virtuel, en parallèle du reste du contexte) ou {@code lazy}
+ * (au premier appel au SDK). Le SDK ne sert qu'en repli de {@link FirebaseKeyManager} : en
+ * {@code background} comme en {@code lazy}, la recherche des credentials Google ne retarde plus
+ * la première requête.
+ */
+// firebase.sdk.enabled=false (profil loadtest) : tokens vérifiés uniquement par FirebaseKeyManager
 @Configuration
+@ConditionalOnProperty(name = "firebase.sdk.enabled", havingValue = "true", matchIfMissing = true)
 public class FirebaseConfig {
 
     @Value("${firebase.service-account-key:}")
@@ -23,8 +42,70 @@ public class FirebaseConfig {
     @Value("${firebase.service-account-file:firebase-service-account.json}")
     private String serviceAccountFile;
 
+    @Value("${firebase.init-mode:eager}")
+    private String initMode;
+
+    @Value("${firebase.init-timeout-seconds:30}")
+    private long initTimeoutSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private CompletableFuture<Void> initialization;
+
     @PostConstruct
     public void initialize() throws IOException {
+        switch (initMode) {
+            case "lazy" -> System.out.println("💤 Firebase Admin SDK will be initialized on first use");
+            case "background" -> start();
+            case "eager" -> {
+                initializeApp();
+                initialization = CompletableFuture.completedFuture(null);
+            }
+            // Une faute de frappe ne doit pas retomber silencieusement sur un mode bloquant
+            default -> throw new IllegalStateException("Invalid firebase.init-mode '" + initMode
+                    + "': expected one of eager, background, lazy");
+        }
+    }
+
+    /**
+     * Instance {@link FirebaseAuth}, en attendant (ou en déclenchant) l'initialisation si besoin.
+     */
+    public FirebaseAuth auth() {
+        CompletableFuture<Void> pending = start();
+        try {
+            pending.get(initTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Firebase initialization", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Firebase Admin SDK not initialized", e);
+        }
+        return FirebaseAuth.getInstance();
+    }
+
+    private CompletableFuture<Void> start() {
+        lock.lock();
+        try {
+            if (initialization == null || initialization.isCompletedExceptionally()) {
+                // Un échec (réseau, credentials) est retenté au prochain appel
+                initialization = new CompletableFuture<>();
+                CompletableFuture<Void> current = initialization;
+                Thread.ofVirtual().name("firebase-init").start(() -> {
+                    try {
+                        initializeApp();
+                        current.complete(null);
+                    } catch (IOException | RuntimeException e) {
+                        System.out.println("❌ Firebase Admin SDK initialization failed: " + e.getMessage());
+                        current.completeExceptionally(e instanceof IOException io ? new UncheckedIOException(io) : e);
+                    }
+                });
+            }
+            return initialization;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void initializeApp() throws IOException {
         if (FirebaseApp.getApps().isEmpty()) {
             System.out.println("🔧 Initializing Firebase Admin SDK...");
 
@@ -61,4 +142,4 @@ public class FirebaseConfig {
         System.out.println("🌍 Using default application credentials");
         return GoogleCredentials.getApplicationDefault();
     }
-}
\ No newline at end of file
+}
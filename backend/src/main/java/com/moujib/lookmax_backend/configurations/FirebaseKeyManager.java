@@ -0,0 +1,444 @@
+package com.moujib.lookmax_backend.configurations;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gestion des clés publiques de signature des ID tokens Firebase.
+ * <p>
+ * Les clés sont chargées au démarrage puis rafraîchies en arrière-plan avant l'expiration
+ * annoncée par le header {@code Cache-Control}, afin que le thread de requête vérifie les
+ * tokens localement sans jamais faire d'appel réseau. Un {@code kid} inconnu attend brièvement le
+ * rafraîchissement partagé (au plus un à la fois, espacés d'au moins
+ * {@code firebase.keys.min-refresh-interval-seconds}) puis est refusé. Le SDK Firebase n'est
+ * utilisé que si la vérification locale est désactivée ou l'identifiant du projet inconnu.
+ * <p>
+ * L'URL des clés est configurable ({@code firebase.keys.url}) et accepte aussi bien le
+ * format Google « kid → certificat X.509 PEM » qu'un JWKS, ce qui permet de pointer le
+ * backend vers un serveur de clés local pour les tests.
+ */
+@Component
+public class FirebaseKeyManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseKeyManager.class);
+
+    static final String DEFAULT_KEYS_URL =
+            "https://www.googleapis.com/robot/v1/metadata/x509/securetoken@system.gserviceaccount.com";
+    private static final String ISSUER_PREFIX = "https://securetoken.google.com/";
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<FirebaseConfig> firebaseConfig;
+    private final HttpClient httpClient;
+    private final URI keysUri;
+    private final boolean localVerification;
+    private final String configuredProjectId;
+    private final Duration refreshMargin;
+    private final Duration minRefreshInterval;
+    private final Duration fetchTimeout;
+    private final long clockSkewSeconds;
+    private final boolean blockingWarmUp;
+    private final Duration unknownKeyWait;
+    // Index : (sdk ? 2 : 0) + (valide ? 1 : 0)
+    private final Timer[] verificationTimers;
+
+    // Rafraîchissement en cours, attendu par les requêtes qui présentent un kid inconnu
+    private final AtomicReference<CompletableFuture<Boolean>> inFlight = new AtomicReference<>();
+    private final AtomicLong lastUnknownKeyWarningMillis = new AtomicLong();
+    private final LongAdder suppressedUnknownKeyWarnings = new LongAdder();
+    private volatile KeySet keySet = KeySet.EMPTY;
+    private volatile long lastAttemptMillis;
+    private volatile String projectId;
+
+    public FirebaseKeyManager(ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              ObjectProvider<FirebaseConfig> firebaseConfig,
+                              @Value("${firebase.keys.url:" + DEFAULT_KEYS_URL + "}") String keysUrl,
+                              @Value("${firebase.keys.local-verification:true}") boolean localVerification,
+                              @Value("${firebase.project-id:}") String projectId,
+                              @Value("${firebase.keys.refresh-margin-seconds:300}") long refreshMarginSeconds,
+                              @Value("${firebase.keys.min-refresh-interval-seconds:60}") long minRefreshIntervalSeconds,
+                              @Value("${firebase.keys.fetch-timeout-seconds:5}") long fetchTimeoutSeconds,
+                              @Value("${firebase.keys.clock-skew-seconds:5}") long clockSkewSeconds,
+                              @Value("${firebase.keys.blocking-warm-up:true}") boolean blockingWarmUp,
+                              @Value("${firebase.keys.unknown-key-wait-ms:1000}") long unknownKeyWaitMs) {
+        this.objectMapper = objectMapper;
+        this.firebaseConfig = firebaseConfig;
+        this.keysUri = URI.create(keysUrl);
+        this.localVerification = localVerification;
+        this.configuredProjectId = projectId;
+        this.refreshMargin = Duration.ofSeconds(refreshMarginSeconds);
+        this.minRefreshInterval = Duration.ofSeconds(minRefreshIntervalSeconds);
+        this.fetchTimeout = Duration.ofSeconds(fetchTimeoutSeconds);
+        this.clockSkewSeconds = clockSkewSeconds;
+        this.blockingWarmUp = blockingWarmUp;
+        this.unknownKeyWait = Duration.ofMillis(unknownKeyWaitMs);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(fetchTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.verificationTimers = new Timer[]{
+                verificationTimer(meterRegistry, "local", "invalid"),
+                verificationTimer(meterRegistry, "local", "valid"),
+                verificationTimer(meterRegistry, "sdk", "invalid"),
+                verificationTimer(meterRegistry, "sdk", "valid")};
+    }
+
+    private static Timer verificationTimer(MeterRegistry registry, String mode, String outcome) {
+        return Timer.builder("lookmax.auth.token.verification")
+                .description("Durée de vérification d'un ID token Firebase")
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+    }
+
+    /**
+     * Préchargement des clés pendant le démarrage, avant que Tomcat n'accepte du trafic.
+     * Un échec n'empêche pas le démarrage : les tokens sont refusés jusqu'au prochain rafraîchissement réussi.
+     * Avec {@code firebase.keys.blocking-warm-up=false}, le chargement se fait en parallèle du
+     * démarrage du contexte.
+     */
+    @PostConstruct
+    public void warmUp() {
+        if (!localVerification) {
+            return;
+        }
+        if (blockingWarmUp) {
+            refreshKeys();
+        } else {
+            Thread.ofVirtual().name("firebase-keys-warm-up").start(this::refreshKeys);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${firebase.keys.check-interval-ms:30000}",
+            initialDelayString = "${firebase.keys.check-interval-ms:30000}")
+    public void refreshIfDue() {
+        if (localVerification && System.currentTimeMillis() >= keySet.refreshAtMillis()) {
+            refreshKeys();
+        }
+    }
+
+    /**
+     * Télécharge le jeu de clés et le remplace de façon atomique.
+     *
+     * @return {@code true} si un nouveau jeu de clés a été installé
+     */
+    public boolean refreshKeys() {
+        CompletableFuture<Boolean> refresh = new CompletableFuture<>();
+        if (!inFlight.compareAndSet(null, refresh)) {
+            return false;
+        }
+        return runRefresh(refresh);
+    }
+
+    private boolean runRefresh(CompletableFuture<Boolean> refresh) {
+        boolean installed = false;
+        try {
+            installed = fetchKeys();
+            return installed;
+        } finally {
+            inFlight.set(null);
+            refresh.complete(installed);
+        }
+    }
+
+    private boolean fetchKeys() {
+        long now = System.currentTimeMillis();
+        lastAttemptMillis = now;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(keysUri)
+                    .timeout(fetchTimeout)
+                    .GET()
+                    .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IOException("Unexpected status " + response.statusCode() + " from " + keysUri);
+            }
+
+            Map<String, PublicKey> keys = parseKeys(response.body());
+            long maxAgeMillis = response.headers().firstValue("Cache-Control")
+                    .map(FirebaseKeyManager::parseMaxAgeMillis)
+                    .orElse(Duration.ofHours(1).toMillis());
+            long refreshIn = Math.max(minRefreshInterval.toMillis(), maxAgeMillis - refreshMargin.toMillis());
+
+            keySet = new KeySet(Map.copyOf(keys), now, now + refreshIn);
+            logger.info("🔑 {} Firebase signing keys loaded, next refresh in {}s", keys.size(), refreshIn / 1000);
+            return true;
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            logger.warn("⚠️ Failed to refresh Firebase signing keys from {}: {}", keysUri, e.getMessage());
+            // On garde les clés actuelles et on retente après l'intervalle minimal
+            keySet = keySet.withRefreshAt(now + minRefreshInterval.toMillis());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Vérifie un ID token et retourne ses claims.
+     * Chemin nominal : vérification RS256 locale contre les clés en mémoire, sans I/O réseau.
+     */
+    public Map<String, Object> verifyIdToken(String idToken) throws InvalidIdTokenException, FirebaseAuthException {
+        long start = System.nanoTime();
+        String expectedProjectId = resolveProjectId();
+        boolean sdk = !localVerification || expectedProjectId == null;
+        boolean valid = false;
+        try {
+            Map<String, Object> claims = sdk
+                    ? sdkAuth().verifyIdToken(idToken).getClaims()
+                    : verifyLocally(idToken, expectedProjectId);
+            valid = true;
+            return claims;
+        } finally {
+            verificationTimers[(sdk ? 2 : 0) + (valid ? 1 : 0)].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Map<String, Object> verifyLocally(String idToken, String expectedProjectId) throws InvalidIdTokenException {
+        int firstDot = idToken.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : idToken.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0 || idToken.indexOf('.', secondDot + 1) >= 0) {
+            throw new InvalidIdTokenException("Malformed ID token");
+        }
+
+        Map<String, Object> header = decodeJson(idToken.substring(0, firstDot));
+        if (!"RS256".equals(header.get("alg"))) {
+            throw new InvalidIdTokenException("ID token has incorrect algorithm, expected RS256");
+        }
+        if (!(header.get("kid") instanceof String kid)) {
+            throw new InvalidIdTokenException("ID token has no kid header");
+        }
+
+        PublicKey key = keySet.keys().get(kid);
+        if (key == null) {
+            key = awaitKey(kid);
+        }
+
+        verifySignature(idToken, secondDot, key);
+        Map<String, Object> claims = decodeJson(idToken.substring(firstDot + 1, secondDot));
+        verifyClaims(claims, expectedProjectId);
+        return Collections.unmodifiableMap(claims);
+    }
+
+    private FirebaseAuth sdkAuth() throws InvalidIdTokenException {
+        FirebaseConfig config = firebaseConfig.getIfAvailable();
+        if (config == null) {
+            throw new InvalidIdTokenException("Firebase SDK disabled and token cannot be verified locally");
+        }
+        return config.auth();
+    }
+
+    public int loadedKeyCount() {
+        return keySet.keys().size();
+    }
+
+    /**
+     * Rotation pas encore vue (ou clés jamais chargées) : attend au plus {@code unknownKeyWait} le
+     * rafraîchissement en arrière-plan, sans appel réseau sur le thread de requête.
+     */
+    private PublicKey awaitKey(String kid) throws InvalidIdTokenException {
+        try {
+            requestBackgroundRefresh().get(unknownKeyWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Le jeu de clés actuel décide
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PublicKey key = keySet.keys().get(kid);
+        if (key == null) {
+            warnUnknownKey(kid);
+            throw new InvalidIdTokenException("ID token has unknown kid");
+        }
+        return key;
+    }
+
+    /**
+     * @return le rafraîchissement en cours ou celui qui vient d'être lancé ; déjà terminé si le
+     * dernier essai date de moins de {@code minRefreshInterval}
+     */
+    private CompletableFuture<Boolean> requestBackgroundRefresh() {
+        CompletableFuture<Boolean> running = inFlight.get();
+        if (running != null) {
+            return running;
+        }
+        if (System.currentTimeMillis() - lastAttemptMillis < minRefreshInterval.toMillis()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        CompletableFuture<Boolean> refresh = new CompletableFuture<>();
+        if (!inFlight.compareAndSet(null, refresh)) {
+            running = inFlight.get();
+            return running != null ? running : CompletableFuture.completedFuture(false);
+        }
+        Thread.ofVirtual().name("firebase-keys-refresh").start(() -> runRefresh(refresh));
+        return refresh;
+    }
+
+    /**
+     * Un avertissement au plus par {@code minRefreshInterval} : le kid vient du client.
+     */
+    private void warnUnknownKey(String kid) {
+        long now = System.currentTimeMillis();
+        long last = lastUnknownKeyWarningMillis.get();
+        if (now - last >= minRefreshInterval.toMillis() && lastUnknownKeyWarningMillis.compareAndSet(last, now)) {
+            logger.warn("⚠️ Rejected ID token signed with unknown key id {} ({} similar rejections not logged)",
+                    kid.length() > 64 ? kid.substring(0, 64) : kid, suppressedUnknownKeyWarnings.sumThenReset());
+        } else {
+            suppressedUnknownKeyWarnings.increment();
+        }
+    }
+
+    private void verifySignature(String idToken, int secondDot, PublicKey key) throws InvalidIdTokenException {
+        try {
+            Signature verifier = Signature.getInstance("SHA256withRSA");
+            verifier.initVerify(key);
+            verifier.update(idToken.substring(0, secondDot).getBytes(StandardCharsets.US_ASCII));
+            byte[] signature = Base64.getUrlDecoder().decode(idToken.substring(secondDot + 1));
+            if (!verifier.verify(signature)) {
+                throw new InvalidIdTokenException("ID token has invalid signature");
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new InvalidIdTokenException("ID token signature could not be verified", e);
+        }
+    }
+
+    private void verifyClaims(Map<String, Object> claims, String expectedProjectId) throws InvalidIdTokenException {
+        long nowSeconds = System.currentTimeMillis() / 1000L;
+
+        if (!expectedProjectId.equals(claims.get("aud"))) {
+            throw new InvalidIdTokenException("ID token has incorrect audience");
+        }
+        if (!(ISSUER_PREFIX + expectedProjectId).equals(claims.get("iss"))) {
+            throw new InvalidIdTokenException("ID token has incorrect issuer");
+        }
+        if (!(claims.get("sub") instanceof String sub) || sub.isEmpty() || sub.length() > 128) {
+            throw new InvalidIdTokenException("ID token has invalid subject");
+        }
+        if (!(claims.get("exp") instanceof Number exp) || exp.longValue() + clockSkewSeconds <= nowSeconds) {
+            throw new InvalidIdTokenException("ID token has expired");
+        }
+        if (!(claims.get("iat") instanceof Number iat) || iat.longValue() - clockSkewSeconds > nowSeconds) {
+            throw new InvalidIdTokenException("ID token issued in the future");
+        }
+        if (claims.get("auth_time") instanceof Number authTime && authTime.longValue() - clockSkewSeconds > nowSeconds) {
+            throw new InvalidIdTokenException("ID token has auth_time in the future");
+        }
+    }
+
+    private Map<String, Object> decodeJson(String base64Url) throws InvalidIdTokenException {
+        try {
+            return objectMapper.readValue(Base64.getUrlDecoder().decode(base64Url), CLAIMS_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidIdTokenException("ID token segment is not valid JSON", e);
+        }
+    }
+
+    private Map<String, PublicKey> parseKeys(byte[] body) throws IOException, GeneralSecurityException {
+        JsonNode root = objectMapper.readTree(body);
+        Map<String, PublicKey> keys = new HashMap<>();
+
+        if (root.has("keys")) {
+            // Format JWKS
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            for (JsonNode jwk : root.get("keys")) {
+                if (!"RSA".equals(jwk.path("kty").asText())) {
+                    continue;
+                }
+                BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("n").asText()));
+                BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("e").asText()));
+                keys.put(jwk.path("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+            }
+        } else {
+            // Format Google : { "kid": "-----BEGIN CERTIFICATE-----..." }
+            CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
+            Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                byte[] pem = field.getValue().asText().getBytes(StandardCharsets.US_ASCII);
+                keys.put(field.getKey(),
+                        certificateFactory.generateCertificate(new ByteArrayInputStream(pem)).getPublicKey());
+            }
+        }
+
+        if (keys.isEmpty()) {
+            throw new IOException("No signing keys found at " + keysUri);
+        }
+        return keys;
+    }
+
+    private String resolveProjectId() {
+        String resolved = projectId;
+        if (resolved == null) {
+            if (StringUtils.hasText(configuredProjectId)) {
+                resolved = configuredProjectId;
+            } else if (!FirebaseApp.getApps().isEmpty()) {
+                resolved = FirebaseApp.getInstance().getOptions().getProjectId();
+            }
+            projectId = resolved;
+        }
+        return resolved;
+    }
+
+    static long parseMaxAgeMillis(String cacheControl) {
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) * 1000L : Duration.ofHours(1).toMillis();
+    }
+
+    private record KeySet(Map<String, PublicKey> keys, long fetchedAtMillis, long refreshAtMillis) {
+
+        static final KeySet EMPTY = new KeySet(Map.of(), 0L, 0L);
+
+        KeySet withRefreshAt(long refreshAt) {
+            return new KeySet(keys, fetchedAtMillis, refreshAt);
+        }
+    }
+}
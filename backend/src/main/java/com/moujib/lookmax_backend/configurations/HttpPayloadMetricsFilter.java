@@ -0,0 +1,199 @@
+package com.moujib.lookmax_backend.configurations;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distribution des tailles de requête et de réponse par endpoint.
+ * <p>
+ * Le tag {@code uri} reprend le pattern du handler ({@code /api/photos/{sha256}}) comme
+ * {@code http.server.requests}, ce qui borne la cardinalité. La réponse est comptée au fil de
+ * l'écriture, sans copie du corps ; les réponses asynchrones (SSE, long-poll) ne comptent que
+ * la taille de la requête. Les compteurs sont gardés dans une map locale : le builder n'est
+ * appelé qu'une fois par (métrique, uri, méthode), pas à chaque requête.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class HttpPayloadMetricsFilter extends OncePerRequestFilter {
+
+    private static final double MIN_EXPECTED_BYTES = 64;
+    private static final double MAX_EXPECTED_BYTES = 64L * 1024 * 1024;
+
+    private record MeterKey(String name, String uri, String method) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final ConcurrentHashMap<MeterKey, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public HttpPayloadMetricsFilter(MeterRegistry meterRegistry,
+                                    @Value("${lookmax.metrics.payload-size.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        CountingResponse counting = new CountingResponse(response);
+        try {
+            filterChain.doFilter(request, counting);
+        } finally {
+            String uri = uriTag(request, response.getStatus());
+            long requestBytes = request.getContentLengthLong();
+            if (requestBytes >= 0) {
+                summary("http.server.request.size", uri, request.getMethod()).record(requestBytes);
+            }
+            if (!request.isAsyncStarted()) {
+                // Corps délégué au sendfile de Tomcat : rien n'est écrit ici, la taille vient de l'en-tête
+                long responseBytes = request.getAttribute("org.apache.tomcat.sendfile.filename") != null
+                        ? parseLength(response.getHeader(HttpHeaders.CONTENT_LENGTH))
+                        : counting.bytesWritten();
+                summary("http.server.response.size", uri, request.getMethod()).record(responseBytes);
+            }
+        }
+    }
+
+    DistributionSummary summary(String name, String uri, String method) {
+        MeterKey key = new MeterKey(name, uri, method);
+        DistributionSummary summary = summaries.get(key);
+        // get() d'abord : computeIfAbsent verrouille le seau même quand la clé existe
+        return summary != null ? summary : summaries.computeIfAbsent(key, k -> DistributionSummary.builder(k.name())
+                .baseUnit("bytes")
+                .tag("uri", k.uri())
+                .tag("method", k.method())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED_BYTES)
+                .maximumExpectedValue(MAX_EXPECTED_BYTES)
+                .register(meterRegistry));
+    }
+
+    private static long parseLength(String header) {
+        try {
+            return header != null ? Long.parseLong(header) : 0L;
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static String uriTag(HttpServletRequest request, int status) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern instanceof String value) {
+            return value;
+        }
+        if (status == HttpServletResponse.SC_NOT_FOUND) {
+            return "NOT_FOUND";
+        }
+        if (status >= 300 && status < 400) {
+            return "REDIRECTION";
+        }
+        return "UNKNOWN";
+    }
+
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+
+        private long bytes;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        long bytesWritten() {
+            return bytes;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        bytes++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        bytes += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        delegate.setWriteListener(listener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                // Compte en caractères : exact pour les réponses JSON ASCII, approché sinon
+                Writer delegate = super.getWriter();
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] buf, int off, int len) throws IOException {
+                        delegate.write(buf, off, len);
+                        bytes += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+                });
+            }
+            return writer;
+        }
+    }
+}
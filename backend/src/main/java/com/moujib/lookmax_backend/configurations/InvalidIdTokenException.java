@@ -0,0 +1,15 @@
+package com.moujib.lookmax_backend.configurations;
+
+/**
+ * Levée quand un ID token est rejeté par la vérification locale (signature, claims, format).
+ */
+public class InvalidIdTokenException extends Exception {
+
+    public InvalidIdTokenException(String message) {
+        super(message);
+    }
+
+    public InvalidIdTokenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,74 @@
+package com.moujib.lookmax_backend.configurations;
+
+import com.moujib.lookmax_backend.services.AnalysisResultCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métriques lues à la demande sur les compteurs internes (caches, limiteur JDBC).
+ * Rien n'est enregistré sur le chemin de requête : le registre interroge les {@code LongAdder}
+ * existants au moment du scrape.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder tokenCacheMetrics(VerifiedTokenCache tokenCache) {
+        return registry -> {
+            FunctionCounter.builder("lookmax.auth.token.cache", tokenCache, cache -> cache.stats().hits())
+                    .description("Tokens servis depuis le cache de vérification")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("lookmax.auth.token.cache", tokenCache, cache -> cache.stats().misses())
+                    .description("Tokens servis depuis le cache de vérification")
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("lookmax.auth.token.cache.size", tokenCache, cache -> cache.stats().size())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder analysisCacheMetrics(AnalysisResultCache analysisResultCache) {
+        return registry -> {
+            FunctionCounter.builder("lookmax.analysis.cache", analysisResultCache, cache -> cache.stats().memoryHits())
+                    .tag("result", "memory")
+                    .register(registry);
+            FunctionCounter.builder("lookmax.analysis.cache", analysisResultCache, cache -> cache.stats().databaseHits())
+                    .tag("result", "database")
+                    .register(registry);
+            FunctionCounter.builder("lookmax.analysis.cache", analysisResultCache, cache -> cache.stats().computations())
+                    .tag("result", "computed")
+                    .register(registry);
+            FunctionCounter.builder("lookmax.analysis.cache", analysisResultCache, cache -> cache.stats().coalesced())
+                    .tag("result", "coalesced")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder databaseLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof DatabaseConcurrencyLimiter.LimitedDataSource limited)) {
+                return;
+            }
+            // Attente en amont de Hikari ; l'attente dans Hikari est hikaricp.connections.acquire
+            FunctionTimer.builder("lookmax.db.permit.wait", limited,
+                            DatabaseConcurrencyLimiter.LimitedDataSource::acquisitions,
+                            DatabaseConcurrencyLimiter.LimitedDataSource::totalWaitNanos,
+                            TimeUnit.NANOSECONDS)
+                    .description("Attente d'un permis du limiteur de concurrence JDBC")
+                    .register(registry);
+            Gauge.builder("lookmax.db.permits.available", limited,
+                            DatabaseConcurrencyLimiter.LimitedDataSource::availablePermits)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.moujib.lookmax_backend.configurations;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Pool de connexions sortantes partagé par tous les fournisseurs externes.
+ * <p>
+ * Un seul pool borné (plutôt qu'un par {@code WebClient}) : les connexions inactives sont
+ * évincées en tâche de fond, la file d'attente d'acquisition est bornée et les métriques
+ * Reactor Netty sont publiées dans le registre Micrometer.
+ */
+@Configuration
+@EnableConfigurationProperties(ProviderProperties.class)
+public class ProviderClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider providerConnectionProvider(ProviderProperties properties) {
+        ProviderProperties.Pool pool = properties.pool();
+        return ConnectionProvider.builder("lookmax-providers")
+                .maxConnections(pool.maxConnections())
+                .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+                .maxIdleTime(pool.maxIdleTime())
+                .maxLifeTime(pool.maxLifeTime())
+                .evictInBackground(pool.evictionInterval())
+                .metrics(true)
+                .build();
+    }
+}
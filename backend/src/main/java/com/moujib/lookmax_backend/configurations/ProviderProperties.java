@@ -0,0 +1,56 @@
+package com.moujib.lookmax_backend.configurations;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Fournisseurs d'analyse externes ({@code lookmax.providers}) : un pool de connexions partagé
+ * et, par fournisseur, ses timeouts, son bulkhead, son disjoncteur, ses retries et son cache.
+ */
+@ConfigurationProperties(prefix = "lookmax.providers")
+public record ProviderProperties(@DefaultValue Pool pool, Map<String, Provider> clients) {
+
+    public ProviderProperties {
+        clients = clients != null ? Map.copyOf(clients) : Map.of();
+    }
+
+    /**
+     * @param maxConnections        connexions par hôte distant (HTTP/1.1) ou connexions multiplexées (HTTP/2)
+     * @param pendingAcquireMaxCount requêtes pouvant attendre une connexion avant rejet immédiat
+     */
+    public record Pool(@DefaultValue("64") int maxConnections,
+                       @DefaultValue("256") int pendingAcquireMaxCount,
+                       @DefaultValue("2s") Duration pendingAcquireTimeout,
+                       @DefaultValue("30s") Duration maxIdleTime,
+                       @DefaultValue("5m") Duration maxLifeTime,
+                       @DefaultValue("30s") Duration evictionInterval) {
+    }
+
+    /**
+     * @param deadline            budget total d'un appel, retries compris
+     * @param maxConcurrent       appels simultanés autorisés (bulkhead)
+     * @param failureRatePercent  taux d'échec, sur les {@code slidingWindow} derniers appels, qui ouvre le disjoncteur
+     * @param cacheTtl            durée de vie des réponses en cache ; {@code 0} désactive le cache
+     */
+    public record Provider(String baseUrl,
+                           @DefaultValue("true") boolean http2,
+                           @DefaultValue("1s") Duration connectTimeout,
+                           @DefaultValue("2s") Duration responseTimeout,
+                           @DefaultValue("5s") Duration deadline,
+                           @DefaultValue("16") int maxConcurrent,
+                           @DefaultValue("100ms") Duration bulkheadWait,
+                           @DefaultValue("2") int maxRetries,
+                           @DefaultValue("100ms") Duration retryBackoff,
+                           @DefaultValue("1s") Duration retryMaxBackoff,
+                           @DefaultValue("20") int slidingWindow,
+                           @DefaultValue("10") int minimumCalls,
+                           @DefaultValue("50") int failureRatePercent,
+                           @DefaultValue("30s") Duration openDuration,
+                           @DefaultValue("3") int halfOpenCalls,
+                           @DefaultValue("5m") Duration cacheTtl,
+                           @DefaultValue("1000") int cacheMaxEntries) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.moujib.lookmax_backend.configurations;
+
+import com.moujib.lookmax_backend.temporary.FirebaseUserPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitation de débit placée juste après {@link FirebaseAuthenticationFilter} : la clé est
+ * l'uid de l'utilisateur authentifié, ou l'IP du client sur les endpoints publics.
+ * Enregistré uniquement dans la chaîne Spring Security (voir {@link SecurityConfig}).
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final boolean enabled;
+    private final Counter[] rejected = new Counter[TokenBucketRateLimiter.Group.values().length];
+
+    public RateLimitFilter(TokenBucketRateLimiter rateLimiter,
+                           MeterRegistry meterRegistry,
+                           @Value("${lookmax.rate-limit.enabled:true}") boolean enabled) {
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        for (TokenBucketRateLimiter.Group group : TokenBucketRateLimiter.Group.values()) {
+            rejected[group.ordinal()] = Counter.builder("lookmax.ratelimit.rejected")
+                    .description("Requêtes refusées (429) par groupe d'endpoints")
+                    .tag("group", group.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        TokenBucketRateLimiter.Group group = groupOf(request.getMethod(), request.getRequestURI());
+        long waitNanos = rateLimiter.tryAcquire(group, clientKey(request));
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rejected[group.ordinal()].increment();
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        logger.debug("🚫 Rate limit reached ({}) for {} {}", group, request.getMethod(), request.getRequestURI());
+
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\": \"Too Many Requests\", \"message\": \"Rate limit exceeded, retry in " +
+                retryAfterSeconds + "s\"}");
+    }
+
+    /**
+     * Décision pour une sous-requête de {@code /api/batch}, décomptée comme si elle avait été
+     * envoyée seule.
+     *
+     * @return 0 si elle est acceptée, sinon l'attente avant le prochain jeton en nanosecondes
+     */
+    public long tryAcquire(String method, String path, String key) {
+        if (!enabled) {
+            return 0;
+        }
+        TokenBucketRateLimiter.Group group = groupOf(method, path);
+        long waitNanos = rateLimiter.tryAcquire(group, key);
+        if (waitNanos > 0) {
+            rejected[group.ordinal()].increment();
+        }
+        return waitNanos;
+    }
+
+    static TokenBucketRateLimiter.Group groupOf(String method, String path) {
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+            return TokenBucketRateLimiter.Group.READS;
+        }
+        // Seule l'ouverture d'une session d'upload compte comme un upload, pas chacun de ses blocs
+        if (path.startsWith("/api/photos/uploads/")) {
+            return TokenBucketRateLimiter.Group.READS;
+        }
+        if (path.startsWith("/api/photos") && !path.endsWith("/analysis")) {
+            return TokenBucketRateLimiter.Group.UPLOADS;
+        }
+        // /api/batch n'est qu'une enveloppe : chaque sous-requête est décomptée dans son propre groupe
+        if (path.startsWith("/api/photos") || path.startsWith("/api/jobs")) {
+            return TokenBucketRateLimiter.Group.ANALYSIS;
+        }
+        return TokenBucketRateLimiter.Group.READS;
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof FirebaseUserPrincipal principal) {
+            return principal.uid();
+        }
+        // Préfixe : une IP ne peut pas entrer en collision avec un uid
+        return "ip:" + request.getRemoteAddr();
+    }
+}
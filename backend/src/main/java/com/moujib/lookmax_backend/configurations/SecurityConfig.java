@@ -1,8 +1,12 @@
 package com.moujib.lookmax_backend.configurations;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -21,9 +25,43 @@ public class SecurityConfig {
 
     private final FirebaseAuthenticationFilter firebaseAuthenticationFilter;
 
-    public SecurityConfig(CorsConfigurationSource corsConfigurationSource, FirebaseAuthenticationFilter firebaseAuthenticationFilter) {
+    private final RateLimitFilter rateLimitFilter;
+
+    public SecurityConfig(CorsConfigurationSource corsConfigurationSource,
+                          FirebaseAuthenticationFilter firebaseAuthenticationFilter,
+                          RateLimitFilter rateLimitFilter) {
         this.corsConfigurationSource = corsConfigurationSource;
         this.firebaseAuthenticationFilter = firebaseAuthenticationFilter;
+        this.rateLimitFilter = rateLimitFilter;
+    }
+
+    /**
+     * Le filtre de débit ne doit tourner que dans la chaîne de sécurité, après l'authentification :
+     * enregistré aussi au niveau du conteneur, il verrait des requêtes encore anonymes.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * Actuator, servi sur {@code management.server.port} que seul le réseau interne atteint : sondes
+     * et scrape Prometheus sans authentification, un token Firebase d'une heure ne convenant pas à
+     * un scraper. Ni filtre Firebase ni limitation de débit sur cette chaîne.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session ->
+                        session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+
+        return http.build();
     }
 
     @Bean
@@ -34,12 +72,16 @@ public class SecurityConfig {
                 .sessionManagement(session ->
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Dispatch asynchrone (long-poll, SSE) : la requête initiale a déjà été autorisée
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/health", "/api/test", "/api/cors-test").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers("/error").permitAll()
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         .requestMatchers("/api/main").authenticated()
                         .requestMatchers("/api/user/**").authenticated()
+                        .requestMatchers("/api/photos/**").authenticated()
+                        .requestMatchers("/api/jobs/**").authenticated()
+                        .requestMatchers("/api/batch").authenticated()
                         .anyRequest().authenticated()
                 )
 
@@ -47,6 +89,9 @@ public class SecurityConfig {
                 .addFilterBefore(firebaseAuthenticationFilter,
                         UsernamePasswordAuthenticationFilter.class)
 
+                // Limitation de débit par uid (ou IP), une fois l'utilisateur identifié
+                .addFilterAfter(rateLimitFilter, FirebaseAuthenticationFilter.class)
+
                 // Gestion des exceptions
                 .exceptionHandling(exceptions -> exceptions
                         .authenticationEntryPoint((request, response, authException) -> {
@@ -0,0 +1,155 @@
+package com.moujib.lookmax_backend.configurations;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seaux à jetons par clé (uid Firebase ou IP) et par groupe d'endpoints.
+ * <p>
+ * Chaque seau tient dans un seul {@code long} mis à jour par CAS (formulation GCRA du seau à
+ * jetons : on stocke l'instant théorique où le seau sera de nouveau plein), donc ni verrou ni
+ * allocation par requête une fois le seau créé. Un seau revenu plein est équivalent à un seau
+ * neuf : le balayage périodique le supprime sans rien perdre. Au-delà de {@code maxKeys} clés
+ * par groupe, les nouvelles clés sont réparties par hash sur {@value #OVERFLOW_STRIPES} seaux de
+ * débordement jusqu'au prochain balayage : la mémoire reste bornée face à une rafale d'IP
+ * distinctes, et un client qui épuise son seau n'en bloque qu'une petite fraction.
+ */
+@Component
+public class TokenBucketRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBucketRateLimiter.class);
+
+    static final int OVERFLOW_STRIPES = 1024;
+
+    public enum Group {
+        UPLOADS, ANALYSIS, READS
+    }
+
+    private final Limit[] limits = new Limit[Group.values().length];
+    @SuppressWarnings("unchecked")
+    private final ConcurrentHashMap<String, Bucket>[] buckets = new ConcurrentHashMap[Group.values().length];
+    private final Bucket[][] overflow = new Bucket[Group.values().length][OVERFLOW_STRIPES];
+    private final int maxKeys;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    public TokenBucketRateLimiter(
+            @Value("${lookmax.rate-limit.uploads.capacity:10}") int uploadsCapacity,
+            @Value("${lookmax.rate-limit.uploads.per-minute:20}") int uploadsPerMinute,
+            @Value("${lookmax.rate-limit.analysis.capacity:5}") int analysisCapacity,
+            @Value("${lookmax.rate-limit.analysis.per-minute:30}") int analysisPerMinute,
+            @Value("${lookmax.rate-limit.reads.capacity:60}") int readsCapacity,
+            @Value("${lookmax.rate-limit.reads.per-minute:600}") int readsPerMinute,
+            @Value("${lookmax.rate-limit.max-keys:100000}") int maxKeys) {
+        limits[Group.UPLOADS.ordinal()] = Limit.of(uploadsCapacity, uploadsPerMinute);
+        limits[Group.ANALYSIS.ordinal()] = Limit.of(analysisCapacity, analysisPerMinute);
+        limits[Group.READS.ordinal()] = Limit.of(readsCapacity, readsPerMinute);
+        for (Group group : Group.values()) {
+            buckets[group.ordinal()] = new ConcurrentHashMap<>();
+            for (int stripe = 0; stripe < OVERFLOW_STRIPES; stripe++) {
+                overflow[group.ordinal()][stripe] = new Bucket();
+            }
+        }
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Consomme un jeton.
+     *
+     * @return 0 si la requête passe, sinon le délai en nanosecondes avant le prochain jeton
+     */
+    public long tryAcquire(Group group, String key) {
+        return tryAcquire(group, key, System.nanoTime());
+    }
+
+    long tryAcquire(Group group, String key, long nowNanos) {
+        int index = group.ordinal();
+        ConcurrentHashMap<String, Bucket> map = buckets[index];
+        Bucket bucket = map.get(key);
+        if (bucket == null) {
+            // Table pleine : jamais de balayage sur le thread de la requête, c'est le rôle de la tâche
+            // planifiée ; une rafale d'IP distinctes reste en O(1) par requête
+            bucket = map.size() < maxKeys ? map.computeIfAbsent(key, k -> new Bucket()) : overflow[index][stripe(key)];
+        }
+        return bucket.acquire(limits[index], nowNanos);
+    }
+
+    @Scheduled(fixedDelayString = "${lookmax.rate-limit.sweep-interval-ms:30000}")
+    public void evictIdle() {
+        int evicted = evictIdle(System.nanoTime());
+        if (evicted > 0) {
+            logger.debug("🧹 {} idle rate-limit buckets evicted", evicted);
+        }
+    }
+
+    int evictIdle(long nowNanos) {
+        // Un seul balayage à la fois
+        if (!sweeping.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int evicted = 0;
+            for (ConcurrentHashMap<String, Bucket> map : buckets) {
+                int before = map.size();
+                // Un acquire concurrent sur un seau retiré ne peut consommer qu'un jeton « perdu »
+                map.values().removeIf(bucket -> bucket.isFull(nowNanos));
+                evicted += before - map.size();
+            }
+            return evicted;
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    static int stripe(String key) {
+        // Mélange de Fibonacci : les bits de poids fort choisissent le seau
+        return (key.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(OVERFLOW_STRIPES));
+    }
+
+    int size(Group group) {
+        return buckets[group.ordinal()].size();
+    }
+
+    /**
+     * @param intervalNanos  temps de régénération d'un jeton
+     * @param toleranceNanos avance maximale sur le rythme nominal, soit {@code capacity - 1} jetons
+     */
+    private record Limit(long intervalNanos, long toleranceNanos) {
+
+        static Limit of(int capacity, int perMinute) {
+            long interval = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            return new Limit(interval, interval * (Math.max(1, capacity) - 1L));
+        }
+    }
+
+    private static final class Bucket {
+
+        // Instant (System.nanoTime) auquel le seau sera de nouveau plein
+        private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+        long acquire(Limit limit, long now) {
+            while (true) {
+                long current = fullAt.get();
+                long base = Math.max(current, now);
+                long ahead = base - now;
+                if (ahead > limit.toleranceNanos()) {
+                    return ahead - limit.toleranceNanos();
+                }
+                if (fullAt.compareAndSet(current, base + limit.intervalNanos())) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return fullAt.get() <= now;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.moujib.lookmax_backend.configurations;
+
+import com.google.firebase.auth.FirebaseAuthException;
+import com.moujib.lookmax_backend.temporary.FirebaseUserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache mémoire borné des ID tokens Firebase déjà vérifiés.
+ * <p>
+ * Le client Quasar renvoie le même token pendant toute sa durée de vie (1h) : on évite
+ * donc de refaire la vérification RS256 à chaque requête. Les entrées sont indexées par
+ * l'empreinte SHA-256 du token (jamais le token brut), expirent au claim {@code exp}
+ * et sont évincées en LRU au-delà de {@code firebase.token-cache.max-size}.
+ * <p>
+ * Un hit n'alloue que la clé de 32 octets : l'empreinte est calculée avec des
+ * {@link MessageDigest} et tampons recyclés, et l'entrée renvoie une {@link FirebaseAuthentication}
+ * partagée.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    private static final int HASHER_POOL_SIZE = 64;
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long expirySkewMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<TokenKey, CachedAuthentication> entries;
+    // Pas de ThreadLocal : avec un thread virtuel par requête, il ne serait jamais réutilisé
+    private final ArrayBlockingQueue<TokenHasher> hashers = new ArrayBlockingQueue<>(HASHER_POOL_SIZE);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${firebase.token-cache.enabled:true}") boolean enabled,
+                              @Value("${firebase.token-cache.max-size:10000}") int maxSize,
+                              @Value("${firebase.token-cache.expiry-skew-seconds:30}") long expirySkewSeconds) {
+        this.enabled = enabled;
+        this.maxSize = Math.max(1, maxSize);
+        this.expirySkewMillis = expirySkewSeconds * 1000L;
+        // accessOrder = true : l'itération part de l'entrée la moins récemment utilisée
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Retourne l'authentification en cache pour ce token, ou la calcule via {@code verifier}
+     * et la met en cache jusqu'à son expiration.
+     */
+    public CachedAuthentication getOrVerify(String idToken, TokenVerifier verifier)
+            throws FirebaseAuthException, InvalidIdTokenException {
+        if (!enabled) {
+            return verifier.verify(idToken);
+        }
+
+        TokenKey key = keyOf(idToken);
+        if (key == null) {
+            // Caractères hors base64url : le token est forcément invalide, la vérification le rejettera
+            return verifier.verify(idToken);
+        }
+        long now = System.currentTimeMillis();
+
+        CachedAuthentication cached = lookup(key, now);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        // La vérification (crypto + éventuel réseau) se fait hors du verrou
+        CachedAuthentication verified = verifier.verify(idToken);
+        if (verified.expiresAtMillis() - expirySkewMillis > now) {
+            store(key, verified, now);
+        }
+        return verified;
+    }
+
+    /**
+     * Supprime toutes les entrées expirées.
+     */
+    public int purgeExpired() {
+        lock.lock();
+        try {
+            return purgeExpiredLocked(System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size, maxSize);
+    }
+
+    private CachedAuthentication lookup(TokenKey key, long now) {
+        lock.lock();
+        try {
+            CachedAuthentication cached = entries.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (isExpired(cached, now)) {
+                entries.remove(key);
+                expirations.increment();
+                return null;
+            }
+            return cached;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(TokenKey key, CachedAuthentication value, long now) {
+        lock.lock();
+        try {
+            if (entries.size() >= maxSize && !entries.containsKey(key)) {
+                // On libère d'abord les tokens expirés avant de sacrifier des entrées valides
+                purgeExpiredLocked(now);
+                Iterator<Map.Entry<TokenKey, CachedAuthentication>> it = entries.entrySet().iterator();
+                while (entries.size() >= maxSize && it.hasNext()) {
+                    it.next();
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+            entries.put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int purgeExpiredLocked(long now) {
+        int removed = 0;
+        Iterator<CachedAuthentication> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (isExpired(it.next(), now)) {
+                it.remove();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            expirations.add(removed);
+            logger.debug("🧹 {} expired tokens purged from cache", removed);
+        }
+        return removed;
+    }
+
+    private boolean isExpired(CachedAuthentication cached, long now) {
+        return cached.expiresAtMillis() - expirySkewMillis <= now;
+    }
+
+    private TokenKey keyOf(String idToken) {
+        TokenHasher hasher = hashers.poll();
+        if (hasher == null) {
+            hasher = new TokenHasher();
+        }
+        try {
+            return hasher.hash(idToken);
+        } finally {
+            hashers.offer(hasher);
+        }
+    }
+
+    /**
+     * Empreinte SHA-256 d'un token, sur quatre longs.
+     */
+    record TokenKey(long h0, long h1, long h2, long h3) {
+    }
+
+    /**
+     * {@link MessageDigest} et tampons réutilisés d'une requête à l'autre via le pool.
+     */
+    private static final class TokenHasher {
+
+        private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+        private final MessageDigest md;
+        private final byte[] hash = new byte[32];
+        private byte[] ascii = new byte[2048];
+
+        TokenHasher() {
+            try {
+                md = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        /**
+         * @return {@code null} si le token contient un caractère non ASCII
+         */
+        TokenKey hash(String idToken) {
+            int length = idToken.length();
+            if (ascii.length < length) {
+                ascii = new byte[Math.max(length, ascii.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                char c = idToken.charAt(i);
+                if (c >= 0x80) {
+                    return null;
+                }
+                ascii[i] = (byte) c;
+            }
+            md.update(ascii, 0, length);
+            try {
+                md.digest(hash, 0, hash.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException("SHA-256 digest failed", e);
+            }
+            return new TokenKey((long) LONGS.get(hash, 0), (long) LONGS.get(hash, 8),
+                    (long) LONGS.get(hash, 16), (long) LONGS.get(hash, 24));
+        }
+    }
+
+    /**
+     * Résultat d'une vérification réussie : l'authentification, placée telle quelle dans le
+     * contexte de sécurité à chaque requête portant ce token, sans refaire de crypto.
+     */
+    public record CachedAuthentication(FirebaseAuthentication authentication, long expiresAtMillis) {
+
+        public FirebaseUserPrincipal principal() {
+            return authentication.principal();
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, long expirations, int size, int maxSize) {
+    }
+
+    @FunctionalInterface
+    public interface TokenVerifier {
+        CachedAuthentication verify(String idToken) throws FirebaseAuthException, InvalidIdTokenException;
+    }
+}
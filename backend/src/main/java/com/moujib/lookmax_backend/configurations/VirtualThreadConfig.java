@@ -0,0 +1,81 @@
+package com.moujib.lookmax_backend.configurations;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.time.Duration;
+
+/**
+ * Mode d'exécution sur threads virtuels.
+ * <p>
+ * Activé par {@code spring.threads.virtual.enabled=true} : Spring Boot bascule alors Tomcat,
+ * les tâches {@code @Async} et {@code @Scheduled} sur des threads virtuels. Dans ce mode on
+ * surveille en continu (JFR {@code jdk.VirtualThreadPinned}) les threads virtuels épinglés
+ * à leur carrier, typiquement par un bloc {@code synchronized} autour d'une I/O. Notre code
+ * utilise des {@link java.util.concurrent.locks.ReentrantLock} pour cette raison.
+ */
+@Configuration
+@EnableAsync
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${lookmax.virtual-threads.pinning-monitor.enabled:true}")
+    private boolean pinningMonitorEnabled;
+
+    @Value("${lookmax.virtual-threads.pinning-monitor.threshold-ms:20}")
+    private long pinningThresholdMs;
+
+    private RecordingStream pinningStream;
+
+    @PostConstruct
+    public void initialize() {
+        logger.info("🧵 Request execution mode: {}", virtualThreadsEnabled ? "virtual threads" : "platform threads");
+
+        if (virtualThreadsEnabled && pinningMonitorEnabled) {
+            pinningStream = new RecordingStream();
+            pinningStream.enable(PINNED_EVENT)
+                    .withThreshold(Duration.ofMillis(pinningThresholdMs))
+                    .withStackTrace();
+            pinningStream.onEvent(PINNED_EVENT, this::reportPinning);
+            pinningStream.startAsync();
+            logger.info("🔎 Virtual thread pinning monitor started (threshold {} ms)", pinningThresholdMs);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pinningStream != null) {
+            pinningStream.close();
+        }
+    }
+
+    private void reportPinning(RecordedEvent event) {
+        String location = "unknown";
+        if (event.getStackTrace() != null) {
+            // Première frame de notre code, sinon la frame la plus haute
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                String type = frame.getMethod().getType().getName();
+                if (location.equals("unknown") || type.startsWith("com.moujib.")) {
+                    location = type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+                    if (type.startsWith("com.moujib.")) {
+                        break;
+                    }
+                }
+            }
+        }
+        logger.warn("📌 Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), location);
+    }
+}
@@ -0,0 +1,53 @@
+package com.moujib.lookmax_backend.controllers;
+
+import com.moujib.lookmax_backend.models.BatchItemResult;
+import com.moujib.lookmax_backend.models.BatchRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/batch")
+public class BatchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchController.class);
+
+    private final BatchDispatcher batchDispatcher;
+
+    public BatchController(BatchDispatcher batchDispatcher) {
+        this.batchDispatcher = batchDispatcher;
+    }
+
+    /**
+     * Plusieurs appels d'API en un aller-retour : authentification, CORS et limitation de débit
+     * ne s'appliquent qu'une fois à l'enveloppe. Les éléments indépendants s'exécutent en
+     * parallèle ; chacun porte son propre statut, l'enveloppe répond 200 dès qu'elle est valide.
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> batch(@RequestBody BatchRequest batch,
+                                                     HttpServletRequest request,
+                                                     HttpServletResponse response) {
+        long start = System.nanoTime();
+        List<BatchItemResult> results;
+        try {
+            results = batchDispatcher.dispatch(batch.requests(), request, response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Bad Request",
+                    "message", e.getMessage()
+            ));
+        }
+
+        logger.debug("📦 Batch of {} requests served in {} ms", results.size(), (System.nanoTime() - start) / 1_000_000);
+        return ResponseEntity.ok(Map.of("results", results));
+    }
+}
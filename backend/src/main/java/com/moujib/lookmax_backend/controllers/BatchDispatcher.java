@@ -0,0 +1,365 @@
+package com.moujib.lookmax_backend.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moujib.lookmax_backend.configurations.RateLimitFilter;
+import com.moujib.lookmax_backend.models.BatchItemResult;
+import com.moujib.lookmax_backend.models.BatchRequest;
+import com.moujib.lookmax_backend.temporary.FirebaseUserPrincipal;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.HandlerMethodArgumentResolverComposite;
+import org.springframework.web.method.support.InvocableHandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletRequestDataBinderFactory;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.UriUtils;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Exécute les sous-requêtes de {@code /api/batch} directement sur les handlers Spring MVC.
+ * <p>
+ * La requête enveloppe a déjà traversé la chaîne Spring Security (CORS, vérification du token,
+ * limitation de débit) ; chaque sous-requête est résolue par le {@link RequestMappingHandlerMapping}
+ * puis invoquée avec les resolvers d'arguments du {@link RequestMappingHandlerAdapter}, sur un
+ * thread virtuel qui hérite du {@link SecurityContext}. La valeur de retour ({@code ResponseEntity},
+ * {@code DeferredResult}) est reprise telle quelle, sans sérialisation intermédiaire.
+ */
+@Component
+public class BatchDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchDispatcher.class);
+
+    private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "PATCH", "DELETE");
+    // {{id/pointeur/json}} : valeur extraite du corps d'une dépendance
+    private static final Pattern REFERENCE = Pattern.compile("\\{\\{([A-Za-z0-9_-]+)(/[^}]*)?}}");
+
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final RequestMappingHandlerAdapter handlerAdapter;
+    private final RateLimitFilter rateLimitFilter;
+    private final ObjectMapper objectMapper;
+    private final int maxItems;
+    private final long timeoutMs;
+    private final DefaultParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    // Construits au premier appel : l'adapter n'est initialisé qu'après la création des beans
+    private volatile HandlerMethodArgumentResolverComposite argumentResolvers;
+    private volatile ServletRequestDataBinderFactory binderFactory;
+
+    public BatchDispatcher(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                           RequestMappingHandlerAdapter handlerAdapter,
+                           RateLimitFilter rateLimitFilter,
+                           ObjectMapper objectMapper,
+                           @Value("${lookmax.batch.max-items:20}") int maxItems,
+                           @Value("${lookmax.batch.timeout-ms:25000}") long timeoutMs) {
+        this.handlerMapping = handlerMapping;
+        this.handlerAdapter = handlerAdapter;
+        this.rateLimitFilter = rateLimitFilter;
+        this.objectMapper = objectMapper;
+        this.maxItems = maxItems;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * @return un résultat par élément, dans l'ordre de la requête
+     * @throws IllegalArgumentException si le lot est mal formé (rien n'est exécuté)
+     */
+    public List<BatchItemResult> dispatch(List<BatchRequest.Item> items, HttpServletRequest request,
+                                          HttpServletResponse response) {
+        validate(items);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        BatchSubRequest.Envelope envelope = BatchSubRequest.Envelope.of(request);
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        String clientKey = clientKey(securityContext, request);
+
+        return execute(items, deadline,
+                (item, dependencies) -> run(item, dependencies, envelope, response, securityContext, clientKey, deadline));
+    }
+
+    /**
+     * Planifie les éléments selon {@code dependsOn} : chacun démarre dès que ses dépendances ont
+     * abouti, ou répond 424 si l'une d'elles a échoué.
+     *
+     * @param runner exécution d'un élément, avec les résultats de ses dépendances
+     */
+    List<BatchItemResult> execute(List<BatchRequest.Item> items, long deadline,
+                                  BiFunction<BatchRequest.Item, Map<String, BatchItemResult>, BatchItemResult> runner) {
+        // Lue et écrite uniquement par le thread de la requête
+        Map<String, CompletableFuture<BatchItemResult>> futures = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (BatchRequest.Item item : items) {
+                // Futures des dépendances figées avant la planification : le code asynchrone ne lit jamais futures
+                Map<String, CompletableFuture<BatchItemResult>> upstream = new LinkedHashMap<>();
+                for (String dependency : dependsOn(item)) {
+                    upstream.put(dependency, futures.get(dependency));
+                }
+                CompletableFuture<?>[] dependencies = upstream.values().toArray(CompletableFuture[]::new);
+                futures.put(item.id(), CompletableFuture.allOf(dependencies).handleAsync((ignored, error) -> {
+                    Map<String, BatchItemResult> resolved = new HashMap<>();
+                    for (Map.Entry<String, CompletableFuture<BatchItemResult>> dependency : upstream.entrySet()) {
+                        CompletableFuture<BatchItemResult> future = dependency.getValue();
+                        // Dépendance annulée à l'échéance ou en erreur : traitée comme un échec
+                        BatchItemResult result = future.isCompletedExceptionally() ? null : future.join();
+                        if (result == null || !result.successful()) {
+                            return BatchItemResult.error(item.id(), HttpStatus.FAILED_DEPENDENCY.value(), "Failed Dependency",
+                                    "Dependency " + dependency.getKey() + (result != null
+                                            ? " returned " + result.status()
+                                            : " did not complete"));
+                        }
+                        resolved.put(dependency.getKey(), result);
+                    }
+                    return runner.apply(item, resolved);
+                }, executor));
+            }
+
+            List<BatchItemResult> results = new ArrayList<>(items.size());
+            for (Map.Entry<String, CompletableFuture<BatchItemResult>> entry : futures.entrySet()) {
+                results.add(await(entry.getKey(), entry.getValue(), deadline));
+            }
+            return results;
+        } finally {
+            // Ne bloque pas sur des sous-requêtes encore en cours après l'échéance
+            executor.shutdownNow();
+        }
+    }
+
+    private BatchItemResult run(BatchRequest.Item item, Map<String, BatchItemResult> dependencies,
+                                BatchSubRequest.Envelope envelope, HttpServletResponse response,
+                                SecurityContext securityContext, String clientKey, long deadline) {
+        SecurityContextHolder.setContext(securityContext);
+        try {
+            String path = substitute(item.path(), dependencies);
+            String method = item.method().toUpperCase();
+
+            long waitNanos = rateLimitFilter.tryAcquire(method, path, clientKey);
+            if (waitNanos > 0) {
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+                return new BatchItemResult(item.id(), HttpStatus.TOO_MANY_REQUESTS.value(),
+                        Map.of(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds)),
+                        Map.of("error", "Too Many Requests", "message", "Rate limit exceeded, retry in " + retryAfterSeconds + "s"));
+            }
+
+            byte[] body = item.body() != null && !item.body().isNull()
+                    ? objectMapper.writeValueAsBytes(item.body())
+                    : new byte[0];
+            BatchSubRequest subRequest = new BatchSubRequest(envelope, method, path, body);
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(subRequest, response));
+            ServletRequestPathUtils.parseAndCache(subRequest);
+
+            HandlerExecutionChain chain = handlerMapping.getHandler(subRequest);
+            if (chain == null || !(chain.getHandler() instanceof HandlerMethod handlerMethod)) {
+                return BatchItemResult.error(item.id(), HttpStatus.NOT_FOUND.value(), "Not Found", "No handler for " + method + " " + path);
+            }
+            if (!batchable(handlerMethod)) {
+                return BatchItemResult.error(item.id(), HttpStatus.BAD_REQUEST.value(), "Bad Request",
+                        method + " " + path + " streams its response and cannot be batched");
+            }
+
+            InvocableHandlerMethod invocable = new InvocableHandlerMethod(handlerMethod.createWithResolvedBean());
+            invocable.setHandlerMethodArgumentResolvers(argumentResolvers());
+            invocable.setDataBinderFactory(binderFactory);
+            invocable.setParameterNameDiscoverer(parameterNameDiscoverer);
+            Object value = invocable.invokeForRequest(new ServletWebRequest(subRequest, response), new ModelAndViewContainer());
+            return toResult(item.id(), value, deadline);
+
+        } catch (Exception e) {
+            return failure(item.id(), e);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    static BatchItemResult toResult(String id, Object value, long deadline) throws Exception {
+        if (value instanceof DeferredResult<?> deferred) {
+            CompletableFuture<Object> completion = new CompletableFuture<>();
+            deferred.setResultHandler(completion::complete);
+            long remaining = deadline - System.nanoTime();
+            Long timeout = deferred.getTimeoutValue();
+            long waitNanos = timeout != null ? Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(timeout)) : remaining;
+            try {
+                value = completion.get(Math.max(0, waitNanos), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return BatchItemResult.error(id, HttpStatus.GATEWAY_TIMEOUT.value(), "Gateway Timeout", "Sub-request did not complete in time");
+            }
+            if (value instanceof Exception error) {
+                return failure(id, error);
+            }
+        }
+        if (value instanceof ResponseEntity<?> entity) {
+            return new BatchItemResult(id, entity.getStatusCode().value(), entity.getHeaders().toSingleValueMap(), entity.getBody());
+        }
+        return new BatchItemResult(id, HttpStatus.OK.value(), Map.of(), value);
+    }
+
+    static BatchItemResult failure(String id, Throwable error) {
+        Throwable cause = error instanceof InvocationTargetException invocation && invocation.getCause() != null
+                ? invocation.getCause()
+                : error;
+        if (cause instanceof ErrorResponse errorResponse) {
+            HttpStatus status = HttpStatus.resolve(errorResponse.getStatusCode().value());
+            return BatchItemResult.error(id, errorResponse.getStatusCode().value(),
+                    status != null ? status.getReasonPhrase() : "Error", cause.getMessage());
+        }
+        if (cause instanceof HttpMessageNotReadableException || cause instanceof TypeMismatchException) {
+            return BatchItemResult.error(id, HttpStatus.BAD_REQUEST.value(), "Bad Request", cause.getMessage());
+        }
+        logger.warn("❌ Batch sub-request {} failed: {}", id, cause.toString());
+        return BatchItemResult.error(id, HttpStatus.INTERNAL_SERVER_ERROR.value(), "Internal Server Error", "Sub-request failed");
+    }
+
+    private BatchItemResult await(String id, CompletableFuture<BatchItemResult> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return BatchItemResult.error(id, HttpStatus.GATEWAY_TIMEOUT.value(), "Gateway Timeout", "Sub-request did not complete in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return BatchItemResult.error(id, HttpStatus.SERVICE_UNAVAILABLE.value(), "Service Unavailable", "Batch interrupted");
+        } catch (ExecutionException e) {
+            return failure(id, e.getCause());
+        }
+    }
+
+    void validate(List<BatchRequest.Item> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("requests must not be empty");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " requests per batch");
+        }
+        Set<String> declared = new HashSet<>();
+        for (BatchRequest.Item item : items) {
+            if (item.id() == null || item.id().isBlank() || !declared.add(item.id())) {
+                throw new IllegalArgumentException("Each request needs a unique id");
+            }
+            if (item.method() == null || !METHODS.contains(item.method().toUpperCase())) {
+                throw new IllegalArgumentException("Unsupported method for " + item.id());
+            }
+            if (item.path() == null || !item.path().startsWith("/api/") || item.path().startsWith("/api/batch")) {
+                throw new IllegalArgumentException("Invalid path for " + item.id());
+            }
+            List<String> dependsOn = dependsOn(item);
+            // Dépendances déclarées plus haut uniquement : le graphe est acyclique par construction
+            for (String dependency : dependsOn) {
+                if (dependency.equals(item.id()) || !declared.contains(dependency)) {
+                    throw new IllegalArgumentException(item.id() + " depends on unknown or later request " + dependency);
+                }
+            }
+            Matcher matcher = REFERENCE.matcher(item.path());
+            while (matcher.find()) {
+                if (!dependsOn.contains(matcher.group(1))) {
+                    throw new IllegalArgumentException(item.id() + " references " + matcher.group(1) + " without depending on it");
+                }
+            }
+        }
+    }
+
+    private static List<String> dependsOn(BatchRequest.Item item) {
+        return item.dependsOn() != null ? item.dependsOn() : List.of();
+    }
+
+    String substitute(String path, Map<String, BatchItemResult> dependencies) {
+        Matcher matcher = REFERENCE.matcher(path);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            JsonNode body = objectMapper.valueToTree(dependencies.get(matcher.group(1)).body());
+            JsonNode value = matcher.group(2) != null ? body.at(matcher.group(2)) : body;
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(
+                    UriUtils.encodePathSegment(value.asText(), StandardCharsets.UTF_8)));
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
+
+    /**
+     * Handlers dont la réponse n'est pas une valeur : flux, SSE, écriture directe dans la réponse.
+     */
+    private static boolean batchable(HandlerMethod handlerMethod) {
+        for (MethodParameter parameter : handlerMethod.getMethodParameters()) {
+            Class<?> type = parameter.getParameterType();
+            if (ServletResponse.class.isAssignableFrom(type) || OutputStream.class.isAssignableFrom(type)
+                    || Writer.class.isAssignableFrom(type)) {
+                return false;
+            }
+        }
+        ResolvableType returnType = ResolvableType.forMethodReturnType(handlerMethod.getMethod());
+        Class<?> raw = returnType.resolve(Object.class);
+        Class<?> payload = ResponseEntity.class.isAssignableFrom(raw) || DeferredResult.class.isAssignableFrom(raw)
+                ? returnType.getGeneric(0).resolve(Object.class)
+                : raw;
+        return !ResponseBodyEmitter.class.isAssignableFrom(payload)
+                && !StreamingResponseBody.class.isAssignableFrom(payload)
+                && !Resource.class.isAssignableFrom(payload);
+    }
+
+    private static String clientKey(SecurityContext securityContext, HttpServletRequest request) {
+        Authentication authentication = securityContext.getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof FirebaseUserPrincipal principal) {
+            return principal.uid();
+        }
+        // Même clé que RateLimitFilter pour un appel anonyme
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private HandlerMethodArgumentResolverComposite argumentResolvers() {
+        HandlerMethodArgumentResolverComposite resolvers = argumentResolvers;
+        if (resolvers == null) {
+            resolvers = new HandlerMethodArgumentResolverComposite().addResolvers(handlerAdapter.getArgumentResolvers());
+            binderFactory = new ServletRequestDataBinderFactory(null, handlerAdapter.getWebBindingInitializer());
+            argumentResolvers = resolvers;
+        }
+        return resolvers;
+    }
+}
@@ -0,0 +1,189 @@
+package com.moujib.lookmax_backend.controllers;
+
+import com.moujib.lookmax_backend.models.StoredFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Envoi d'un fichier du disque avec validation conditionnelle ({@code If-None-Match}) et
+ * requêtes partielles ({@code Range}, une seule plage).
+ * <p>
+ * Le corps ne transite jamais par le tas : sous Tomcat, l'envoi d'un fichier immuable est délégué
+ * au sendfile du connecteur ({@code FileChannel.transferTo} vers la socket, après le retour du
+ * handler) ; sinon {@code transferTo} est appelé directement vers le flux de la réponse.
+ */
+final class FileResponseWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // Même seuil que le DefaultServlet de Tomcat : en dessous, l'écriture directe coûte moins cher
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    // Contenu adressé par hash : jamais modifié, donc cacheable indéfiniment (privé car authentifié)
+    private static final String CACHE_CONTROL = "private, max-age=31536000, immutable";
+
+    /**
+     * Plage d'octets inclusive ; {@link #UNSATISFIABLE} si hors du fichier.
+     */
+    record ByteRange(long start, long end) {
+
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+        long length() {
+            return end - start + 1;
+        }
+
+        /**
+         * @return {@code null} si l'en-tête est absent, invalide ou multi-plages : le fichier
+         * entier est alors servi, comme le permet la RFC 9110
+         */
+        static ByteRange parse(String header, long size) {
+            if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+                return null;
+            }
+            String spec = header.substring("bytes=".length()).trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                if (first.isEmpty()) {
+                    // bytes=-N : les N derniers octets
+                    long suffix = Long.parseLong(last);
+                    if (suffix <= 0 || size == 0) {
+                        return UNSATISFIABLE;
+                    }
+                    return new ByteRange(Math.max(0, size - suffix), size - 1);
+                }
+                long start = Long.parseLong(first);
+                long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+                if (start < 0 || start >= size) {
+                    return UNSATISFIABLE;
+                }
+                return end < start ? null : new ByteRange(start, end);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private FileResponseWriter() {
+    }
+
+    /**
+     * Pour un fichier jamais supprimé (original) : Tomcat peut rouvrir le chemin après le retour
+     * du handler, l'envoi passe donc par sendfile au-delà de {@link #SENDFILE_MIN_BYTES}.
+     */
+    static void write(StoredFile file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            write(file, channel, true, request, response);
+        }
+    }
+
+    /**
+     * Pour un fichier évinçable (dérivé) : le corps est écrit depuis {@code channel} avant le
+     * retour, jamais par sendfile qui rouvrirait un chemin peut-être supprimé entre-temps.
+     *
+     * @param channel fichier déjà ouvert par l'appelant : s'il est supprimé entre-temps, son
+     *                contenu reste lisible et la réponse ne peut pas échouer à mi-chemin
+     */
+    static void write(StoredFile file, FileChannel channel, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        write(file, channel, false, request, response);
+    }
+
+    private static void write(StoredFile file, FileChannel channel, boolean sendfile,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, file.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), file.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long size = file.size();
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        ByteRange range = ifRange == null || ifRange.equals(file.etag())
+                ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), size)
+                : null;
+
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return;
+        }
+
+        long start = 0;
+        long length = size;
+        if (range != null) {
+            start = range.start();
+            length = range.length();
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range.start() + "-" + range.end() + "/" + size);
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+        response.setContentType(file.contentType());
+        response.setContentLengthLong(length);
+
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (sendfile && length >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = start;
+        long remaining = length;
+        while (remaining > 0) {
+            long sent = channel.transferTo(position, remaining, out);
+            if (sent <= 0) {
+                // Fichier tronqué entre-temps : on ne peut plus honorer le Content-Length annoncé
+                throw new IOException("Unexpected end of file " + file.path());
+            }
+            position += sent;
+            remaining -= sent;
+        }
+    }
+
+    /**
+     * Comparaison faible de {@code If-None-Match}, comme l'exige la RFC 9110 pour les GET.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String trimmed = ifNoneMatch.trim();
+        if (trimmed.equals("*")) {
+            return true;
+        }
+        for (String candidate : trimmed.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,84 @@
+package com.moujib.lookmax_backend.controllers;
+
+import com.moujib.lookmax_backend.exceptions.InvalidCursorException;
+import com.moujib.lookmax_backend.models.HistoryPage;
+import com.moujib.lookmax_backend.services.ScoreHistoryService;
+import com.moujib.lookmax_backend.temporary.FirebaseUserPrincipal;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/user/history")
+public class HistoryController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ScoreHistoryService scoreHistoryService;
+
+    public HistoryController(ScoreHistoryService scoreHistoryService) {
+        this.scoreHistoryService = scoreHistoryService;
+    }
+
+    /**
+     * Historique paginé par curseur ; {@code count=true} ajoute le header {@code X-Total-Count}
+     * (valeur en cache, pas de {@code COUNT(*)} à chaque page).
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getHistory(
+            @AuthenticationPrincipal FirebaseUserPrincipal principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean count) {
+
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of(
+                    "error", "Unauthorized",
+                    "message", "User not authenticated"
+            ));
+        }
+
+        HistoryPage page;
+        try {
+            page = scoreHistoryService.page(principal.uid(), cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Bad Request",
+                    "message", e.getMessage()
+            ));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", page.items());
+        response.put("nextCursor", page.nextCursor());
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (count) {
+            builder.header("X-Total-Count", Long.toString(scoreHistoryService.cachedCount(principal.uid())));
+        }
+        return builder.body(response);
+    }
+
+    /**
+     * Export complet en JSON, écrit au fil de la lecture : la taille de l'historique
+     * n'influe pas sur la mémoire utilisée.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportHistory(@AuthenticationPrincipal FirebaseUserPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).build();
+        }
+        // Le uid est capturé ici : le corps est écrit sur un autre thread, hors SecurityContext
+        String uid = principal.uid();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"lookmax-history.json\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> scoreHistoryService.export(uid, out));
+    }
+}
@@ -1,17 +1,31 @@
 package com.moujib.lookmax_backend.controllers;
 
+import com.moujib.lookmax_backend.exceptions.JobQueueFullException;
+import com.moujib.lookmax_backend.models.AnalysisJob;
+import com.moujib.lookmax_backend.services.AnalysisJobService;
+import com.moujib.lookmax_backend.services.PhotoOwnershipService;
 import com.moujib.lookmax_backend.temporary.FirebaseUserPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.security.Principal;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api")
@@ -19,6 +33,22 @@ public class MainController {
 
     private static final Logger logger = LoggerFactory.getLogger(MainController.class);
 
+    // Reste sous le timeout axios de 30s côté frontend
+    private static final long MAX_LONG_POLL_SECONDS = 25;
+
+    private final AnalysisJobService analysisJobService;
+
+    private final PhotoOwnershipService photoOwnershipService;
+
+    private final long jobEventsTimeoutMs;
+
+    public MainController(AnalysisJobService analysisJobService, PhotoOwnershipService photoOwnershipService,
+                          @Value("${lookmax.jobs.events-timeout-ms:300000}") long jobEventsTimeoutMs) {
+        this.analysisJobService = analysisJobService;
+        this.photoOwnershipService = photoOwnershipService;
+        this.jobEventsTimeoutMs = jobEventsTimeoutMs;
+    }
+
     @GetMapping("/main")
     public ResponseEntity<Map<String, Object>> getMainControllerSomething(
             @AuthenticationPrincipal FirebaseUserPrincipal principal) {
@@ -113,5 +143,139 @@ public class MainController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> submitAnalysisJob(
+            @RequestBody Map<String, String> body,
+            @AuthenticationPrincipal FirebaseUserPrincipal principal) {
+
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of(
+                    "error", "Unauthorized",
+                    "message", "User not authenticated"
+            ));
+        }
+
+        String sha256 = body.get("sha256");
+        if (sha256 == null || sha256.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Bad Request",
+                    "message", "sha256 is required"
+            ));
+        }
 
-}
\ No newline at end of file
+        // Même réponse qu'une photo absente : l'existence d'une photo d'autrui ne fuit pas
+        if (!photoOwnershipService.owns(principal.uid(), sha256)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "error", "Not Found",
+                    "message", "No photo stored with hash " + sha256
+            ));
+        }
+
+        try {
+            AnalysisJob job = analysisJobService.submit(principal.uid(), sha256);
+            logger.info("📥 Job d'analyse {} soumis par {}", job.id(), principal.uid());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/jobs/" + job.id()))
+                    .body(toResponse(job));
+        } catch (JobQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of(
+                            "error", "Too Many Requests",
+                            "message", e.getMessage()
+                    ));
+        }
+    }
+
+    /**
+     * État d'un job. Avec {@code waitSeconds > 0}, long-poll : la réponse part dès que le job est
+     * terminé ou à l'expiration du délai, sans bloquer de thread Tomcat entre-temps.
+     */
+    @GetMapping("/jobs/{jobId}")
+    public DeferredResult<ResponseEntity<Map<String, Object>>> getAnalysisJob(
+            @PathVariable String jobId,
+            @RequestParam(defaultValue = "0") long waitSeconds,
+            @AuthenticationPrincipal FirebaseUserPrincipal principal) {
+
+        long wait = Math.min(Math.max(waitSeconds, 0), MAX_LONG_POLL_SECONDS);
+        DeferredResult<ResponseEntity<Map<String, Object>>> deferred = new DeferredResult<>(wait * 1000 + 1000);
+
+        Optional<AnalysisJob> current = principal != null
+                ? analysisJobService.find(jobId, principal.uid())
+                : Optional.empty();
+        if (current.isEmpty()) {
+            deferred.setResult(jobNotFound(jobId));
+            return deferred;
+        }
+        if (wait == 0 || current.get().status().isTerminal()) {
+            deferred.setResult(ResponseEntity.ok(toResponse(current.get())));
+            return deferred;
+        }
+
+        Runnable unsubscribe = analysisJobService.subscribe(jobId, principal.uid(), job -> {
+            if (job.status().isTerminal()) {
+                deferred.setResult(ResponseEntity.ok(toResponse(job)));
+            }
+        });
+        deferred.onTimeout(() -> deferred.setResult(analysisJobService.find(jobId, principal.uid())
+                .map(job -> ResponseEntity.ok(toResponse(job)))
+                .orElseGet(() -> jobNotFound(jobId))));
+        deferred.onCompletion(unsubscribe);
+        return deferred;
+    }
+
+    /**
+     * Flux Server-Sent Events des changements d'état d'un job ; fermé quand le job est terminé.
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAnalysisJob(
+            @PathVariable String jobId,
+            @AuthenticationPrincipal FirebaseUserPrincipal principal) {
+
+        if (principal == null || analysisJobService.find(jobId, principal.uid()).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        SseEmitter emitter = new SseEmitter(jobEventsTimeoutMs);
+        Runnable unsubscribe = analysisJobService.subscribe(jobId, principal.uid(), job -> {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("status")
+                        .data(toResponse(job), MediaType.APPLICATION_JSON));
+                if (job.status().isTerminal()) {
+                    emitter.complete();
+                }
+            } catch (IOException e) {
+                // Client déconnecté : l'exception désabonne le listener
+                throw new UncheckedIOException(e);
+            }
+        });
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        return ResponseEntity.ok(emitter);
+    }
+
+    private static ResponseEntity<Map<String, Object>> jobNotFound(String jobId) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "error", "Not Found",
+                "message", "No analysis job " + jobId
+        ));
+    }
+
+    private static Map<String, Object> toResponse(AnalysisJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.id());
+        response.put("sha256", job.sha256());
+        response.put("status", job.status());
+        response.put("createdAt", job.createdAt());
+        response.put("updatedAt", job.updatedAt());
+        if (job.result() != null) {
+            response.put("result", job.result());
+        }
+        if (job.error() != null) {
+            response.put("error", job.error());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,275 @@
+package com.moujib.lookmax_backend.controllers;
+
+import com.moujib.lookmax_backend.exceptions.ImageDecodeException;
+import com.moujib.lookmax_backend.exceptions.PhotoTooLargeException;
+import com.moujib.lookmax_backend.exceptions.UnsupportedImageException;
+import com.moujib.lookmax_backend.models.AnalysisResult;
+import com.moujib.lookmax_backend.models.PhotoUploadResult;
+import com.moujib.lookmax_backend.models.PhotoVariant;
+import com.moujib.lookmax_backend.models.SimilarPhoto;
+import com.moujib.lookmax_backend.models.StoredFile;
+import com.moujib.lookmax_backend.services.PhotoAnalysisService;
+import com.moujib.lookmax_backend.services.PhotoDerivativeService;
+import com.moujib.lookmax_backend.services.PhotoOwnershipService;
+import com.moujib.lookmax_backend.services.PhotoSimilarityService;
+import com.moujib.lookmax_backend.services.PhotoStorageService;
+import com.moujib.lookmax_backend.temporary.FirebaseUserPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/photos")
+public class PhotoController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoController.class);
+
+    private static final int MAX_SIMILARITY_DISTANCE = 15;
+    private static final int MAX_SIMILAR_RESULTS = 100;
+
+    private final PhotoStorageService photoStorageService;
+
+    private final PhotoAnalysisService photoAnalysisService;
+
+    private final PhotoDerivativeService photoDerivativeService;
+
+    private final PhotoSimilarityService photoSimilarityService;
+
+    private final PhotoOwnershipService photoOwnershipService;
+
+    public PhotoController(PhotoStorageService photoStorageService, PhotoAnalysisService photoAnalysisService,
+                           PhotoDerivativeService photoDerivativeService, PhotoSimilarityService photoSimilarityService,
+                           PhotoOwnershipService photoOwnershipService) {
+        this.photoStorageService = photoStorageService;
+        this.photoAnalysisService = photoAnalysisService;
+        this.photoDerivativeService = photoDerivativeService;
+        this.photoSimilarityService = photoSimilarityService;
+        this.photoOwnershipService = photoOwnershipService;
+    }
+
+    /**
+     * Upload d'une photo en corps brut (pas de multipart) : le flux est écrit directement
+     * sur disque, sans jamais être chargé en mémoire.
+     */
+    @PostMapping(consumes = {
+            MediaType.IMAGE_JPEG_VALUE,
+            MediaType.IMAGE_PNG_VALUE,
+            MediaType.APPLICATION_OCTET_STREAM_VALUE
+    })
+    public ResponseEntity<Map<String, Object>> uploadPhoto(
+            HttpServletRequest request,
+            @AuthenticationPrincipal FirebaseUserPrincipal principal) throws IOException {
+
+        try {
+            PhotoUploadResult result = photoStorageService.store(request.getInputStream(), request.getContentLengthLong());
+            // Doublon du point de vue de l'utilisateur seulement : la présence d'une photo d'autrui ne fuit pas
+            boolean duplicate = principal != null && !photoOwnershipService.claim(principal.uid(), result.sha256());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("sha256", result.sha256());
+            response.put("contentType", result.contentType());
+            response.put("size", result.sizeBytes());
+            response.put("duplicate", duplicate);
+
+            logger.info("📸 Photo {} reçue de {}", result.sha256(), principal != null ? principal.uid() : "anonymous");
+            return ResponseEntity.status(duplicate ? HttpStatus.OK : HttpStatus.CREATED).body(response);
+
+        } catch (PhotoTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of(
+                    "error", "Payload Too Large",
+                    "message", e.getMessage()
+            ));
+        } catch (UnsupportedImageException e) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(Map.of(
+                    "error", "Unsupported Media Type",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    @PostMapping("/{sha256}/analysis")
+    public ResponseEntity<Map<String, Object>> analyzePhoto(
+            @PathVariable String sha256,
+            @AuthenticationPrincipal FirebaseUserPrincipal principal) {
+
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                    "error", "Unauthorized",
+                    "message", "User not authenticated"
+            ));
+        }
+
+        // Même réponse qu'une photo absente, comme pour getPhoto
+        if (!photoOwnershipService.owns(principal.uid(), sha256)) {
+            return photoNotFound(sha256);
+        }
+
+        try {
+            Optional<AnalysisResult> result = photoAnalysisService.analyze(sha256);
+            if (result.isEmpty()) {
+                return photoNotFound(sha256);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("sha256", sha256);
+            response.put("result", result.get());
+            return ResponseEntity.ok(response);
+
+        } catch (UnsupportedImageException e) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(Map.of(
+                    "error", "Unsupported Media Type",
+                    "message", e.getMessage()
+            ));
+        } catch (ImageDecodeException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of(
+                    "error", "Unprocessable Entity",
+                    "message", e.getMessage()
+            ));
+        } catch (UncheckedIOException e) {
+            logger.error("❌ Lecture de la photo {} impossible pour l'analyse", sha256, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "error", "Internal Server Error",
+                    "message", "Photo storage unavailable"
+            ));
+        }
+    }
+
+    /**
+     * Photos de l'utilisateur proches de celle-ci (même visage recadré, recompressé...), par
+     * distance de Hamming croissante entre dHash.
+     */
+    @GetMapping("/{sha256}/similar")
+    public ResponseEntity<Map<String, Object>> getSimilarPhotos(
+            @PathVariable String sha256,
+            @AuthenticationPrincipal FirebaseUserPrincipal principal,
+            @RequestParam(defaultValue = "8") int maxDistance,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                    "error", "Unauthorized",
+                    "message", "User not authenticated"
+            ));
+        }
+
+        try {
+            Optional<List<SimilarPhoto>> matches = photoSimilarityService.findSimilarForUser(principal.uid(), sha256,
+                    Math.max(0, Math.min(maxDistance, MAX_SIMILARITY_DISTANCE)),
+                    Math.max(1, Math.min(limit, MAX_SIMILAR_RESULTS)));
+            if (matches.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                        "error", "Not Found",
+                        "message", "No photo stored with hash " + sha256
+                ));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("sha256", sha256);
+            response.put("matches", matches.get());
+            return ResponseEntity.ok(response);
+
+        } catch (UnsupportedImageException e) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(Map.of(
+                    "error", "Unsupported Media Type",
+                    "message", e.getMessage()
+            ));
+        } catch (ImageDecodeException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of(
+                    "error", "Unprocessable Entity",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Photo originale ou dérivé ({@code thumb}, {@code medium}, {@code large}), généré à la
+     * première demande. Supporte {@code If-None-Match} (304) et {@code Range} (206).
+     */
+    @GetMapping("/{sha256}")
+    public ResponseEntity<Map<String, Object>> getPhoto(
+            @PathVariable String sha256,
+            @RequestParam(defaultValue = "original") String variant,
+            @AuthenticationPrincipal FirebaseUserPrincipal principal,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                    "error", "Unauthorized",
+                    "message", "User not authenticated"
+            ));
+        }
+
+        Optional<PhotoVariant> parsed = PhotoVariant.parse(variant);
+        if (parsed.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Bad Request",
+                    "message", "Unknown variant " + variant
+            ));
+        }
+
+        // Même réponse qu'une photo absente : l'existence d'une photo d'autrui ne fuit pas
+        if (!photoOwnershipService.owns(principal.uid(), sha256)) {
+            return photoNotFound(sha256);
+        }
+
+        try {
+            Optional<StoredFile> file = photoDerivativeService.resolve(sha256, parsed.get());
+            if (file.isEmpty()) {
+                return photoNotFound(sha256);
+            }
+            StoredFile stored = file.get();
+            if (parsed.get() == PhotoVariant.ORIGINAL) {
+                // Jamais supprimé : éligible au sendfile de Tomcat
+                FileResponseWriter.write(stored, request, response);
+                return null;
+            }
+            FileChannel opened;
+            try {
+                opened = FileChannel.open(stored.path(), StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                // Dérivé évincé entre la résolution et l'ouverture : régénéré une fois, rien n'est encore écrit
+                stored = photoDerivativeService.resolve(sha256, parsed.get()).orElseThrow(() -> e);
+                opened = FileChannel.open(stored.path(), StandardOpenOption.READ);
+            }
+            try (FileChannel channel = opened) {
+                FileResponseWriter.write(stored, channel, request, response);
+            }
+            return null;
+
+        } catch (UnsupportedImageException e) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(Map.of(
+                    "error", "Unsupported Media Type",
+                    "message", e.getMessage()
+            ));
+        } catch (ImageDecodeException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of(
+                    "error", "Unprocessable Entity",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> photoNotFound(String sha256) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "error", "Not Found",
+                "message", "No photo stored with hash " + sha256
+        ));
+    }
+}
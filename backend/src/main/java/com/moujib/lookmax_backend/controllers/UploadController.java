@@ -0,0 +1,246 @@
+package com.moujib.lookmax_backend.controllers;
+
+import com.moujib.lookmax_backend.exceptions.PhotoTooLargeException;
+import com.moujib.lookmax_backend.exceptions.TooManyUploadsException;
+import com.moujib.lookmax_backend.exceptions.UnsupportedImageException;
+import com.moujib.lookmax_backend.exceptions.UploadChecksumMismatchException;
+import com.moujib.lookmax_backend.exceptions.UploadConflictException;
+import com.moujib.lookmax_backend.exceptions.UploadSessionNotFoundException;
+import com.moujib.lookmax_backend.models.PhotoUploadResult;
+import com.moujib.lookmax_backend.models.UploadStatus;
+import com.moujib.lookmax_backend.services.PhotoOwnershipService;
+import com.moujib.lookmax_backend.services.ResumableUploadService;
+import com.moujib.lookmax_backend.temporary.FirebaseUserPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Upload reprenable par blocs, pour les connexions mobiles instables.
+ * <p>
+ * {@code POST /api/photos/uploads} (en-tête {@code Upload-Length}) ouvre une session ; chaque
+ * {@code PATCH /api/photos/uploads/{id}} envoie un bloc à l'offset {@code Upload-Offset} ;
+ * après une coupure, {@code GET /api/photos/uploads/{id}} donne l'offset à partir duquel
+ * reprendre ; {@code POST /api/photos/uploads/{id}/complete} publie la photo.
+ */
+@RestController
+@RequestMapping("/api/photos/uploads")
+public class UploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadController.class);
+
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
+    private final ResumableUploadService resumableUploadService;
+
+    private final PhotoOwnershipService photoOwnershipService;
+
+    public UploadController(ResumableUploadService resumableUploadService, PhotoOwnershipService photoOwnershipService) {
+        this.resumableUploadService = resumableUploadService;
+        this.photoOwnershipService = photoOwnershipService;
+    }
+
+    /**
+     * @param sha256 empreinte attendue (optionnelle), vérifiée à la finalisation
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createUpload(
+            @RequestHeader(UPLOAD_LENGTH) long length,
+            @RequestParam(required = false) String sha256,
+            @AuthenticationPrincipal FirebaseUserPrincipal principal) throws IOException {
+
+        if (principal == null) {
+            return unauthorized();
+        }
+
+        try {
+            UploadStatus status = resumableUploadService.create(principal.uid(), length, sha256);
+            return ResponseEntity.created(URI.create("/api/photos/uploads/" + status.uploadId()))
+                    .headers(headersFor(status))
+                    .body(bodyFor(status));
+
+        } catch (PhotoTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of(
+                    "error", "Payload Too Large",
+                    "message", e.getMessage()
+            ));
+        } catch (TooManyUploadsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of(
+                    "error", "Too Many Requests",
+                    "message", e.getMessage()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Bad Request",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<Map<String, Object>> getUpload(
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal FirebaseUserPrincipal principal) {
+
+        if (principal == null) {
+            return unauthorized();
+        }
+
+        try {
+            UploadStatus status = resumableUploadService.status(principal.uid(), uploadId);
+            return ResponseEntity.ok()
+                    .headers(headersFor(status))
+                    .cacheControl(CacheControl.noStore())
+                    .body(bodyFor(status));
+
+        } catch (UploadSessionNotFoundException e) {
+            return notFound(e);
+        }
+    }
+
+    /**
+     * Envoie un bloc en corps brut. Si la connexion coupe en cours de bloc, les octets déjà
+     * écrits restent acquis : le client relit l'offset puis renvoie la suite.
+     */
+    @PatchMapping(value = "/{uploadId}", consumes = {
+            "application/offset+octet-stream",
+            MediaType.APPLICATION_OCTET_STREAM_VALUE
+    })
+    public ResponseEntity<Map<String, Object>> appendChunk(
+            @PathVariable String uploadId,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            HttpServletRequest request,
+            @AuthenticationPrincipal FirebaseUserPrincipal principal) throws IOException {
+
+        if (principal == null) {
+            return unauthorized();
+        }
+
+        try {
+            UploadStatus status = resumableUploadService.append(principal.uid(), uploadId, offset, request.getInputStream());
+            return ResponseEntity.noContent().headers(headersFor(status)).build();
+
+        } catch (UploadSessionNotFoundException e) {
+            return notFound(e);
+        } catch (UploadConflictException e) {
+            return conflict(e);
+        } catch (UnsupportedImageException e) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(Map.of(
+                    "error", "Unsupported Media Type",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<Map<String, Object>> completeUpload(
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal FirebaseUserPrincipal principal) throws IOException {
+
+        if (principal == null) {
+            return unauthorized();
+        }
+
+        try {
+            PhotoUploadResult result = resumableUploadService.complete(principal.uid(), uploadId);
+            // Doublon du point de vue de l'utilisateur seulement : la présence d'une photo d'autrui ne fuit pas
+            boolean duplicate = !photoOwnershipService.claim(principal.uid(), result.sha256());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("sha256", result.sha256());
+            response.put("contentType", result.contentType());
+            response.put("size", result.sizeBytes());
+            response.put("duplicate", duplicate);
+
+            logger.info("📸 Photo {} reçue de {} (upload reprenable)", result.sha256(), principal.uid());
+            return ResponseEntity.status(duplicate ? HttpStatus.OK : HttpStatus.CREATED).body(response);
+
+        } catch (UploadSessionNotFoundException e) {
+            return notFound(e);
+        } catch (UploadConflictException e) {
+            return conflict(e);
+        } catch (UnsupportedImageException e) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(Map.of(
+                    "error", "Unsupported Media Type",
+                    "message", e.getMessage()
+            ));
+        } catch (UploadChecksumMismatchException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of(
+                    "error", "Unprocessable Entity",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Map<String, Object>> abortUpload(
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal FirebaseUserPrincipal principal) throws IOException {
+
+        if (principal == null) {
+            return unauthorized();
+        }
+
+        try {
+            resumableUploadService.abort(principal.uid(), uploadId);
+            return ResponseEntity.noContent().build();
+
+        } catch (UploadSessionNotFoundException e) {
+            return notFound(e);
+        }
+    }
+
+    private static HttpHeaders headersFor(UploadStatus status) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(UPLOAD_OFFSET, Long.toString(status.offset()));
+        headers.set(UPLOAD_LENGTH, Long.toString(status.size()));
+        return headers;
+    }
+
+    private static Map<String, Object> bodyFor(UploadStatus status) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("uploadId", status.uploadId());
+        response.put("offset", status.offset());
+        response.put("size", status.size());
+        response.put("complete", status.complete());
+        response.put("expiresAt", status.expiresAt().toString());
+        return response;
+    }
+
+    private static ResponseEntity<Map<String, Object>> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                "error", "Unauthorized",
+                "message", "User not authenticated"
+        ));
+    }
+
+    private static ResponseEntity<Map<String, Object>> notFound(UploadSessionNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "error", "Not Found",
+                "message", e.getMessage()
+        ));
+    }
+
+    private static ResponseEntity<Map<String, Object>> conflict(UploadConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(UPLOAD_OFFSET, Long.toString(e.getCurrentOffset()))
+                .body(Map.of(
+                        "error", "Conflict",
+                        "message", e.getMessage(),
+                        "offset", e.getCurrentOffset()
+                ));
+    }
+}
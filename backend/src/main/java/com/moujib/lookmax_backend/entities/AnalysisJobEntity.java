@@ -0,0 +1,47 @@
+package com.moujib.lookmax_backend.entities;
+
+import com.moujib.lookmax_backend.models.AnalysisJobStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Job d'analyse persisté pour survivre à un redéploiement.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "analysis_job", indexes = @Index(name = "idx_analysis_job_status", columnList = "status, createdAt"))
+public class AnalysisJobEntity {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false, length = 128)
+    private String uid;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    private int analysisVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AnalysisJobStatus status;
+
+    @Column(length = 512)
+    private String error;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+}
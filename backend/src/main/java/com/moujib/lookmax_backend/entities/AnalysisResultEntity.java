@@ -0,0 +1,58 @@
+package com.moujib.lookmax_backend.entities;
+
+import com.moujib.lookmax_backend.models.AnalysisResult;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Résultat d'analyse persisté, adressé par le contenu de l'image (tier Postgres du cache).
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "analysis_result")
+public class AnalysisResultEntity {
+
+    @EmbeddedId
+    private AnalysisResultId id;
+
+    private int width;
+    private int height;
+    private double overallScore;
+    private double symmetry;
+    private double thirdsBalance;
+    private double horizontalCentering;
+    private double brightness;
+    private double contrast;
+    private double colourfulness;
+    private double sharpness;
+
+    private Instant createdAt;
+
+    public static AnalysisResultEntity from(String sha256, AnalysisResult result) {
+        AnalysisResultEntity entity = new AnalysisResultEntity();
+        entity.setId(new AnalysisResultId(sha256, result.version()));
+        entity.setWidth(result.width());
+        entity.setHeight(result.height());
+        entity.setOverallScore(result.overallScore());
+        entity.setSymmetry(result.symmetry());
+        entity.setThirdsBalance(result.thirdsBalance());
+        entity.setHorizontalCentering(result.horizontalCentering());
+        entity.setBrightness(result.brightness());
+        entity.setContrast(result.contrast());
+        entity.setColourfulness(result.colourfulness());
+        entity.setSharpness(result.sharpness());
+        entity.setCreatedAt(Instant.now());
+        return entity;
+    }
+
+    public AnalysisResult toResult() {
+        return new AnalysisResult(id.getAnalysisVersion(), width, height, overallScore, symmetry, thirdsBalance,
+                horizontalCentering, brightness, contrast, colourfulness, sharpness);
+    }
+}
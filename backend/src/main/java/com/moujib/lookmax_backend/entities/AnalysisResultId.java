@@ -0,0 +1,25 @@
+package com.moujib.lookmax_backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Clé d'un résultat d'analyse : contenu de l'image + version de l'algorithme.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class AnalysisResultId implements Serializable {
+
+    @Column(name = "sha256", length = 64, nullable = false)
+    private String sha256;
+
+    @Column(name = "analysis_version", nullable = false)
+    private int analysisVersion;
+}
@@ -0,0 +1,31 @@
+package com.moujib.lookmax_backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Empreinte perceptuelle (dHash 64 bits) d'une photo, adressée par son contenu.
+ * <p>
+ * Source de l'index de similarité en mémoire, rechargé depuis cette table au démarrage.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "photo_hash")
+public class PhotoHashEntity {
+
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    private long perceptualHash;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
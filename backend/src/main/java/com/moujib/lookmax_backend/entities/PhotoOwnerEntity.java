@@ -0,0 +1,29 @@
+package com.moujib.lookmax_backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Photos envoyées par un utilisateur. Le stockage étant adressé par contenu, une même photo
+ * peut appartenir à plusieurs utilisateurs ; la ligne est écrite à l'upload, en amont de
+ * l'analyse synchrone comme des jobs.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "photo_owner", indexes = @Index(name = "idx_photo_owner_uid_sha256", columnList = "uid, sha256"))
+public class PhotoOwnerEntity {
+
+    @EmbeddedId
+    private PhotoOwnerId id;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,25 @@
+package com.moujib.lookmax_backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Clé d'appartenance : utilisateur + contenu de l'image.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class PhotoOwnerId implements Serializable {
+
+    @Column(name = "uid", length = 128, nullable = false)
+    private String uid;
+
+    @Column(name = "sha256", length = 64, nullable = false)
+    private String sha256;
+}
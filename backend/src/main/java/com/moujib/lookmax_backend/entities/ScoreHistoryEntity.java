@@ -0,0 +1,56 @@
+package com.moujib.lookmax_backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Historique des scores d'un utilisateur : une ligne par analyse terminée.
+ * <p>
+ * Identifiant issu d'une séquence avec optimiseur {@code pooled} ({@code allocationSize} = taille
+ * de lot JDBC) : Hibernate réserve 50 ids par appel à la séquence et peut regrouper les inserts,
+ * ce qu'empêche {@code IDENTITY}.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "score_history", indexes = @Index(name = "idx_score_history_uid_created", columnList = "uid, createdAt, id"))
+public class ScoreHistoryEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "score_history_seq")
+    @SequenceGenerator(name = "score_history_seq", sequenceName = "score_history_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 128)
+    private String uid;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    private int analysisVersion;
+
+    private double overallScore;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public static ScoreHistoryEntity of(String uid, String sha256, int analysisVersion, double overallScore) {
+        ScoreHistoryEntity entity = new ScoreHistoryEntity();
+        entity.setUid(uid);
+        entity.setSha256(sha256);
+        entity.setAnalysisVersion(analysisVersion);
+        entity.setOverallScore(overallScore);
+        entity.setCreatedAt(Instant.now());
+        return entity;
+    }
+}
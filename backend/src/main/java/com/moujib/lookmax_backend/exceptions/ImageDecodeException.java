@@ -0,0 +1,16 @@
+package com.moujib.lookmax_backend.exceptions;
+
+/**
+ * Le décodage d'une image a été refusé ou a échoué (dimensions hors limites, budget mémoire
+ * dépassé, fichier corrompu).
+ */
+public class ImageDecodeException extends RuntimeException {
+
+    public ImageDecodeException(String message) {
+        super(message);
+    }
+
+    public ImageDecodeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.moujib.lookmax_backend.exceptions;
+
+/**
+ * Curseur de pagination illisible ou forgé.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.moujib.lookmax_backend.exceptions;
+
+/**
+ * La file des jobs d'analyse (globale ou celle de l'utilisateur) est pleine.
+ */
+public class JobQueueFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public JobQueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.moujib.lookmax_backend.exceptions;
+
+/**
+ * L'upload dépasse la taille maximale autorisée ; détecté pendant le streaming.
+ */
+public class PhotoTooLargeException extends RuntimeException {
+
+    private final long maxSizeBytes;
+
+    public PhotoTooLargeException(long maxSizeBytes) {
+        super("Photo exceeds the maximum size of " + maxSizeBytes + " bytes");
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    public long getMaxSizeBytes() {
+        return maxSizeBytes;
+    }
+}
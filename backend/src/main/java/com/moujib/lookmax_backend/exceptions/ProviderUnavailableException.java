@@ -0,0 +1,15 @@
+package com.moujib.lookmax_backend.exceptions;
+
+/**
+ * Fournisseur externe injoignable, en échec, ou protégé (disjoncteur ouvert, bulkhead plein).
+ */
+public class ProviderUnavailableException extends RuntimeException {
+
+    public ProviderUnavailableException(String message) {
+        super(message);
+    }
+
+    public ProviderUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.moujib.lookmax_backend.exceptions;
+
+/**
+ * Trop de sessions d'upload ouvertes (pour l'utilisateur ou au total).
+ */
+public class TooManyUploadsException extends RuntimeException {
+
+    public TooManyUploadsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.moujib.lookmax_backend.exceptions;
+
+/**
+ * Le contenu reçu n'est pas une image d'un format accepté (vérification des magic bytes).
+ */
+public class UnsupportedImageException extends RuntimeException {
+
+    public UnsupportedImageException(String message) {
+        super(message);
+    }
+}
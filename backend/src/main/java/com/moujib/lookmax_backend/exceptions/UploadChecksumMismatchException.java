@@ -0,0 +1,11 @@
+package com.moujib.lookmax_backend.exceptions;
+
+/**
+ * Le SHA-256 du contenu reçu ne correspond pas à celui annoncé à la création de la session.
+ */
+public class UploadChecksumMismatchException extends RuntimeException {
+
+    public UploadChecksumMismatchException(String expected, String actual) {
+        super("Upload checksum mismatch: expected " + expected + ", got " + actual);
+    }
+}
@@ -0,0 +1,19 @@
+package com.moujib.lookmax_backend.exceptions;
+
+/**
+ * Requête incompatible avec l'état de la session d'upload (offset inattendu, upload incomplet,
+ * bloc déjà en cours d'écriture...) ; le client reprend à {@link #getCurrentOffset()}.
+ */
+public class UploadConflictException extends RuntimeException {
+
+    private final long currentOffset;
+
+    public UploadConflictException(String message, long currentOffset) {
+        super(message);
+        this.currentOffset = currentOffset;
+    }
+
+    public long getCurrentOffset() {
+        return currentOffset;
+    }
+}
@@ -0,0 +1,11 @@
+package com.moujib.lookmax_backend.exceptions;
+
+/**
+ * Session d'upload inconnue, expirée, terminée ou appartenant à un autre utilisateur.
+ */
+public class UploadSessionNotFoundException extends RuntimeException {
+
+    public UploadSessionNotFoundException(String uploadId) {
+        super("No upload session " + uploadId);
+    }
+}
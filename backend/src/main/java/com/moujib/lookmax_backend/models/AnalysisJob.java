@@ -0,0 +1,23 @@
+package com.moujib.lookmax_backend.models;
+
+import java.time.Instant;
+
+/**
+ * État d'un job d'analyse tel qu'exposé au client.
+ *
+ * @param result renseigné uniquement quand le job est {@link AnalysisJobStatus#DONE}
+ * @param error  renseigné uniquement quand le job est {@link AnalysisJobStatus#FAILED}
+ */
+public record AnalysisJob(String id,
+                          String uid,
+                          String sha256,
+                          AnalysisJobStatus status,
+                          AnalysisResult result,
+                          String error,
+                          Instant createdAt,
+                          Instant updatedAt) {
+
+    public AnalysisJob withStatus(AnalysisJobStatus newStatus, AnalysisResult newResult, String newError) {
+        return new AnalysisJob(id, uid, sha256, newStatus, newResult, newError, createdAt, Instant.now());
+    }
+}
@@ -0,0 +1,20 @@
+package com.moujib.lookmax_backend.models;
+
+/**
+ * Scores d'analyse d'une photo. Les métriques sont normalisées entre 0 et 1,
+ * {@code overallScore} entre 0 et 100.
+ *
+ * @param version version de l'algorithme ayant produit le résultat
+ */
+public record AnalysisResult(int version,
+                             int width,
+                             int height,
+                             double overallScore,
+                             double symmetry,
+                             double thirdsBalance,
+                             double horizontalCentering,
+                             double brightness,
+                             double contrast,
+                             double colourfulness,
+                             double sharpness) {
+}
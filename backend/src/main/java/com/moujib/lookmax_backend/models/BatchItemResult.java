@@ -0,0 +1,20 @@
+package com.moujib.lookmax_backend.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * Résultat d'une sous-requête de {@code /api/batch}, avec son propre statut HTTP.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record BatchItemResult(String id, int status, Map<String, String> headers, Object body) {
+
+    public static BatchItemResult error(String id, int status, String error, String message) {
+        return new BatchItemResult(id, status, Map.of(), Map.of("error", error, "message", message));
+    }
+
+    public boolean successful() {
+        return status >= 200 && status < 300;
+    }
+}
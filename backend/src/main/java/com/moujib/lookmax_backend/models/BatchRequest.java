@@ -0,0 +1,19 @@
+package com.moujib.lookmax_backend.models;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * Corps de {@code POST /api/batch} : sous-requêtes exécutées en parallèle, sauf dépendances.
+ */
+public record BatchRequest(List<Item> requests) {
+
+    /**
+     * @param path      chemin avec query string ; peut référencer le résultat d'une dépendance via
+     *                  {@code {{id/pointeur/json}}}, par exemple {@code /api/jobs/{{submit/id}}}
+     * @param dependsOn identifiants d'éléments déclarés plus haut, exécutés avant celui-ci
+     */
+    public record Item(String id, String method, String path, JsonNode body, List<String> dependsOn) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.moujib.lookmax_backend.models;
+
+/**
+ * Image décodée à la résolution d'analyse, orientation EXIF déjà appliquée.
+ * <p>
+ * Les pixels sont packés en {@code int} RGB ({@code 0xRRGGBB}), ligne par ligne.
+ *
+ * @param sourceWidth  largeur du fichier d'origine (avant sous-échantillonnage)
+ * @param sourceHeight hauteur du fichier d'origine
+ * @param subsampling  facteur de sous-échantillonnage appliqué au décodage
+ */
+public record DecodedImage(int width, int height, int[] pixels,
+                           int sourceWidth, int sourceHeight, int subsampling) {
+
+    public int pixel(int x, int y) {
+        return pixels[y * width + x];
+    }
+}
@@ -0,0 +1,11 @@
+package com.moujib.lookmax_backend.models;
+
+import java.util.List;
+
+/**
+ * Page d'historique, du plus récent au plus ancien.
+ *
+ * @param nextCursor curseur opaque de la page suivante, {@code null} sur la dernière page
+ */
+public record HistoryPage(List<ScoreHistoryEntry> items, String nextCursor) {
+}
@@ -0,0 +1,10 @@
+package com.moujib.lookmax_backend.models;
+
+/**
+ * Photo stockée, identifiée par l'empreinte SHA-256 de son contenu.
+ *
+ * @param duplicate contenu déjà présent dans le stockage, quel que soit l'utilisateur qui l'a
+ *                  envoyé : à ne pas exposer tel quel au client
+ */
+public record PhotoUploadResult(String sha256, String contentType, long sizeBytes, boolean duplicate) {
+}
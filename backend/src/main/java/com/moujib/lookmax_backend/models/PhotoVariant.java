@@ -0,0 +1,39 @@
+package com.moujib.lookmax_backend.models;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Variantes servies pour une photo : l'original et des dérivés JPEG de taille fixe
+ * (plus grand côté en pixels).
+ */
+public enum PhotoVariant {
+
+    ORIGINAL(0),
+    LARGE(1280),
+    MEDIUM(640),
+    THUMB(160);
+
+    private final int maxDimension;
+
+    PhotoVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int maxDimension() {
+        return maxDimension;
+    }
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static Optional<PhotoVariant> parse(String value) {
+        for (PhotoVariant variant : values()) {
+            if (variant.key().equalsIgnoreCase(value)) {
+                return Optional.of(variant);
+            }
+        }
+        return Optional.empty();
+    }
+}
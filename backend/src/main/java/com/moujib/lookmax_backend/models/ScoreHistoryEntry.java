@@ -0,0 +1,13 @@
+package com.moujib.lookmax_backend.models;
+
+import java.time.Instant;
+
+/**
+ * Ligne de l'historique des analyses d'un utilisateur.
+ */
+public record ScoreHistoryEntry(long id,
+                                String sha256,
+                                int analysisVersion,
+                                double overallScore,
+                                Instant createdAt) {
+}
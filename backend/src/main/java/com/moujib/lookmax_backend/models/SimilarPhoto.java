@@ -0,0 +1,7 @@
+package com.moujib.lookmax_backend.models;
+
+/**
+ * Photo proche d'une autre au sens de la distance de Hamming entre leurs dHash (0 à 64).
+ */
+public record SimilarPhoto(String sha256, int distance) {
+}
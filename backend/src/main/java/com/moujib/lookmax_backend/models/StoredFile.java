@@ -0,0 +1,11 @@
+package com.moujib.lookmax_backend.models;
+
+import java.nio.file.Path;
+
+/**
+ * Fichier prêt à être servi tel quel.
+ *
+ * @param etag ETag fort, entre guillemets : le contenu est adressé par hash et ne change jamais
+ */
+public record StoredFile(Path path, String contentType, long size, String etag) {
+}
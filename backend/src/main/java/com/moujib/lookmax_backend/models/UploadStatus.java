@@ -0,0 +1,13 @@
+package com.moujib.lookmax_backend.models;
+
+import java.time.Instant;
+
+/**
+ * Avancement d'une session d'upload reprenable : {@code offset} octets reçus sur {@code size}.
+ */
+public record UploadStatus(String uploadId, long offset, long size, Instant expiresAt) {
+
+    public boolean complete() {
+        return offset == size;
+    }
+}
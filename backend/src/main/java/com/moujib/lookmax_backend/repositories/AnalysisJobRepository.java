@@ -0,0 +1,26 @@
+package com.moujib.lookmax_backend.repositories;
+
+import com.moujib.lookmax_backend.entities.AnalysisJobEntity;
+import com.moujib.lookmax_backend.models.AnalysisJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJobEntity, String> {
+
+    List<AnalysisJobEntity> findByStatusInOrderByCreatedAtAsc(Collection<AnalysisJobStatus> statuses);
+
+    @Transactional
+    @Modifying
+    @Query("update AnalysisJobEntity j set j.status = :status, j.error = :error, j.updatedAt = :updatedAt where j.id = :id")
+    int updateStatus(@Param("id") String id,
+                     @Param("status") AnalysisJobStatus status,
+                     @Param("error") String error,
+                     @Param("updatedAt") Instant updatedAt);
+}
@@ -0,0 +1,8 @@
+package com.moujib.lookmax_backend.repositories;
+
+import com.moujib.lookmax_backend.entities.AnalysisResultEntity;
+import com.moujib.lookmax_backend.entities.AnalysisResultId;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AnalysisResultRepository extends JpaRepository<AnalysisResultEntity, AnalysisResultId> {
+}
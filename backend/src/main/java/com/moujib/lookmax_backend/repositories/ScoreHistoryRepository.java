@@ -0,0 +1,7 @@
+package com.moujib.lookmax_backend.repositories;
+
+import com.moujib.lookmax_backend.entities.ScoreHistoryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ScoreHistoryRepository extends JpaRepository<ScoreHistoryEntity, Long> {
+}
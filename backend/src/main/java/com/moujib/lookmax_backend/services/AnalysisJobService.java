@@ -0,0 +1,29 @@
+package com.moujib.lookmax_backend.services;
+
+import com.moujib.lookmax_backend.models.AnalysisJob;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface AnalysisJobService {
+
+    /**
+     * Met la photo en file d'analyse et rend la main immédiatement.
+     *
+     * @throws com.moujib.lookmax_backend.exceptions.JobQueueFullException si la file est saturée
+     */
+    AnalysisJob submit(String uid, String sha256);
+
+    /**
+     * Job de cet utilisateur ; vide s'il n'existe pas ou appartient à quelqu'un d'autre.
+     */
+    Optional<AnalysisJob> find(String jobId, String uid);
+
+    /**
+     * Abonne {@code listener} aux changements d'état du job. L'état courant est envoyé
+     * immédiatement ; le listener est retiré automatiquement une fois le job terminé.
+     *
+     * @return action de désabonnement
+     */
+    Runnable subscribe(String jobId, String uid, Consumer<AnalysisJob> listener);
+}
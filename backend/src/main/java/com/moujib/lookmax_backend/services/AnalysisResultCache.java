@@ -0,0 +1,22 @@
+package com.moujib.lookmax_backend.services;
+
+import com.moujib.lookmax_backend.models.AnalysisResult;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+public interface AnalysisResultCache {
+
+    Optional<AnalysisResult> get(String sha256, int analysisVersion);
+
+    /**
+     * Retourne le résultat en cache (mémoire puis Postgres) ou le calcule une seule fois, même si
+     * plusieurs requêtes identiques arrivent en même temps.
+     */
+    AnalysisResult getOrCompute(String sha256, int analysisVersion, Supplier<AnalysisResult> computation);
+
+    Stats stats();
+
+    record Stats(long memoryHits, long databaseHits, long computations, long coalesced, long evictions, int size) {
+    }
+}
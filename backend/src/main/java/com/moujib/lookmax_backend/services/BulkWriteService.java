@@ -0,0 +1,14 @@
+package com.moujib.lookmax_backend.services;
+
+import java.util.Collection;
+
+public interface BulkWriteService {
+
+    /**
+     * Insère de nouvelles entités en une transaction, par lots JDBC : le contexte de persistance
+     * est vidé tous les {@code hibernate.jdbc.batch_size} éléments pour garder une mémoire constante.
+     *
+     * @return le nombre d'entités insérées
+     */
+    int insertAll(Collection<?> entities);
+}
@@ -0,0 +1,18 @@
+package com.moujib.lookmax_backend.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public interface ExternalProviderClient {
+
+    /**
+     * POST JSON vers un fournisseur configuré dans {@code lookmax.providers.clients}.
+     * <p>
+     * Appel bloquant (prévu pour les threads de requête virtuels). Deux appels identiques
+     * simultanés partagent une seule requête sortante ; une réponse récente est servie depuis le cache
+     * (le nœud retourné est partagé : ne pas le modifier).
+     *
+     * @throws com.moujib.lookmax_backend.exceptions.ProviderUnavailableException si le fournisseur
+     *                                                                            est en échec ou protégé
+     */
+    JsonNode post(String provider, String path, Object payload);
+}
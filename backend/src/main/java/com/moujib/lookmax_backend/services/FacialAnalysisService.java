@@ -0,0 +1,17 @@
+package com.moujib.lookmax_backend.services;
+
+import com.moujib.lookmax_backend.models.AnalysisResult;
+import com.moujib.lookmax_backend.models.DecodedImage;
+
+/**
+ * Scores d'une photo calculés sur l'image entière, sans détection de visage.
+ */
+public interface FacialAnalysisService {
+
+    AnalysisResult analyze(DecodedImage image);
+
+    /**
+     * Version de l'algorithme ; à incrémenter dès que les scores produits changent.
+     */
+    int analysisVersion();
+}
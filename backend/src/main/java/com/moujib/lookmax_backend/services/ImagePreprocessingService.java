@@ -0,0 +1,21 @@
+package com.moujib.lookmax_backend.services;
+
+import com.moujib.lookmax_backend.models.DecodedImage;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.file.Path;
+
+public interface ImagePreprocessingService {
+
+    /**
+     * Décode l'image entière à la résolution d'analyse configurée.
+     */
+    DecodedImage decode(Path source) throws IOException;
+
+    /**
+     * Décode une région (coordonnées du fichier, avant orientation EXIF ; {@code null} pour
+     * l'image entière) de sorte que le plus grand côté ne dépasse pas {@code maxDimension}.
+     */
+    DecodedImage decode(Path source, Rectangle region, int maxDimension) throws IOException;
+}
@@ -0,0 +1,13 @@
+package com.moujib.lookmax_backend.services;
+
+import com.moujib.lookmax_backend.models.AnalysisResult;
+
+import java.util.Optional;
+
+public interface PhotoAnalysisService {
+
+    /**
+     * Analyse une photo stockée ; vide si aucune photo ne correspond à cette empreinte.
+     */
+    Optional<AnalysisResult> analyze(String sha256);
+}
@@ -0,0 +1,17 @@
+package com.moujib.lookmax_backend.services;
+
+import com.moujib.lookmax_backend.models.PhotoVariant;
+import com.moujib.lookmax_backend.models.StoredFile;
+
+import java.io.IOException;
+import java.util.Optional;
+
+public interface PhotoDerivativeService {
+
+    /**
+     * Fichier de la variante demandée, généré au premier appel puis servi depuis le cache disque.
+     *
+     * @return vide si aucune photo n'est stockée sous ce hash
+     */
+    Optional<StoredFile> resolve(String sha256, PhotoVariant variant) throws IOException;
+}
@@ -0,0 +1,20 @@
+package com.moujib.lookmax_backend.services;
+
+import java.util.Set;
+
+public interface PhotoOwnershipService {
+
+    /**
+     * Enregistre que l'utilisateur a envoyé cette photo (sans effet si déjà connu).
+     *
+     * @return {@code false} si l'utilisateur l'avait déjà envoyée
+     */
+    boolean claim(String uid, String sha256);
+
+    boolean owns(String uid, String sha256);
+
+    /**
+     * Empreintes de toutes les photos envoyées par l'utilisateur ; ensemble immuable.
+     */
+    Set<String> ownedBy(String uid);
+}
@@ -0,0 +1,23 @@
+package com.moujib.lookmax_backend.services;
+
+import com.moujib.lookmax_backend.models.DecodedImage;
+import com.moujib.lookmax_backend.models.SimilarPhoto;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PhotoSimilarityService {
+
+    /**
+     * Calcule, persiste et indexe le dHash d'une photo déjà décodée (sans effet si déjà connue).
+     */
+    long record(String sha256, DecodedImage image);
+
+    /**
+     * Photos envoyées par l'utilisateur dont le dHash est à au plus {@code maxDistance} bits de
+     * celui de {@code sha256}, de la plus proche à la plus éloignée, la photo elle-même exclue.
+     *
+     * @return vide si aucune photo n'est stockée sous ce hash
+     */
+    Optional<List<SimilarPhoto>> findSimilarForUser(String uid, String sha256, int maxDistance, int limit);
+}
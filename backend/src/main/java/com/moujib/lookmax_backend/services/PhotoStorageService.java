@@ -0,0 +1,29 @@
+package com.moujib.lookmax_backend.services;
+
+import com.moujib.lookmax_backend.models.PhotoUploadResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface PhotoStorageService {
+
+    /**
+     * Écrit le flux sur disque sans le charger en mémoire, en calculant son SHA-256 et en
+     * validant son format au passage.
+     *
+     * @param declaredLength longueur annoncée par le client, ou -1 si inconnue
+     */
+    PhotoUploadResult store(InputStream content, long declaredLength) throws IOException;
+
+    /**
+     * Publie un fichier déjà écrit, haché et validé par l'appelant (upload reprenable) : il est
+     * déplacé en place, sans relecture ni copie, puis supprimé s'il s'agissait d'un doublon. En cas
+     * d'échec, {@code file} est laissé en place pour que l'appelant puisse réessayer.
+     * {@code file} doit se trouver sur le même système de fichiers que le stockage.
+     */
+    PhotoUploadResult adopt(Path file, String sha256, String contentType, long sizeBytes) throws IOException;
+
+    Optional<Path> find(String sha256);
+}
@@ -0,0 +1,36 @@
+package com.moujib.lookmax_backend.services;
+
+import com.moujib.lookmax_backend.models.PhotoUploadResult;
+import com.moujib.lookmax_backend.models.UploadStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Upload d'une photo en plusieurs blocs, reprenable après une coupure réseau : le client ouvre
+ * une session, envoie les blocs à la suite, consulte l'offset atteint après une interruption,
+ * puis finalise.
+ */
+public interface ResumableUploadService {
+
+    /**
+     * @param size           taille totale annoncée, réservée sur disque dès la création
+     * @param expectedSha256 empreinte attendue, vérifiée à la finalisation ; {@code null} si inconnue
+     */
+    UploadStatus create(String uid, long size, String expectedSha256) throws IOException;
+
+    UploadStatus status(String uid, String uploadId);
+
+    /**
+     * Écrit un bloc à {@code offset}, qui doit être l'offset courant de la session. Les octets
+     * reçus avant une coupure restent acquis.
+     */
+    UploadStatus append(String uid, String uploadId, long offset, InputStream content) throws IOException;
+
+    /**
+     * Publie le fichier complet dans le stockage des photos, sans le relire ni le copier.
+     */
+    PhotoUploadResult complete(String uid, String uploadId) throws IOException;
+
+    void abort(String uid, String uploadId) throws IOException;
+}
@@ -0,0 +1,25 @@
+package com.moujib.lookmax_backend.services;
+
+import com.moujib.lookmax_backend.models.HistoryPage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ScoreHistoryService {
+
+    /**
+     * Page suivant {@code cursor} (première page si {@code null}), par seek sur (created_at, id).
+     */
+    HistoryPage page(String uid, String cursor, int limit);
+
+    /**
+     * Nombre d'analyses de l'utilisateur, servi depuis un cache à durée de vie courte :
+     * la valeur peut retarder de quelques secondes sur les nouvelles analyses.
+     */
+    long cachedCount(String uid);
+
+    /**
+     * Écrit tout l'historique en tableau JSON, ligne par ligne depuis un curseur JDBC.
+     */
+    void export(String uid, OutputStream out) throws IOException;
+}
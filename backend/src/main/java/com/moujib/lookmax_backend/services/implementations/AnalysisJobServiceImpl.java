@@ -0,0 +1,333 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.entities.AnalysisJobEntity;
+import com.moujib.lookmax_backend.entities.ScoreHistoryEntity;
+import com.moujib.lookmax_backend.exceptions.JobQueueFullException;
+import com.moujib.lookmax_backend.models.AnalysisJob;
+import com.moujib.lookmax_backend.models.AnalysisJobStatus;
+import com.moujib.lookmax_backend.models.AnalysisResult;
+import com.moujib.lookmax_backend.repositories.AnalysisJobRepository;
+import com.moujib.lookmax_backend.repositories.ScoreHistoryRepository;
+import com.moujib.lookmax_backend.services.AnalysisJobService;
+import com.moujib.lookmax_backend.services.AnalysisResultCache;
+import com.moujib.lookmax_backend.services.FacialAnalysisService;
+import com.moujib.lookmax_backend.services.PhotoAnalysisService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Exécution asynchrone des analyses.
+ * <p>
+ * Les jobs sont persistés dès la soumission puis placés dans une {@link FairJobQueue} bornée,
+ * consommée par un nombre fixe de workers. File pleine : {@link JobQueueFullException} avec un
+ * délai de nouvelle tentative estimé sur la durée moyenne des jobs. À l'arrêt, les workers ne
+ * prennent plus de job et terminent celui en cours ; au démarrage, les jobs {@code QUEUED} ou
+ * {@code RUNNING} (non drainés à temps par un redéploiement) sont remis en file.
+ */
+@Service
+public class AnalysisJobServiceImpl implements AnalysisJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobServiceImpl.class);
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final AnalysisJobRepository jobRepository;
+    private final ScoreHistoryRepository scoreHistoryRepository;
+    private final PhotoAnalysisService photoAnalysisService;
+    private final AnalysisResultCache analysisResultCache;
+    private final FacialAnalysisService facialAnalysisService;
+
+    private final int workerCount;
+    private final int queueCapacity;
+    private final Duration drainTimeout;
+    private final FairJobQueue queue;
+    private final ConcurrentHashMap<String, ActiveJob> active = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Timer queueWaitTimer;
+    private final Timer doneTimer;
+    private final Timer failedTimer;
+
+    private volatile boolean accepting = true;
+    // Moyenne mobile exponentielle de la durée d'un job, pour le header Retry-After
+    private volatile double averageJobMillis = 1000;
+
+    public AnalysisJobServiceImpl(AnalysisJobRepository jobRepository,
+                                  ScoreHistoryRepository scoreHistoryRepository,
+                                  PhotoAnalysisService photoAnalysisService,
+                                  AnalysisResultCache analysisResultCache,
+                                  FacialAnalysisService facialAnalysisService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${lookmax.jobs.workers:0}") int workers,
+                                  @Value("${lookmax.jobs.queue-capacity:200}") int queueCapacity,
+                                  @Value("${lookmax.jobs.max-queued-per-user:5}") int maxQueuedPerUser,
+                                  @Value("${lookmax.jobs.max-running-per-user:1}") int maxRunningPerUser,
+                                  @Value("${lookmax.jobs.drain-timeout-seconds:30}") long drainTimeoutSeconds) {
+        this.jobRepository = jobRepository;
+        this.scoreHistoryRepository = scoreHistoryRepository;
+        this.photoAnalysisService = photoAnalysisService;
+        this.analysisResultCache = analysisResultCache;
+        this.facialAnalysisService = facialAnalysisService;
+        this.workerCount = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+        this.drainTimeout = Duration.ofSeconds(drainTimeoutSeconds);
+        this.queue = new FairJobQueue(queueCapacity, maxQueuedPerUser, maxRunningPerUser);
+
+        Gauge.builder("lookmax.jobs.queued", queue, FairJobQueue::size)
+                .description("Jobs d'analyse en attente d'un worker")
+                .register(meterRegistry);
+        this.queueWaitTimer = jobTimer(meterRegistry, "lookmax.jobs.queue.wait", null);
+        this.doneTimer = jobTimer(meterRegistry, "lookmax.jobs.execution", "done");
+        this.failedTimer = jobTimer(meterRegistry, "lookmax.jobs.execution", "failed");
+    }
+
+    private static Timer jobTimer(MeterRegistry registry, String name, String outcome) {
+        Timer.Builder builder = Timer.builder(name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(5));
+        if (outcome != null) {
+            builder.tag("outcome", outcome);
+        }
+        return builder.register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        recoverUnfinishedJobs();
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofPlatform()
+                    .name("analysis-worker-" + i)
+                    .daemon()
+                    .start(this::workLoop));
+        }
+        logger.info("⚙️ {} analysis workers started (queue capacity {})", workerCount, queueCapacity);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Pas d'interruption : un job interrompu finirait FAILED au lieu d'être repris
+        accepting = false;
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        int unfinished = 0;
+        for (Thread worker : workers) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                if (!worker.join(Duration.ofNanos(remaining))) {
+                    unfinished++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (unfinished > 0) {
+            // Restés RUNNING en base : repris au prochain démarrage
+            logger.warn("⚠️ {} analysis job(s) still running after {}s, left for recovery",
+                    unfinished, drainTimeout.toSeconds());
+        }
+    }
+
+    @Override
+    public AnalysisJob submit(String uid, String sha256) {
+        if (!accepting || queue.size() >= queueCapacity) {
+            throw new JobQueueFullException("Analysis queue is full", retryAfterSeconds());
+        }
+
+        Instant now = Instant.now();
+        AnalysisJob job = new AnalysisJob(UUID.randomUUID().toString(), uid, sha256,
+                AnalysisJobStatus.QUEUED, null, null, now, now);
+
+        AnalysisJobEntity entity = new AnalysisJobEntity();
+        entity.setId(job.id());
+        entity.setUid(uid);
+        entity.setSha256(sha256);
+        entity.setAnalysisVersion(facialAnalysisService.analysisVersion());
+        entity.setStatus(AnalysisJobStatus.QUEUED);
+        entity.setCreatedAt(now);
+        entity.setUpdatedAt(now);
+        jobRepository.save(entity);
+
+        active.put(job.id(), new ActiveJob(job));
+        if (!queue.offer(uid, job.id(), false)) {
+            active.remove(job.id());
+            jobRepository.deleteById(job.id());
+            throw new JobQueueFullException("Too many pending analyses", retryAfterSeconds());
+        }
+
+        logger.debug("📥 Job {} queued for user {} ({})", job.id(), uid, sha256);
+        return job;
+    }
+
+    @Override
+    public Optional<AnalysisJob> find(String jobId, String uid) {
+        ActiveJob activeJob = active.get(jobId);
+        if (activeJob != null) {
+            AnalysisJob snapshot = activeJob.snapshot;
+            return snapshot.uid().equals(uid) ? Optional.of(snapshot) : Optional.empty();
+        }
+        return jobRepository.findById(jobId)
+                .filter(entity -> entity.getUid().equals(uid))
+                .map(this::toJob);
+    }
+
+    @Override
+    public Runnable subscribe(String jobId, String uid, Consumer<AnalysisJob> listener) {
+        ActiveJob activeJob = active.get(jobId);
+        if (activeJob == null) {
+            // Job déjà terminé (ou inconnu) : seul l'état final est envoyé
+            find(jobId, uid).ifPresent(listener);
+            return () -> {
+            };
+        }
+        if (!activeJob.snapshot.uid().equals(uid)) {
+            return () -> {
+            };
+        }
+        activeJob.listeners.add(listener);
+        // Lu après l'inscription : une transition concurrente ne peut pas être perdue
+        listener.accept(activeJob.snapshot);
+        return () -> activeJob.listeners.remove(listener);
+    }
+
+    private void workLoop() {
+        while (accepting) {
+            FairJobQueue.Entry entry;
+            try {
+                entry = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (entry == null) {
+                continue;
+            }
+            try {
+                execute(entry.jobId());
+            } finally {
+                queue.done(entry.uid());
+            }
+        }
+    }
+
+    private void execute(String jobId) {
+        ActiveJob activeJob = active.get(jobId);
+        if (activeJob == null) {
+            return;
+        }
+        transition(activeJob, AnalysisJobStatus.RUNNING, null, null);
+        queueWaitTimer.record(Duration.between(activeJob.snapshot.createdAt(), activeJob.snapshot.updatedAt()));
+
+        long start = System.nanoTime();
+        boolean done = false;
+        try {
+            Optional<AnalysisResult> result = photoAnalysisService.analyze(activeJob.snapshot.sha256());
+            if (result.isPresent()) {
+                recordHistory(activeJob.snapshot, result.get());
+                transition(activeJob, AnalysisJobStatus.DONE, result.get(), null);
+                done = true;
+            } else {
+                transition(activeJob, AnalysisJobStatus.FAILED, null, "Photo not found");
+            }
+        } catch (RuntimeException e) {
+            logger.warn("❌ Analysis job {} failed: {}", jobId, e.getMessage());
+            transition(activeJob, AnalysisJobStatus.FAILED, null, e.getMessage());
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            (done ? doneTimer : failedTimer).record(elapsedNanos, TimeUnit.NANOSECONDS);
+            averageJobMillis = 0.9 * averageJobMillis + 0.1 * elapsedNanos / 1_000_000.0;
+        }
+    }
+
+    private void transition(ActiveJob activeJob, AnalysisJobStatus status, AnalysisResult result, String error) {
+        String message = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        AnalysisJob updated = activeJob.snapshot.withStatus(status, result, message);
+        activeJob.snapshot = updated;
+
+        try {
+            jobRepository.updateStatus(updated.id(), status, message, updated.updatedAt());
+        } catch (DataAccessException e) {
+            logger.warn("⚠️ Job {} status {} not persisted: {}", updated.id(), status, e.getMessage());
+        }
+
+        for (Consumer<AnalysisJob> listener : activeJob.listeners) {
+            try {
+                listener.accept(updated);
+            } catch (RuntimeException e) {
+                activeJob.listeners.remove(listener);
+            }
+        }
+
+        if (status.isTerminal()) {
+            active.remove(updated.id());
+            activeJob.listeners.clear();
+        }
+    }
+
+    private void recordHistory(AnalysisJob job, AnalysisResult result) {
+        try {
+            scoreHistoryRepository.save(ScoreHistoryEntity.of(job.uid(), job.sha256(), result.version(), result.overallScore()));
+        } catch (DataAccessException e) {
+            logger.warn("⚠️ Score history for job {} not persisted: {}", job.id(), e.getMessage());
+        }
+    }
+
+    private void recoverUnfinishedJobs() {
+        List<AnalysisJobEntity> unfinished = jobRepository.findByStatusInOrderByCreatedAtAsc(
+                List.of(AnalysisJobStatus.QUEUED, AnalysisJobStatus.RUNNING));
+        for (AnalysisJobEntity entity : unfinished) {
+            if (entity.getStatus() == AnalysisJobStatus.RUNNING) {
+                entity.setStatus(AnalysisJobStatus.QUEUED);
+                jobRepository.updateStatus(entity.getId(), AnalysisJobStatus.QUEUED, null, Instant.now());
+            }
+            active.put(entity.getId(), new ActiveJob(toJob(entity)));
+            queue.offer(entity.getUid(), entity.getId(), true);
+        }
+        if (!unfinished.isEmpty()) {
+            logger.info("♻️ {} unfinished analysis jobs re-queued after restart", unfinished.size());
+        }
+    }
+
+    private AnalysisJob toJob(AnalysisJobEntity entity) {
+        AnalysisResult result = entity.getStatus() == AnalysisJobStatus.DONE
+                ? analysisResultCache.get(entity.getSha256(), entity.getAnalysisVersion()).orElse(null)
+                : null;
+        return new AnalysisJob(entity.getId(), entity.getUid(), entity.getSha256(), entity.getStatus(),
+                result, entity.getError(), entity.getCreatedAt(), entity.getUpdatedAt());
+    }
+
+    private long retryAfterSeconds() {
+        double pendingRounds = (double) (queue.size() + workerCount) / workerCount;
+        return Math.max(1, (long) Math.ceil(pendingRounds * averageJobMillis / 1000.0));
+    }
+
+    private static final class ActiveJob {
+
+        private volatile AnalysisJob snapshot;
+        private final List<Consumer<AnalysisJob>> listeners = new CopyOnWriteArrayList<>();
+
+        ActiveJob(AnalysisJob snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.entities.AnalysisResultEntity;
+import com.moujib.lookmax_backend.entities.AnalysisResultId;
+import com.moujib.lookmax_backend.models.AnalysisResult;
+import com.moujib.lookmax_backend.repositories.AnalysisResultRepository;
+import com.moujib.lookmax_backend.services.AnalysisResultCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Cache des résultats d'analyse adressé par contenu ({@code sha256} + version d'algorithme).
+ * <p>
+ * Deux niveaux : une LRU mémoire bornée en nombre d'entrées, puis la table {@code analysis_result}.
+ * Les calculs concurrents d'une même clé sont fusionnés (single-flight) : seul le premier appelant
+ * lance le pipeline image, les autres attendent son résultat.
+ */
+@Service
+public class AnalysisResultCacheImpl implements AnalysisResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisResultCacheImpl.class);
+
+    private final AnalysisResultRepository repository;
+    private final int maxEntries;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<CacheKey, AnalysisResult> memory = new LinkedHashMap<>(1024, 0.75f, true);
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<AnalysisResult>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder databaseHits = new LongAdder();
+    private final LongAdder computations = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public AnalysisResultCacheImpl(AnalysisResultRepository repository,
+                                   @Value("${lookmax.analysis.cache.max-entries:50000}") int maxEntries) {
+        this.repository = repository;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    @Override
+    public Optional<AnalysisResult> get(String sha256, int analysisVersion) {
+        CacheKey key = new CacheKey(sha256, analysisVersion);
+        AnalysisResult result = memoryGet(key);
+        if (result != null) {
+            memoryHits.increment();
+            return Optional.of(result);
+        }
+        return Optional.ofNullable(loadFromDatabase(key));
+    }
+
+    @Override
+    public AnalysisResult getOrCompute(String sha256, int analysisVersion, Supplier<AnalysisResult> computation) {
+        CacheKey key = new CacheKey(sha256, analysisVersion);
+        AnalysisResult cached = memoryGet(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return cached;
+        }
+
+        CompletableFuture<AnalysisResult> mine = new CompletableFuture<>();
+        CompletableFuture<AnalysisResult> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            // Même image déjà en cours d'analyse : on attend le résultat du premier appelant
+            coalesced.increment();
+            return await(existing);
+        }
+
+        try {
+            AnalysisResult result = loadFromDatabase(key);
+            if (result == null) {
+                result = computation.get();
+                if (result != null) {
+                    computations.increment();
+                    persist(sha256, result);
+                    memoryPut(key, result);
+                }
+            }
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Override
+    public Stats stats() {
+        int size;
+        lock.lock();
+        try {
+            size = memory.size();
+        } finally {
+            lock.unlock();
+        }
+        return new Stats(memoryHits.sum(), databaseHits.sum(), computations.sum(), coalesced.sum(),
+                evictions.sum(), size);
+    }
+
+    private AnalysisResult loadFromDatabase(CacheKey key) {
+        try {
+            Optional<AnalysisResultEntity> entity = repository.findById(new AnalysisResultId(key.sha256(), key.version()));
+            if (entity.isPresent()) {
+                databaseHits.increment();
+                AnalysisResult result = entity.get().toResult();
+                memoryPut(key, result);
+                return result;
+            }
+        } catch (DataAccessException e) {
+            // Le tier Postgres est une optimisation : en cas de panne on recalcule
+            logger.warn("⚠️ Analysis cache lookup failed for {}: {}", key.sha256(), e.getMessage());
+        }
+        return null;
+    }
+
+    private void persist(String sha256, AnalysisResult result) {
+        try {
+            repository.save(AnalysisResultEntity.from(sha256, result));
+        } catch (DataAccessException e) {
+            logger.warn("⚠️ Analysis result for {} not persisted: {}", sha256, e.getMessage());
+        }
+    }
+
+    private AnalysisResult memoryGet(CacheKey key) {
+        lock.lock();
+        try {
+            return memory.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void memoryPut(CacheKey key, AnalysisResult result) {
+        lock.lock();
+        try {
+            memory.put(key, result);
+            Iterator<CacheKey> it = memory.keySet().iterator();
+            while (memory.size() > maxEntries && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static AnalysisResult await(CompletableFuture<AnalysisResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record CacheKey(String sha256, int version) {
+    }
+}
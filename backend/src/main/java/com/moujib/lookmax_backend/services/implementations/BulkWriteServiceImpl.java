@@ -0,0 +1,52 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.services.BulkWriteService;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Écriture en masse via {@code persist} + {@code flush}/{@code clear} par tranche.
+ * <p>
+ * Contrairement à {@code saveAll} de Spring Data, aucune entité ne reste attachée au contexte
+ * après sa tranche, et {@code persist} n'émet pas le {@code SELECT} de {@code merge} pour les
+ * entités à identifiant assigné. Les tranches sont alignées sur {@code hibernate.jdbc.batch_size}
+ * pour que chaque flush parte en un seul batch JDBC par table.
+ */
+@Service
+public class BulkWriteServiceImpl implements BulkWriteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkWriteServiceImpl.class);
+
+    private final EntityManager entityManager;
+    private final int chunkSize;
+
+    public BulkWriteServiceImpl(EntityManager entityManager,
+                                @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int chunkSize) {
+        this.entityManager = entityManager;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    @Transactional
+    public int insertAll(Collection<?> entities) {
+        long start = System.nanoTime();
+        int count = 0;
+        for (Object entity : entities) {
+            entityManager.persist(entity);
+            if (++count % chunkSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        logger.debug("💾 {} entities inserted in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+}
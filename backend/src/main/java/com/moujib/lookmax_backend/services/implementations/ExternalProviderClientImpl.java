@@ -0,0 +1,302 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moujib.lookmax_backend.configurations.ProviderProperties;
+import com.moujib.lookmax_backend.exceptions.ProviderUnavailableException;
+import com.moujib.lookmax_backend.services.ExternalProviderClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client sortant vers les fournisseurs d'analyse externes.
+ * <p>
+ * Ordre des protections pour un appel : cache, coalescence des requêtes identiques en vol,
+ * bulkhead (sémaphore à attente bornée), disjoncteur, puis la requête elle-même avec retries
+ * à backoff exponentiel et jitter, le tout sous une échéance globale. Les retries ne
+ * concernent que les erreurs transitoires (réseau, timeout, 5xx, 429).
+ */
+@Service
+public class ExternalProviderClientImpl implements ExternalProviderClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalProviderClientImpl.class);
+
+    private static final double RETRY_JITTER = 0.5;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Client> clients = new HashMap<>();
+    private final Map<String, CompletableFuture<JsonNode>> inFlight = new ConcurrentHashMap<>();
+
+    public ExternalProviderClientImpl(ProviderProperties properties,
+                                      ConnectionProvider providerConnectionProvider,
+                                      ObjectMapper objectMapper,
+                                      MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        properties.clients().forEach((name, settings) -> {
+            Client client = new Client(name, settings, webClient(settings, providerConnectionProvider));
+            clients.put(name, client);
+            Gauge.builder("lookmax.provider.circuit.state", client.circuit, circuit -> circuit.state().ordinal())
+                    .description("0 = fermé, 1 = semi-ouvert, 2 = ouvert")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+            logger.info("🔌 Fournisseur externe {} → {} (HTTP/2: {})", name, settings.baseUrl(), settings.http2());
+        });
+    }
+
+    @Override
+    public JsonNode post(String provider, String path, Object payload) {
+        Client client = clients.get(provider);
+        if (client == null) {
+            throw new IllegalArgumentException("Unknown provider " + provider);
+        }
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Payload is not serializable", e);
+        }
+        String key = provider + ":" + path + ":" + sha256(body);
+
+        JsonNode cached = client.cached(key);
+        if (cached != null) {
+            meterRegistry.counter("lookmax.provider.calls", "provider", provider, "outcome", "cached").increment();
+            return cached;
+        }
+
+        CompletableFuture<JsonNode> created = new CompletableFuture<>();
+        CompletableFuture<JsonNode> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            meterRegistry.counter("lookmax.provider.calls", "provider", provider, "outcome", "coalesced").increment();
+            return await(existing, client);
+        }
+
+        try {
+            JsonNode result = execute(client, path, body);
+            client.cache(key, result);
+            created.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    private JsonNode execute(Client client, String path, byte[] body) {
+        ProviderProperties.Provider settings = client.settings;
+        boolean permitted;
+        try {
+            permitted = client.bulkhead.tryAcquire(settings.bulkheadWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProviderUnavailableException("Interrupted while waiting for provider " + client.name, e);
+        }
+        if (!permitted) {
+            meterRegistry.counter("lookmax.provider.calls", "provider", client.name, "outcome", "bulkhead_full").increment();
+            throw new ProviderUnavailableException("Too many concurrent calls to provider " + client.name);
+        }
+
+        try {
+            if (!client.circuit.tryAcquire()) {
+                meterRegistry.counter("lookmax.provider.calls", "provider", client.name, "outcome", "circuit_open").increment();
+                throw new ProviderUnavailableException("Circuit open for provider " + client.name);
+            }
+
+            long start = System.nanoTime();
+            String outcome = "failure";
+            try {
+                JsonNode result = client.webClient.post()
+                        .uri(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(body)
+                        .retrieve()
+                        .bodyToMono(JsonNode.class)
+                        .retryWhen(Retry.backoff(settings.maxRetries(), settings.retryBackoff())
+                                .maxBackoff(settings.retryMaxBackoff())
+                                .jitter(RETRY_JITTER)
+                                .filter(ExternalProviderClientImpl::isTransient)
+                                .doBeforeRetry(signal -> logger.debug("🔁 Retry #{} vers {}{}: {}",
+                                        signal.totalRetries() + 1, client.name, path, signal.failure().toString())))
+                        .timeout(settings.deadline())
+                        .block();
+                client.circuit.onSuccess();
+                outcome = "success";
+                return result;
+            } catch (RuntimeException e) {
+                Throwable cause = rootCause(e);
+                if (cause instanceof WebClientResponseException response && !isTransient(response)) {
+                    // Requête refusée (4xx) : le fournisseur répond, le disjoncteur n'a pas à s'en mêler
+                    client.circuit.onSuccess();
+                    outcome = "rejected";
+                    throw new ProviderUnavailableException("Provider " + client.name + " rejected the request: "
+                            + response.getStatusCode(), cause);
+                }
+                client.circuit.onFailure();
+                logger.warn("⚠️ Appel au fournisseur {} en échec: {}", client.name, cause.toString());
+                throw new ProviderUnavailableException("Provider " + client.name + " failed", cause);
+            } finally {
+                Timer.builder("lookmax.provider.latency")
+                        .tag("provider", client.name)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                meterRegistry.counter("lookmax.provider.calls", "provider", client.name, "outcome", outcome).increment();
+            }
+        } finally {
+            client.bulkhead.release();
+        }
+    }
+
+    private static WebClient webClient(ProviderProperties.Provider settings, ConnectionProvider connectionProvider) {
+        HttpClient http = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.connectTimeout().toMillis())
+                .responseTimeout(settings.responseTimeout())
+                .compress(true);
+        if (settings.http2()) {
+            // h2 négocié par ALPN en TLS, h2c (upgrade) en clair ; repli HTTP/1.1 si le serveur refuse
+            http = settings.baseUrl().startsWith("https")
+                    ? http.secure().protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                    : http.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return WebClient.builder()
+                .baseUrl(settings.baseUrl())
+                .clientConnector(new ReactorClientHttpConnector(http))
+                .build();
+    }
+
+    private static boolean isTransient(Throwable failure) {
+        if (failure instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return failure instanceof WebClientRequestException || failure instanceof TimeoutException;
+    }
+
+    private static Throwable rootCause(RuntimeException e) {
+        Throwable cause = Exceptions.unwrap(e);
+        if (Exceptions.isRetryExhausted(cause) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static JsonNode await(CompletableFuture<JsonNode> future, Client client) {
+        try {
+            return future.get(client.settings.deadline().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProviderUnavailableException("Interrupted while waiting for provider " + client.name, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new ProviderUnavailableException("Provider " + client.name + " failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new ProviderUnavailableException("Provider " + client.name + " timed out", e);
+        }
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Client {
+
+        private final String name;
+        private final ProviderProperties.Provider settings;
+        private final WebClient webClient;
+        private final Semaphore bulkhead;
+        private final CircuitBreaker circuit;
+
+        private final long cacheTtlNanos;
+        private final ReentrantLock cacheLock = new ReentrantLock();
+        private final LinkedHashMap<String, CachedResponse> cache = new LinkedHashMap<>(64, 0.75f, true);
+
+        private Client(String name, ProviderProperties.Provider settings, WebClient webClient) {
+            this.name = name;
+            this.settings = settings;
+            this.webClient = webClient;
+            this.bulkhead = new Semaphore(settings.maxConcurrent(), true);
+            this.circuit = new CircuitBreaker(settings.slidingWindow(), settings.minimumCalls(),
+                    settings.failureRatePercent(), settings.openDuration().toNanos(), settings.halfOpenCalls(),
+                    System::nanoTime);
+            this.cacheTtlNanos = settings.cacheTtl().toNanos();
+        }
+
+        private JsonNode cached(String key) {
+            if (cacheTtlNanos <= 0) {
+                return null;
+            }
+            cacheLock.lock();
+            try {
+                CachedResponse cached = cache.get(key);
+                if (cached == null) {
+                    return null;
+                }
+                if (System.nanoTime() - cached.storedAt() > cacheTtlNanos) {
+                    cache.remove(key);
+                    return null;
+                }
+                return cached.body();
+            } finally {
+                cacheLock.unlock();
+            }
+        }
+
+        private void cache(String key, JsonNode body) {
+            if (cacheTtlNanos <= 0 || body == null) {
+                return;
+            }
+            cacheLock.lock();
+            try {
+                cache.put(key, new CachedResponse(body, System.nanoTime()));
+                if (cache.size() > settings.cacheMaxEntries()) {
+                    cache.remove(cache.keySet().iterator().next());
+                }
+            } finally {
+                cacheLock.unlock();
+            }
+        }
+    }
+
+    private record CachedResponse(JsonNode body, long storedAt) {
+    }
+}
@@ -0,0 +1,294 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.AnalysisResult;
+import com.moujib.lookmax_backend.models.DecodedImage;
+import com.moujib.lookmax_backend.services.FacialAnalysisService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Moteur de calcul des métriques d'analyse sur un buffer de pixels packés.
+ * <p>
+ * Malgré le nom, aucun visage n'est détecté : toutes les métriques sont des statistiques de
+ * l'image entière. La symétrie compare chaque ligne à son miroir gauche-droite sur toute la
+ * largeur, les tiers découpent toute la hauteur et le centrage est celui du barycentre des
+ * gradients dans le cadre. Elles ne valent pour le visage que sur une photo cadrée dessus.
+ * <p>
+ * L'image est découpée en bandes horizontales de {@code tileRows} lignes réparties sur un
+ * {@link ForkJoinPool} dédié. Chaque bande écrit ses sommes partielles dans sa propre case d'un
+ * tableau {@code double[]} puis la réduction se fait dans l'ordre des bandes : le résultat est
+ * identique en mode parallèle et séquentiel. La boucle par pixel n'alloue rien, les lignes de
+ * luminance étant gardées dans un buffer réutilisé par thread.
+ */
+@Service
+public class FacialAnalysisServiceImpl implements FacialAnalysisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacialAnalysisServiceImpl.class);
+
+    static final int ANALYSIS_VERSION = 1;
+
+    // Index des sommes partielles par bande
+    private static final int S_LUM = 0;
+    private static final int S_LUM2 = 1;
+    private static final int S_RG = 2;
+    private static final int S_RG2 = 3;
+    private static final int S_YB = 4;
+    private static final int S_YB2 = 5;
+    private static final int S_SYM = 6;
+    private static final int S_GRAD = 7;
+    private static final int S_GRAD_X = 8;
+    private static final int S_THIRD_TOP = 9;
+    private static final int S_THIRD_MIDDLE = 10;
+    private static final int S_THIRD_BOTTOM = 11;
+    private static final int STATS = 12;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final boolean sequential;
+    private final int tileRows;
+    private final ForkJoinPool pool;
+
+    public FacialAnalysisServiceImpl(@Value("${lookmax.analysis.parallelism:0}") int parallelism,
+                                     @Value("${lookmax.analysis.sequential:false}") boolean sequential,
+                                     @Value("${lookmax.analysis.tile-rows:32}") int tileRows) {
+        this.sequential = sequential;
+        this.tileRows = Math.max(1, tileRows);
+        this.pool = sequential ? null : new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        logger.info("🧮 Analysis engine ready ({}, tiles of {} rows)",
+                sequential ? "sequential" : "parallelism " + pool.getParallelism(), this.tileRows);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public int analysisVersion() {
+        return ANALYSIS_VERSION;
+    }
+
+    @Override
+    public AnalysisResult analyze(DecodedImage image) {
+        int width = image.width();
+        int height = image.height();
+        if (width < 2 || height < 2) {
+            throw new IllegalArgumentException("Image too small for analysis: " + width + "x" + height);
+        }
+
+        int tiles = (height + tileRows - 1) / tileRows;
+        double[] partials = new double[tiles * STATS];
+
+        if (sequential) {
+            for (int tile = 0; tile < tiles; tile++) {
+                computeTile(image, tile, partials);
+            }
+        } else {
+            pool.invoke(new TileTask(image, partials, 0, tiles));
+        }
+
+        // Réduction dans l'ordre des bandes : déterministe quel que soit l'ordonnancement
+        double[] totals = new double[STATS];
+        for (int tile = 0; tile < tiles; tile++) {
+            int base = tile * STATS;
+            for (int s = 0; s < STATS; s++) {
+                totals[s] += partials[base + s];
+            }
+        }
+        return score(totals, width, height);
+    }
+
+    private void computeTile(DecodedImage image, int tile, double[] partials) {
+        int width = image.width();
+        int height = image.height();
+        int[] pixels = image.pixels();
+        int y0 = tile * tileRows;
+        int y1 = Math.min(height, y0 + tileRows);
+        int half = width / 2;
+
+        Scratch scratch = SCRATCH.get();
+        float[] previous = scratch.previous(width);
+        float[] current = scratch.current(width);
+        if (y0 > 0) {
+            luminanceRow(pixels, (y0 - 1) * width, width, previous);
+        }
+
+        double lum = 0, lum2 = 0, rg = 0, rg2 = 0, yb = 0, yb2 = 0;
+        double sym = 0, grad = 0, gradX = 0;
+        double top = 0, middle = 0, bottom = 0;
+
+        for (int y = y0; y < y1; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                int p = pixels[row + x];
+                float r = (p >> 16) & 0xFF;
+                float g = (p >> 8) & 0xFF;
+                float b = p & 0xFF;
+                float l = 0.299f * r + 0.587f * g + 0.114f * b;
+                current[x] = l;
+                lum += l;
+                lum2 += l * l;
+                float drg = r - g;
+                float dyb = 0.5f * (r + g) - b;
+                rg += drg;
+                rg2 += drg * drg;
+                yb += dyb;
+                yb2 += dyb * dyb;
+            }
+
+            for (int x = 0; x < half; x++) {
+                sym += Math.abs(current[x] - current[width - 1 - x]);
+            }
+
+            if (y > 0) {
+                double horizontalEdges = 0;
+                for (int x = 1; x < width; x++) {
+                    float gx = Math.abs(current[x] - current[x - 1]);
+                    float gy = Math.abs(current[x] - previous[x]);
+                    float gradient = gx + gy;
+                    grad += gradient;
+                    gradX += (double) gradient * x;
+                    horizontalEdges += gy;
+                }
+                // Tiers verticaux du cadre (front / yeux-nez / bouche-menton sur un portrait cadré)
+                int third = (3 * y) / height;
+                if (third == 0) {
+                    top += horizontalEdges;
+                } else if (third == 1) {
+                    middle += horizontalEdges;
+                } else {
+                    bottom += horizontalEdges;
+                }
+            }
+
+            float[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        int base = tile * STATS;
+        partials[base + S_LUM] = lum;
+        partials[base + S_LUM2] = lum2;
+        partials[base + S_RG] = rg;
+        partials[base + S_RG2] = rg2;
+        partials[base + S_YB] = yb;
+        partials[base + S_YB2] = yb2;
+        partials[base + S_SYM] = sym;
+        partials[base + S_GRAD] = grad;
+        partials[base + S_GRAD_X] = gradX;
+        partials[base + S_THIRD_TOP] = top;
+        partials[base + S_THIRD_MIDDLE] = middle;
+        partials[base + S_THIRD_BOTTOM] = bottom;
+    }
+
+    private static void luminanceRow(int[] pixels, int offset, int width, float[] out) {
+        for (int x = 0; x < width; x++) {
+            int p = pixels[offset + x];
+            out[x] = 0.299f * ((p >> 16) & 0xFF) + 0.587f * ((p >> 8) & 0xFF) + 0.114f * (p & 0xFF);
+        }
+    }
+
+    private static AnalysisResult score(double[] t, int width, int height) {
+        double n = (double) width * height;
+
+        double meanLum = t[S_LUM] / n;
+        double stdLum = Math.sqrt(Math.max(0, t[S_LUM2] / n - meanLum * meanLum));
+        double brightness = meanLum / 255.0;
+        double contrast = clamp(stdLum / 127.5);
+
+        // Colourfulness de Hasler & Süsstrunk, normalisée sur ~109 (image très colorée)
+        double meanRg = t[S_RG] / n;
+        double meanYb = t[S_YB] / n;
+        double varRg = Math.max(0, t[S_RG2] / n - meanRg * meanRg);
+        double varYb = Math.max(0, t[S_YB2] / n - meanYb * meanYb);
+        double colourfulness = clamp((Math.sqrt(varRg + varYb)
+                + 0.3 * Math.sqrt(meanRg * meanRg + meanYb * meanYb)) / 109.0);
+
+        double symmetry = clamp(1.0 - t[S_SYM] / ((double) height * (width / 2) * 255.0));
+
+        double gradientPixels = (double) (width - 1) * (height - 1);
+        double sharpness = clamp(t[S_GRAD] / gradientPixels / 32.0);
+        double horizontalCentering = t[S_GRAD] > 0
+                ? clamp(1.0 - Math.abs(t[S_GRAD_X] / t[S_GRAD] / (width - 1) - 0.5) * 2.0)
+                : 0.0;
+
+        double thirdsSum = t[S_THIRD_TOP] + t[S_THIRD_MIDDLE] + t[S_THIRD_BOTTOM];
+        double thirdsBalance = thirdsSum > 0
+                ? clamp(1.0 - (Math.max(t[S_THIRD_TOP], Math.max(t[S_THIRD_MIDDLE], t[S_THIRD_BOTTOM]))
+                - Math.min(t[S_THIRD_TOP], Math.min(t[S_THIRD_MIDDLE], t[S_THIRD_BOTTOM]))) / thirdsSum)
+                : 0.0;
+
+        double contrastScore = 1.0 - Math.abs(contrast - 0.5) * 2.0;
+        double overall = 100.0 * (0.35 * symmetry
+                + 0.20 * thirdsBalance
+                + 0.15 * horizontalCentering
+                + 0.15 * clamp(contrastScore)
+                + 0.15 * sharpness);
+
+        return new AnalysisResult(ANALYSIS_VERSION, width, height, overall, symmetry, thirdsBalance,
+                horizontalCentering, brightness, contrast, colourfulness, sharpness);
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+
+    private final class TileTask extends RecursiveAction {
+
+        private final DecodedImage image;
+        private final double[] partials;
+        private final int from;
+        private final int to;
+
+        TileTask(DecodedImage image, double[] partials, int from, int to) {
+            this.image = image;
+            this.partials = partials;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                for (int tile = from; tile < to; tile++) {
+                    computeTile(image, tile, partials);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new TileTask(image, partials, from, mid), new TileTask(image, partials, mid, to));
+        }
+    }
+
+    /**
+     * Lignes de luminance réutilisées d'une image à l'autre par le même thread.
+     */
+    private static final class Scratch {
+
+        private float[] previous = new float[0];
+        private float[] current = new float[0];
+
+        float[] previous(int width) {
+            if (previous.length < width) {
+                previous = new float[width];
+            }
+            return previous;
+        }
+
+        float[] current(int width) {
+            if (current.length < width) {
+                current = new float[width];
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File bornée à tourniquet par utilisateur.
+ * <p>
+ * Chaque uid a sa propre file ; les workers servent les utilisateurs à tour de rôle et un même
+ * uid ne peut occuper plus de {@code maxRunningPerUser} workers, de sorte qu'un utilisateur qui
+ * soumet cent photos ne retarde pas celui qui en soumet une.
+ */
+final class FairJobQueue {
+
+    record Entry(String uid, String jobId) {
+    }
+
+    private final int capacity;
+    private final int maxQueuedPerUser;
+    private final int maxRunningPerUser;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition ready = lock.newCondition();
+    private final Map<String, ArrayDeque<String>> pending = new HashMap<>();
+    private final Map<String, Integer> running = new HashMap<>();
+    // Utilisateurs servables, dans l'ordre du tourniquet
+    private final ArrayDeque<String> turn = new ArrayDeque<>();
+    private final Set<String> inTurn = new HashSet<>();
+    private int size;
+
+    FairJobQueue(int capacity, int maxQueuedPerUser, int maxRunningPerUser) {
+        this.capacity = capacity;
+        this.maxQueuedPerUser = maxQueuedPerUser;
+        this.maxRunningPerUser = maxRunningPerUser;
+    }
+
+    /**
+     * @param force ignore les limites (reprise des jobs persistés au démarrage)
+     * @return {@code false} si la file globale ou celle de l'utilisateur est pleine
+     */
+    boolean offer(String uid, String jobId, boolean force) {
+        lock.lock();
+        try {
+            ArrayDeque<String> queue = pending.computeIfAbsent(uid, k -> new ArrayDeque<>());
+            if (!force && (size >= capacity || queue.size() >= maxQueuedPerUser)) {
+                if (queue.isEmpty()) {
+                    pending.remove(uid);
+                }
+                return false;
+            }
+            queue.addLast(jobId);
+            size++;
+            scheduleIfEligible(uid);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Prochain job à exécuter, ou {@code null} après {@code timeout} sans travail.
+     */
+    Entry poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (turn.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = ready.awaitNanos(nanos);
+            }
+            String uid = turn.pollFirst();
+            inTurn.remove(uid);
+            ArrayDeque<String> queue = pending.get(uid);
+            String jobId = queue.pollFirst();
+            if (queue.isEmpty()) {
+                pending.remove(uid);
+            }
+            size--;
+            running.merge(uid, 1, Integer::sum);
+            // L'utilisateur repasse en fin de tourniquet s'il a encore du travail
+            scheduleIfEligible(uid);
+            return new Entry(uid, jobId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void done(String uid) {
+        lock.lock();
+        try {
+            running.computeIfPresent(uid, (k, count) -> count > 1 ? count - 1 : null);
+            scheduleIfEligible(uid);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void scheduleIfEligible(String uid) {
+        ArrayDeque<String> queue = pending.get(uid);
+        if (queue != null && !queue.isEmpty()
+                && running.getOrDefault(uid, 0) < maxRunningPerUser
+                && inTurn.add(uid)) {
+            turn.addLast(uid);
+            ready.signal();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.exceptions.ImageDecodeException;
+import com.moujib.lookmax_backend.exceptions.UnsupportedImageException;
+import com.moujib.lookmax_backend.models.DecodedImage;
+import com.moujib.lookmax_backend.services.ImagePreprocessingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Décodage des photos à mémoire bornée.
+ * <p>
+ * Seuls les en-têtes sont lus d'abord (dimensions, orientation EXIF) ; le facteur de
+ * sous-échantillonnage est choisi pour que l'image décodée tienne à la fois dans la résolution
+ * d'analyse et dans le budget mémoire par requête, et le décodeur écrit directement dans un
+ * {@code int[]} RGB quand il le supporte. Un sémaphore global (en Ko) et une limite de décodages
+ * simultanés rendent le pic de heap prévisible quel que soit le nombre d'uploads.
+ */
+@Service
+public class ImagePreprocessingServiceImpl implements ImagePreprocessingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImagePreprocessingServiceImpl.class);
+
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    private final int analysisMaxDimension;
+    private final long maxSourcePixels;
+    private final long requestBudgetBytes;
+    private final long acquireTimeoutMs;
+    private final Semaphore decodeSlots;
+    private final Semaphore memoryBudgetKb;
+    private final int memoryBudgetTotalKb;
+
+    public ImagePreprocessingServiceImpl(
+            @Value("${lookmax.images.analysis-max-dimension:1024}") int analysisMaxDimension,
+            @Value("${lookmax.images.max-source-pixels:100000000}") long maxSourcePixels,
+            @Value("${lookmax.images.request-budget-bytes:16777216}") long requestBudgetBytes,
+            @Value("${lookmax.images.global-budget-bytes:134217728}") long globalBudgetBytes,
+            @Value("${lookmax.images.max-concurrent-decodes:0}") int maxConcurrentDecodes,
+            @Value("${lookmax.images.acquire-timeout-ms:10000}") long acquireTimeoutMs) {
+        this.analysisMaxDimension = analysisMaxDimension;
+        this.maxSourcePixels = maxSourcePixels;
+        this.requestBudgetBytes = requestBudgetBytes;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        // 0 = un décodage par cœur
+        int slots = maxConcurrentDecodes > 0 ? maxConcurrentDecodes : Runtime.getRuntime().availableProcessors();
+        this.decodeSlots = new Semaphore(slots, true);
+        this.memoryBudgetTotalKb = (int) Math.max(1, globalBudgetBytes / 1024);
+        this.memoryBudgetKb = new Semaphore(memoryBudgetTotalKb, true);
+    }
+
+    @Override
+    public DecodedImage decode(Path source) throws IOException {
+        return decode(source, null, analysisMaxDimension);
+    }
+
+    @Override
+    public DecodedImage decode(Path source, Rectangle region, int maxDimension) throws IOException {
+        int orientation = readExifOrientation(source);
+
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                throw new IOException("Cannot open " + source);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new UnsupportedImageException("No decoder available for this image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                // Métadonnées ignorées : seul l'en-tête est lu pour les dimensions
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > maxSourcePixels) {
+                    throw new ImageDecodeException("Image has too many pixels: " + sourceWidth + "x" + sourceHeight);
+                }
+
+                Rectangle area = region == null
+                        ? new Rectangle(0, 0, sourceWidth, sourceHeight)
+                        : region.intersection(new Rectangle(0, 0, sourceWidth, sourceHeight));
+                if (area.isEmpty()) {
+                    throw new ImageDecodeException("Requested region is outside the image");
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                boolean directIntRgb = selectIntRgbDestination(reader, param);
+                int bytesPerPixel = directIntRgb ? 4 : 4 + 4;
+                int subsampling = chooseSubsampling(area, maxDimension, bytesPerPixel, orientation != 1);
+                long estimate = estimateBytes(area, subsampling, bytesPerPixel, orientation != 1);
+
+                param.setSourceRegion(area);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+                int kb = (int) Math.min(memoryBudgetTotalKb, Math.max(1, (estimate + 1023) / 1024));
+                acquire(kb);
+                try {
+                    BufferedImage image = reader.read(0, param);
+                    int[] pixels = toPixels(image, directIntRgb);
+                    int width = image.getWidth();
+                    int height = image.getHeight();
+
+                    DecodedImage decoded = applyOrientation(pixels, width, height, orientation);
+                    logger.debug("🖼️ Decoded {}x{} -> {}x{} (subsampling {}, orientation {}, ~{} KB)",
+                            sourceWidth, sourceHeight, decoded.width(), decoded.height(), subsampling, orientation, kb);
+                    return new DecodedImage(decoded.width(), decoded.height(), decoded.pixels(),
+                            sourceWidth, sourceHeight, subsampling);
+                } finally {
+                    release(kb);
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private int chooseSubsampling(Rectangle area, int maxDimension, int bytesPerPixel, boolean rotated) {
+        int longest = Math.max(area.width, area.height);
+        int subsampling = Math.max(1, (longest + maxDimension - 1) / maxDimension);
+        while (estimateBytes(area, subsampling, bytesPerPixel, rotated) > requestBudgetBytes) {
+            subsampling++;
+        }
+        return subsampling;
+    }
+
+    private static long estimateBytes(Rectangle area, int subsampling, int bytesPerPixel, boolean rotated) {
+        long width = (area.width + subsampling - 1) / subsampling;
+        long height = (area.height + subsampling - 1) / subsampling;
+        // La réorientation alloue un second tableau de même taille
+        return width * height * (bytesPerPixel + (rotated ? 4 : 0));
+    }
+
+    /**
+     * Demande au décodeur d'écrire directement en {@code TYPE_INT_RGB} s'il le propose, ce qui
+     * évite la copie BGR → int.
+     */
+    private static boolean selectIntRgbDestination(ImageReader reader, ImageReadParam param) throws IOException {
+        Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+        while (types.hasNext()) {
+            ImageTypeSpecifier type = types.next();
+            if (type.getBufferedImageType() == BufferedImage.TYPE_INT_RGB) {
+                param.setDestinationType(type);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] toPixels(BufferedImage image, boolean directIntRgb) {
+        if (directIntRgb && image.getType() == BufferedImage.TYPE_INT_RGB
+                && image.getRaster().getDataBuffer() instanceof DataBufferInt buffer
+                && buffer.getNumBanks() == 1 && buffer.getOffset() == 0) {
+            return buffer.getData();
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] &= 0xFFFFFF;
+        }
+        return pixels;
+    }
+
+    static DecodedImage applyOrientation(int[] src, int width, int height, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return new DecodedImage(width, height, src, width, height, 1);
+        }
+        boolean swap = orientation >= 5;
+        int dw = swap ? height : width;
+        int dh = swap ? width : height;
+        int[] dst = new int[src.length];
+
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                int dx;
+                int dy;
+                switch (orientation) {
+                    case 2 -> { dx = width - 1 - x; dy = y; }
+                    case 3 -> { dx = width - 1 - x; dy = height - 1 - y; }
+                    case 4 -> { dx = x; dy = height - 1 - y; }
+                    case 5 -> { dx = y; dy = x; }
+                    case 6 -> { dx = height - 1 - y; dy = x; }
+                    case 7 -> { dx = height - 1 - y; dy = width - 1 - x; }
+                    default -> { dx = y; dy = width - 1 - x; }
+                }
+                dst[dy * dw + dx] = src[row + x];
+            }
+        }
+        return new DecodedImage(dw, dh, dst, width, height, 1);
+    }
+
+    /**
+     * Lit le tag Orientation de l'EXIF d'un JPEG en parcourant les segments jusqu'au premier
+     * APP1 « Exif » ; 1 (aucune transformation) pour les autres formats ou en cas de doute.
+     */
+    static int readExifOrientation(Path source) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source), 8192))) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    return 1;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return 1;
+                }
+                if (marker != 0xFFE1) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                byte[] segment = new byte[length];
+                in.readFully(segment);
+                if (length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+                    continue;
+                }
+                return parseTiffOrientation(segment, 6);
+            }
+        } catch (EOFException e) {
+            return 1;
+        } catch (IOException e) {
+            logger.debug("EXIF orientation unreadable for {}: {}", source, e.getMessage());
+            return 1;
+        }
+    }
+
+    private static int parseTiffOrientation(byte[] data, int tiffStart) {
+        boolean littleEndian = data[tiffStart] == 'I';
+        int ifdOffset = readInt(data, tiffStart + 4, littleEndian);
+        int ifd = tiffStart + ifdOffset;
+        if (ifdOffset < 8 || ifd + 2 > data.length) {
+            return 1;
+        }
+        int entries = readShort(data, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > data.length) {
+                return 1;
+            }
+            if (readShort(data, entry, littleEndian) == EXIF_ORIENTATION_TAG) {
+                int value = readShort(data, entry + 8, littleEndian);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean littleEndian) {
+        if (offset + 4 > data.length) {
+            return -1;
+        }
+        int hi = readShort(data, offset, littleEndian);
+        int lo = readShort(data, offset + 2, littleEndian);
+        return littleEndian ? (lo << 16) | hi : (hi << 16) | lo;
+    }
+
+    private void acquire(int kb) {
+        boolean slot = false;
+        try {
+            slot = decodeSlots.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+            if (!slot || !memoryBudgetKb.tryAcquire(kb, acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                if (slot) {
+                    decodeSlots.release();
+                }
+                throw new ImageDecodeException("Image decoder is saturated, try again later");
+            }
+        } catch (InterruptedException e) {
+            if (slot) {
+                decodeSlots.release();
+            }
+            Thread.currentThread().interrupt();
+            throw new ImageDecodeException("Interrupted while waiting for a decode slot", e);
+        }
+    }
+
+    private void release(int kb) {
+        memoryBudgetKb.release(kb);
+        decodeSlots.release();
+    }
+}
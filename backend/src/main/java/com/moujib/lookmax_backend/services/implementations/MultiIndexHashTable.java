@@ -0,0 +1,381 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.SimilarPhoto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Index de similarité sur des empreintes 64 bits (multi-index hashing, Norouzi et al.).
+ * <p>
+ * L'empreinte est découpée en 4 blocs de 16 bits. Si deux empreintes sont à distance ≤ r, au
+ * moins un de leurs blocs est à distance ≤ r/4 (principe des tiroirs) : une requête n'examine
+ * que les seaux voisins de chacun de ses 4 blocs au lieu de toute la collection.
+ * <p>
+ * Tout est stocké en tableaux primitifs : empreintes ({@code long[]}), sha256 sur 4 mots
+ * ({@code long[]}) et, par bloc, une table CSR (offsets par seau, ids et copie des empreintes
+ * triés par valeur du bloc, pour un parcours séquentiel de chaque seau).
+ * Le segment principal est immuable ; les ajouts vont dans un tampon parcouru linéairement.
+ * Au-delà de {@code mergeThreshold}, le tampon est gelé et fusionné dans un nouveau segment par
+ * {@code merger}, hors verrou et hors du thread appelant ; les ajouts continuent dans un tampon
+ * neuf jusqu'à la publication du segment fusionné. Les lectures se font sans verrou sur un
+ * instantané publié via un champ volatile.
+ * <p>
+ * Un rechargement complet s'ouvre par {@link #beginReload()} : à partir de là, chaque ajout est
+ * aussi journalisé, puis rejoué sur le segment chargé par {@link #replaceAll}, qu'il ait été
+ * fusionné entre-temps ou non.
+ */
+final class MultiIndexHashTable {
+
+    static final int MAX_RADIUS = 15;
+
+    private static final int CHUNKS = 4;
+    private static final int CHUNK_BITS = 16;
+    private static final int BUCKETS = 1 << CHUNK_BITS;
+    private static final int KEY_WORDS = 4;
+    private static final HexFormat HEX = HexFormat.of();
+
+    // MASKS[s] : tous les masques 16 bits de poids ≤ s (1, 17, 137, 697 masques)
+    private static final int[][] MASKS = new int[MAX_RADIUS / CHUNKS + 1][];
+
+    static {
+        for (int s = 0; s < MASKS.length; s++) {
+            int[] masks = new int[BUCKETS];
+            int count = 0;
+            for (int mask = 0; mask < BUCKETS; mask++) {
+                if (Integer.bitCount(mask) <= s) {
+                    masks[count++] = mask;
+                }
+            }
+            MASKS[s] = Arrays.copyOf(masks, count);
+        }
+    }
+
+    // bucketHashes[c] : empreintes rangées dans l'ordre de ids[c], lues séquentiellement par seau
+    private record Segment(int size, long[] hashes, long[] keys, int[][] offsets, int[][] ids, long[][] bucketHashes) {
+    }
+
+    // Les entrées [0, count) ne sont plus jamais modifiées une fois publiées
+    private record Delta(int count, long[] hashes, long[] keys) {
+    }
+
+    // frozen : tampon en cours de fusion dans segment, encore parcouru linéairement
+    private record State(Segment segment, Delta frozen, Delta delta) {
+    }
+
+    private static final Comparator<SimilarPhoto> ORDER =
+            Comparator.comparingInt(SimilarPhoto::distance).thenComparing(SimilarPhoto::sha256);
+
+    private final int mergeThreshold;
+    private final Executor merger;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile State state;
+    // Ajouts depuis beginReload(), protégé par lock ; null hors rechargement
+    private Delta reloadJournal;
+    // Une seule fusion à la fois, protégé par lock
+    private boolean merging;
+
+    MultiIndexHashTable(int mergeThreshold) {
+        this(mergeThreshold, task -> Thread.ofVirtual().name("similarity-index-merge").start(task));
+    }
+
+    MultiIndexHashTable(int mergeThreshold, Executor merger) {
+        this.mergeThreshold = Math.max(1, mergeThreshold);
+        this.merger = merger;
+        this.state = new State(build(new long[0], new long[0], 0), emptyDelta(), emptyDelta());
+    }
+
+    int size() {
+        State current = state;
+        return current.segment().size() + current.frozen().count() + current.delta().count();
+    }
+
+    void add(String sha256, long hash) {
+        lock.lock();
+        try {
+            State current = state;
+            state = new State(current.segment(), current.frozen(), append(current.delta(), sha256, hash));
+            if (reloadJournal != null) {
+                reloadJournal = append(reloadJournal, sha256, hash);
+            }
+            scheduleMerge();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * À appeler avant de lire la source du rechargement : les ajouts qui suivent seront rejoués
+     * par {@link #replaceAll}, même s'ils manquent à la lecture.
+     */
+    void beginReload() {
+        lock.lock();
+        try {
+            if (reloadJournal == null) {
+                reloadJournal = emptyDelta();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Abandonne un rechargement échoué : l'index courant reste en place.
+     */
+    void cancelReload() {
+        lock.lock();
+        try {
+            reloadJournal = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remplace tout l'index par les entrées chargées, plus les ajouts journalisés depuis
+     * {@link #beginReload()} ; les ajouts antérieurs sont supposés présents dans la source.
+     */
+    void replaceAll(long[] hashes, long[] keys, int count) {
+        Segment loaded = build(hashes, keys, count);
+        lock.lock();
+        try {
+            Delta journal = reloadJournal;
+            reloadJournal = null;
+            // Le journal rejoint le segment chargé par une fusion en arrière-plan
+            state = new State(loaded, journal != null ? journal : emptyDelta(), emptyDelta());
+            scheduleMerge();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sous {@code lock}. Gèle le tampon s'il a atteint le seuil et lance sa fusion, sauf si une
+     * fusion est déjà en cours : le tampon continue alors de grandir jusqu'à sa publication.
+     */
+    private void scheduleMerge() {
+        State current = state;
+        if (merging || current.frozen().count() == 0 && current.delta().count() < mergeThreshold) {
+            return;
+        }
+        if (current.frozen().count() == 0) {
+            current = new State(current.segment(), current.delta(), emptyDelta());
+            state = current;
+        }
+        merging = true;
+        State base = current;
+        merger.execute(() -> completeMerge(base));
+    }
+
+    private void completeMerge(State base) {
+        Segment merged = null;
+        try {
+            merged = merge(base.segment(), base.frozen());
+        } finally {
+            lock.lock();
+            try {
+                merging = false;
+                // En cas d'échec, le tampon gelé reste parcouru et l'ajout suivant relance la fusion
+                if (merged != null) {
+                    State current = state;
+                    // Rechargé entre-temps : la fusion porte sur un segment remplacé, elle est abandonnée
+                    if (current.segment() == base.segment() && current.frozen() == base.frozen()) {
+                        state = new State(merged, emptyDelta(), current.delta());
+                    }
+                    scheduleMerge();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Entrées à distance de Hamming ≤ {@code radius}, triées par distance croissante.
+     */
+    List<SimilarPhoto> search(long query, int radius, int limit) {
+        return search(query, radius, limit, sha256 -> true);
+    }
+
+    /**
+     * Comme {@link #search(long, int, int)}, restreint aux sha256 acceptés par {@code filter}.
+     * Seules les {@code limit} meilleures entrées retenues sont gardées pendant le parcours.
+     */
+    List<SimilarPhoto> search(long query, int radius, int limit, Predicate<String> filter) {
+        if (radius < 0 || radius > MAX_RADIUS) {
+            throw new IllegalArgumentException("radius must be between 0 and " + MAX_RADIUS);
+        }
+        if (limit <= 0) {
+            return List.of();
+        }
+        State current = state;
+        Segment segment = current.segment();
+        int perChunk = radius / CHUNKS;
+        int[] masks = MASKS[perChunk];
+        TopMatches top = new TopMatches(limit);
+
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            int value = chunk(query, chunk);
+            int[] offsets = segment.offsets()[chunk];
+            int[] ids = segment.ids()[chunk];
+            long[] bucketHashes = segment.bucketHashes()[chunk];
+            for (int mask : masks) {
+                int bucket = value ^ mask;
+                for (int i = offsets[bucket], end = offsets[bucket + 1]; i < end; i++) {
+                    long diff = bucketHashes[i] ^ query;
+                    // Déjà trouvé (ou à trouver) via un bloc précédent : pas de doublon
+                    if (foundInEarlierChunk(diff, chunk, perChunk)) {
+                        continue;
+                    }
+                    int distance = Long.bitCount(diff);
+                    if (distance <= radius && top.admits(distance)) {
+                        top.offer(decode(segment.keys(), ids[i]), distance, filter);
+                    }
+                }
+            }
+        }
+
+        scan(current.frozen(), query, radius, filter, top);
+        scan(current.delta(), query, radius, filter, top);
+        return top.sorted();
+    }
+
+    private static void scan(Delta delta, long query, int radius, Predicate<String> filter, TopMatches top) {
+        for (int id = 0; id < delta.count(); id++) {
+            int distance = Long.bitCount(delta.hashes()[id] ^ query);
+            if (distance <= radius && top.admits(distance)) {
+                top.offer(decode(delta.keys(), id), distance, filter);
+            }
+        }
+    }
+
+    /**
+     * Les {@code limit} meilleures entrées vues, la pire en tête de tas.
+     */
+    private static final class TopMatches {
+
+        private final int limit;
+        private final PriorityQueue<SimilarPhoto> worstFirst;
+        private final Set<String> kept = new HashSet<>();
+
+        TopMatches(int limit) {
+            this.limit = limit;
+            this.worstFirst = new PriorityQueue<>(Math.min(limit, 1024) + 1, ORDER.reversed());
+        }
+
+        boolean admits(int distance) {
+            return worstFirst.size() < limit || distance <= worstFirst.peek().distance();
+        }
+
+        void offer(String sha256, int distance, Predicate<String> filter) {
+            // Une même photo peut figurer deux fois si elle a été rejouée après un rechargement
+            if (kept.contains(sha256) || !filter.test(sha256)) {
+                return;
+            }
+            worstFirst.add(new SimilarPhoto(sha256, distance));
+            kept.add(sha256);
+            if (worstFirst.size() > limit) {
+                kept.remove(worstFirst.poll().sha256());
+            }
+        }
+
+        List<SimilarPhoto> sorted() {
+            List<SimilarPhoto> result = new ArrayList<>(worstFirst);
+            result.sort(ORDER);
+            return result;
+        }
+    }
+
+    private static boolean foundInEarlierChunk(long diff, int chunk, int perChunk) {
+        for (int earlier = 0; earlier < chunk; earlier++) {
+            if (Integer.bitCount(chunk(diff, earlier)) <= perChunk) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Segment merge(Segment segment, Delta delta) {
+        int count = segment.size() + delta.count();
+        long[] hashes = Arrays.copyOf(segment.hashes(), count);
+        long[] keys = Arrays.copyOf(segment.keys(), count * KEY_WORDS);
+        System.arraycopy(delta.hashes(), 0, hashes, segment.size(), delta.count());
+        System.arraycopy(delta.keys(), 0, keys, segment.size() * KEY_WORDS, delta.count() * KEY_WORDS);
+        return build(hashes, keys, count);
+    }
+
+    /**
+     * Tri par dénombrement de chaque bloc : O(n + 65536) par table.
+     */
+    private static Segment build(long[] hashes, long[] keys, int count) {
+        int[][] offsets = new int[CHUNKS][];
+        int[][] ids = new int[CHUNKS][];
+        long[][] bucketHashes = new long[CHUNKS][];
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            int[] bucketStart = new int[BUCKETS + 1];
+            for (int id = 0; id < count; id++) {
+                bucketStart[chunk(hashes[id], chunk) + 1]++;
+            }
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                bucketStart[bucket + 1] += bucketStart[bucket];
+            }
+            int[] cursor = Arrays.copyOf(bucketStart, BUCKETS);
+            int[] sorted = new int[count];
+            long[] sortedHashes = new long[count];
+            for (int id = 0; id < count; id++) {
+                int position = cursor[chunk(hashes[id], chunk)]++;
+                sorted[position] = id;
+                sortedHashes[position] = hashes[id];
+            }
+            offsets[chunk] = bucketStart;
+            ids[chunk] = sorted;
+            bucketHashes[chunk] = sortedHashes;
+        }
+        return new Segment(count, hashes, keys, offsets, ids, bucketHashes);
+    }
+
+    // Les entrées déjà publiées ne sont jamais réécrites : copie quand le tableau est plein
+    private static Delta append(Delta delta, String sha256, long hash) {
+        int count = delta.count();
+        long[] hashes = delta.hashes();
+        long[] keys = delta.keys();
+        if (count == hashes.length) {
+            hashes = Arrays.copyOf(hashes, Math.max(16, count * 2));
+            keys = Arrays.copyOf(keys, hashes.length * KEY_WORDS);
+        }
+        hashes[count] = hash;
+        encode(sha256, keys, count);
+        return new Delta(count + 1, hashes, keys);
+    }
+
+    private static Delta emptyDelta() {
+        return new Delta(0, new long[16], new long[16 * KEY_WORDS]);
+    }
+
+    private static int chunk(long value, int chunk) {
+        return (int) (value >>> (chunk * CHUNK_BITS)) & (BUCKETS - 1);
+    }
+
+    static void encode(String sha256, long[] keys, int id) {
+        for (int word = 0; word < KEY_WORDS; word++) {
+            keys[id * KEY_WORDS + word] = Long.parseUnsignedLong(sha256, word * 16, word * 16 + 16, 16);
+        }
+    }
+
+    private static String decode(long[] keys, int id) {
+        StringBuilder sha256 = new StringBuilder(64);
+        for (int word = 0; word < KEY_WORDS; word++) {
+            sha256.append(HEX.toHexDigits(keys[id * KEY_WORDS + word]));
+        }
+        return sha256.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.DecodedImage;
+
+/**
+ * dHash 64 bits : luminance moyennée sur une grille 9x8, puis un bit par paire de cellules
+ * voisines horizontalement (gauche plus claire que droite).
+ * <p>
+ * Insensible au redimensionnement, à la recompression et aux variations globales de luminosité ;
+ * un recadrage léger ne déplace que quelques bits.
+ */
+final class PerceptualHash {
+
+    private static final int COLUMNS = 9;
+    private static final int ROWS = 8;
+
+    private PerceptualHash() {
+    }
+
+    static long dHash(DecodedImage image) {
+        int width = image.width();
+        int height = image.height();
+        int[] pixels = image.pixels();
+
+        // Moyenne par zone : chaque pixel source contribue à une seule cellule
+        long[] sums = new long[COLUMNS * ROWS];
+        int[] counts = new int[COLUMNS * ROWS];
+        for (int y = 0; y < height; y++) {
+            int row = y * ROWS / height;
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int rgb = pixels[offset + x];
+                // Luma Rec. 601 en entier (x1000)
+                int luma = 299 * ((rgb >> 16) & 0xFF) + 587 * ((rgb >> 8) & 0xFF) + 114 * (rgb & 0xFF);
+                int cell = row * COLUMNS + x * COLUMNS / width;
+                sums[cell] += luma;
+                counts[cell]++;
+            }
+        }
+
+        long hash = 0;
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS - 1; column++) {
+                int left = row * COLUMNS + column;
+                // Comparaison des moyennes sans division : a/ca > b/cb  <=>  a*cb > b*ca
+                boolean brighter = sums[left] * Math.max(1, counts[left + 1]) > sums[left + 1] * Math.max(1, counts[left]);
+                hash = (hash << 1) | (brighter ? 1L : 0L);
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,65 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.AnalysisResult;
+import com.moujib.lookmax_backend.models.DecodedImage;
+import com.moujib.lookmax_backend.services.AnalysisResultCache;
+import com.moujib.lookmax_backend.services.FacialAnalysisService;
+import com.moujib.lookmax_backend.services.ImagePreprocessingService;
+import com.moujib.lookmax_backend.services.PhotoAnalysisService;
+import com.moujib.lookmax_backend.services.PhotoSimilarityService;
+import com.moujib.lookmax_backend.services.PhotoStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+@Service
+public class PhotoAnalysisServiceImpl implements PhotoAnalysisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoAnalysisServiceImpl.class);
+
+    private final PhotoStorageService photoStorageService;
+    private final ImagePreprocessingService imagePreprocessingService;
+    private final FacialAnalysisService facialAnalysisService;
+    private final AnalysisResultCache analysisResultCache;
+    private final PhotoSimilarityService photoSimilarityService;
+
+    public PhotoAnalysisServiceImpl(PhotoStorageService photoStorageService,
+                                    ImagePreprocessingService imagePreprocessingService,
+                                    FacialAnalysisService facialAnalysisService,
+                                    AnalysisResultCache analysisResultCache,
+                                    PhotoSimilarityService photoSimilarityService) {
+        this.photoStorageService = photoStorageService;
+        this.imagePreprocessingService = imagePreprocessingService;
+        this.facialAnalysisService = facialAnalysisService;
+        this.analysisResultCache = analysisResultCache;
+        this.photoSimilarityService = photoSimilarityService;
+    }
+
+    @Override
+    public Optional<AnalysisResult> analyze(String sha256) {
+        // Un hit de cache ne touche ni au disque ni au décodeur
+        return Optional.ofNullable(analysisResultCache.getOrCompute(sha256, facialAnalysisService.analysisVersion(),
+                () -> photoStorageService.find(sha256).map(photo -> decodeAndAnalyze(sha256, photo)).orElse(null)));
+    }
+
+    private AnalysisResult decodeAndAnalyze(String sha256, Path photo) {
+        try {
+            DecodedImage image = imagePreprocessingService.decode(photo);
+            // Même tampon de pixels : le dHash ne coûte pas de second décodage
+            try {
+                photoSimilarityService.record(sha256, image);
+            } catch (DataAccessException e) {
+                logger.warn("⚠️ Perceptual hash for {} not persisted: {}", sha256, e.getMessage());
+            }
+            return facialAnalysisService.analyze(image);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.DecodedImage;
+import com.moujib.lookmax_backend.models.PhotoVariant;
+import com.moujib.lookmax_backend.models.StoredFile;
+import com.moujib.lookmax_backend.services.ImagePreprocessingService;
+import com.moujib.lookmax_backend.services.PhotoDerivativeService;
+import com.moujib.lookmax_backend.services.PhotoStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Dérivés JPEG de taille fixe, générés à la première demande puis servis depuis le disque.
+ * <p>
+ * Layout : {@code <derivatives-dir>/<variant>/<aa>/<sha256>.jpg}. Un index LRU en mémoire,
+ * reconstruit au démarrage à partir des dates de modification, borne l'espace occupé :
+ * au-delà de {@code max-bytes}, les dérivés les moins récemment servis sont supprimés (ils
+ * seront régénérés si on les redemande). Les originaux ne passent jamais par ce cache.
+ */
+@Service
+public class PhotoDerivativeServiceImpl implements PhotoDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoDerivativeServiceImpl.class);
+
+    // À incrémenter si l'encodage change : invalide les ETags déjà distribués
+    private static final int DERIVATIVE_VERSION = 1;
+    private static final String JPEG = "image/jpeg";
+
+    private final PhotoStorageService photoStorageService;
+    private final ImagePreprocessingService imagePreprocessingService;
+    private final Path derivativesRoot;
+    private final long maxBytes;
+    private final float jpegQuality;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Ordre d'accès : le premier élément est le moins récemment servi
+    private final LinkedHashMap<Path, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    // Une seule génération par dérivé, même sous une rafale de requêtes identiques
+    private final Map<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    public PhotoDerivativeServiceImpl(PhotoStorageService photoStorageService,
+                                      ImagePreprocessingService imagePreprocessingService,
+                                      @Value("${lookmax.photos.derivatives.dir:${lookmax.photos.storage-dir:${java.io.tmpdir}/lookmax/photos}/derivatives}") String derivativesDir,
+                                      @Value("${lookmax.photos.derivatives.max-bytes:536870912}") long maxBytes,
+                                      @Value("${lookmax.photos.derivatives.jpeg-quality:0.85}") float jpegQuality) throws IOException {
+        this.photoStorageService = photoStorageService;
+        this.imagePreprocessingService = imagePreprocessingService;
+        this.derivativesRoot = Files.createDirectories(Path.of(derivativesDir).toAbsolutePath());
+        this.maxBytes = maxBytes;
+        this.jpegQuality = jpegQuality;
+        rebuildIndex();
+    }
+
+    @Override
+    public Optional<StoredFile> resolve(String sha256, PhotoVariant variant) throws IOException {
+        Optional<Path> source = photoStorageService.find(sha256);
+        if (source.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (variant == PhotoVariant.ORIGINAL) {
+            Path original = source.get();
+            return Optional.of(new StoredFile(original, contentTypeOf(original), Files.size(original),
+                    "\"" + sha256 + "\""));
+        }
+
+        Path target = derivativesRoot.resolve(variant.key()).resolve(sha256.substring(0, 2)).resolve(sha256 + ".jpg");
+        Long cachedSize = touch(target);
+        if (cachedSize == null || !Files.exists(target)) {
+            cachedSize = Files.size(generateOnce(source.get(), target, variant));
+        }
+        return Optional.of(new StoredFile(target, JPEG, cachedSize,
+                "\"" + sha256 + "-" + variant.key() + "-v" + DERIVATIVE_VERSION + "\""));
+    }
+
+    private Path generateOnce(Path source, Path target, PhotoVariant variant) throws IOException {
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(target, created);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            // Généré par un appel qui vient de se terminer, entre notre lecture de l'index et ici
+            if (touch(target) == null || !Files.exists(target)) {
+                generate(source, target, variant);
+            }
+            created.complete(target);
+            return target;
+        } catch (IOException | RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(target, created);
+        }
+    }
+
+    private void generate(Path source, Path target, PhotoVariant variant) throws IOException {
+        long start = System.nanoTime();
+        DecodedImage decoded = imagePreprocessingService.decode(source, null, variant.maxDimension());
+
+        BufferedImage image = new BufferedImage(decoded.width(), decoded.height(), BufferedImage.TYPE_INT_RGB);
+        image.getRaster().setDataElements(0, 0, decoded.width(), decoded.height(), decoded.pixels());
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".derivative-", ".tmp");
+        try {
+            writeJpeg(image, temp);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        long size = Files.size(target);
+        record(target, size);
+        logger.info("🖼️ Derivative {} generated ({}x{}, {} bytes) in {} ms", target.getFileName(), decoded.width(),
+                decoded.height(), size, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Marque le dérivé comme récemment servi.
+     *
+     * @return sa taille, ou {@code null} s'il n'est pas dans l'index
+     */
+    private Long touch(Path target) {
+        lock.lock();
+        try {
+            return index.get(target);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(Path target, long size) {
+        List<Path> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            Long previous = index.put(target, size);
+            totalBytes += size - (previous != null ? previous : 0L);
+            Iterator<Map.Entry<Path, Long>> it = index.entrySet().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                Map.Entry<Path, Long> eldest = it.next();
+                if (eldest.getKey().equals(target)) {
+                    continue;
+                }
+                totalBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                it.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Suppression hors verrou ; un fichier en cours d'envoi reste lisible jusqu'à sa fermeture
+        for (Path path : evicted) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("⚠️ Could not delete derivative {}: {}", path, e.getMessage());
+            }
+        }
+        if (!evicted.isEmpty()) {
+            logger.debug("🧹 {} derivatives evicted from the cache", evicted.size());
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+        record Found(Path path, long size, long lastModified) {
+        }
+
+        List<Found> found = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(derivativesRoot)) {
+            files.filter(path -> path.getFileName().toString().endsWith(".jpg")).forEach(path -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (attributes.isRegularFile()) {
+                        found.add(new Found(path, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                    }
+                } catch (NoSuchFileException ignored) {
+                    // Supprimé entre-temps
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        // Les plus anciens d'abord : ce sont eux que l'éviction retirera en premier
+        found.sort(Comparator.comparingLong(Found::lastModified));
+        for (Found file : found) {
+            record(file.path(), file.size());
+        }
+        logger.info("🗂️ Derivative cache: {} files, {} bytes", found.size(), totalBytes);
+    }
+
+    private static String contentTypeOf(Path original) throws IOException {
+        byte[] header = new byte[12];
+        int length;
+        try (InputStream in = Files.newInputStream(original)) {
+            length = in.readNBytes(header, 0, header.length);
+        }
+        String type = PhotoStorageServiceImpl.detectImageType(header, length);
+        return type != null ? type : "application/octet-stream";
+    }
+
+    private static Path await(CompletableFuture<Path> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for derivative generation", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
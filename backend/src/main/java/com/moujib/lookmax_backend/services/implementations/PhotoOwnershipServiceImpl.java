@@ -0,0 +1,152 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.services.PhotoOwnershipService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appartenance des photos en JDBC direct, lue par l'index {@code idx_photo_owner_uid_sha256}.
+ * <p>
+ * {@link #ownedBy} est servi depuis une LRU par uid (recherche de similarité à chaque requête) :
+ * les photos revendiquées sur cette instance y sont ajoutées aussitôt, celles d'une autre
+ * instance apparaissent au plus tard après {@code lookmax.photos.ownership.cache.ttl-seconds}.
+ * Une appartenance n'est jamais retirée : {@link #owns} peut répondre oui depuis le cache.
+ */
+@Service
+public class PhotoOwnershipServiceImpl implements PhotoOwnershipService {
+
+    private static final String INSERT = "insert into photo_owner (uid, sha256, created_at) values (?, ?, ?) "
+            + "on conflict (uid, sha256) do nothing";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMillis;
+    private final int maxUsers;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, OwnedPhotos> owned = new LinkedHashMap<>(256, 0.75f, true);
+
+    public PhotoOwnershipServiceImpl(JdbcTemplate jdbcTemplate,
+                                     @Value("${lookmax.photos.ownership.cache.ttl-seconds:300}") long ttlSeconds,
+                                     @Value("${lookmax.photos.ownership.cache.max-users:10000}") int maxUsers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.maxUsers = Math.max(1, maxUsers);
+    }
+
+    @Override
+    public boolean claim(String uid, String sha256) {
+        if (jdbcTemplate.update(INSERT, uid, sha256, Timestamp.from(Instant.now())) == 0) {
+            return false;
+        }
+
+        lock.lock();
+        try {
+            OwnedPhotos cached = owned.get(uid);
+            if (cached != null) {
+                cached.add(sha256);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean owns(String uid, String sha256) {
+        lock.lock();
+        try {
+            OwnedPhotos cached = owned.get(uid);
+            if (cached != null && cached.shas != null && cached.shas.contains(sha256)) {
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return !jdbcTemplate.queryForList("select 1 from photo_owner where uid = ? and sha256 = ?",
+                Integer.class, uid, sha256).isEmpty();
+    }
+
+    /**
+     * @return ensemble immuable, partagé entre les appelants
+     */
+    @Override
+    public Set<String> ownedBy(String uid) {
+        long now = System.currentTimeMillis();
+        OwnedPhotos entry;
+        lock.lock();
+        try {
+            entry = owned.get(uid);
+            if (entry != null && entry.shas != null && entry.expiresAtMillis > now) {
+                return entry.shas;
+            }
+            // Posée avant la requête : un claim concurrent y est noté au lieu d'être perdu
+            entry = new OwnedPhotos();
+            owned.put(uid, entry);
+            if (owned.size() > maxUsers) {
+                Map.Entry<String, OwnedPhotos> eldest = owned.entrySet().iterator().next();
+                owned.remove(eldest.getKey());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Set<String> loaded;
+        try {
+            loaded = new HashSet<>(jdbcTemplate.queryForList("select sha256 from photo_owner where uid = ?",
+                    String.class, uid));
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                owned.remove(uid, entry);
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+
+        lock.lock();
+        try {
+            loaded.addAll(entry.claimedWhileLoading);
+            Set<String> result = Set.copyOf(loaded);
+            // Remplacée entre-temps (chargement plus récent, éviction) : le résultat reste valable
+            if (owned.get(uid) == entry) {
+                entry.shas = result;
+                entry.expiresAtMillis = now + ttlMillis;
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Protégé par {@code lock} ; {@code shas} est {@code null} tant que le chargement est en cours.
+     */
+    private static final class OwnedPhotos {
+
+        Set<String> shas;
+        long expiresAtMillis;
+        final Set<String> claimedWhileLoading = new HashSet<>();
+
+        void add(String sha256) {
+            if (shas == null) {
+                claimedWhileLoading.add(sha256);
+            } else if (!shas.contains(sha256)) {
+                Set<String> grown = new HashSet<>(shas);
+                grown.add(sha256);
+                // Copie : l'ensemble précédent a pu être rendu à un appelant
+                shas = Set.copyOf(grown);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.DecodedImage;
+import com.moujib.lookmax_backend.models.SimilarPhoto;
+import com.moujib.lookmax_backend.services.ImagePreprocessingService;
+import com.moujib.lookmax_backend.services.PhotoOwnershipService;
+import com.moujib.lookmax_backend.services.PhotoSimilarityService;
+import com.moujib.lookmax_backend.services.PhotoStorageService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Recherche de photos similaires (recadrées, recompressées, redimensionnées) par dHash.
+ * <p>
+ * Le dHash est calculé sur le tampon de pixels déjà décodé pour l'analyse, persisté dans
+ * {@code photo_hash} puis ajouté à un {@link MultiIndexHashTable} en mémoire. Au démarrage,
+ * l'index est rechargé depuis Postgres en tâche de fond (curseur serveur, tableaux primitifs) ;
+ * les requêtes servies pendant le chargement ne voient qu'une partie des photos.
+ * <p>
+ * Les résultats d'un utilisateur sont restreints aux photos qu'il a envoyées
+ * ({@link PhotoOwnershipService}, ensemble mis en cache par uid), filtre appliqué pendant le
+ * parcours de l'index.
+ */
+@Service
+public class PhotoSimilarityServiceImpl implements PhotoSimilarityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoSimilarityServiceImpl.class);
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private static final String INSERT = "insert into photo_hash (sha256, perceptual_hash, created_at) values (?, ?, ?) "
+            + "on conflict (sha256) do nothing";
+
+    private final PhotoStorageService photoStorageService;
+    private final ImagePreprocessingService imagePreprocessingService;
+    private final PhotoOwnershipService photoOwnershipService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int loadFetchSize;
+    private final MultiIndexHashTable index;
+
+    public PhotoSimilarityServiceImpl(PhotoStorageService photoStorageService,
+                                      ImagePreprocessingService imagePreprocessingService,
+                                      PhotoOwnershipService photoOwnershipService,
+                                      JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${lookmax.similarity.load-fetch-size:10000}") int loadFetchSize,
+                                      @Value("${lookmax.similarity.merge-threshold:4096}") int mergeThreshold) {
+        this.photoStorageService = photoStorageService;
+        this.imagePreprocessingService = imagePreprocessingService;
+        this.photoOwnershipService = photoOwnershipService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.loadFetchSize = loadFetchSize;
+        this.index = new MultiIndexHashTable(mergeThreshold);
+        Gauge.builder("lookmax.similarity.index.size", index, MultiIndexHashTable::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        Thread.ofVirtual().name("similarity-index-load").start(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                index.cancelReload();
+                logger.warn("⚠️ Similarity index not loaded: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public long record(String sha256, DecodedImage image) {
+        long hash = PerceptualHash.dHash(image);
+        int inserted = jdbcTemplate.update(INSERT, sha256, hash, Timestamp.from(Instant.now()));
+        // Déjà connue (autre instance, ou analyse relancée) : déjà dans l'index
+        if (inserted == 1) {
+            index.add(sha256, hash);
+        }
+        return hash;
+    }
+
+    @Override
+    public Optional<List<SimilarPhoto>> findSimilarForUser(String uid, String sha256, int maxDistance, int limit) {
+        Optional<Long> hash = hashOf(sha256);
+        if (hash.isEmpty()) {
+            return Optional.empty();
+        }
+        // Ensemble en cache, partagé : jamais modifié ici
+        Set<String> owned = photoOwnershipService.ownedBy(uid);
+        if (owned.isEmpty() || owned.size() == 1 && owned.contains(sha256)) {
+            return Optional.of(List.of());
+        }
+        return Optional.of(index.search(hash.get(), maxDistance, limit,
+                candidate -> !candidate.equals(sha256) && owned.contains(candidate)));
+    }
+
+    /**
+     * Empreinte connue en base, ou calculée à la volée pour une photo jamais analysée.
+     */
+    private Optional<Long> hashOf(String sha256) {
+        if (sha256 == null || !SHA256_HEX.matcher(sha256).matches()) {
+            return Optional.empty();
+        }
+        List<Long> stored = jdbcTemplate.queryForList(
+                "select perceptual_hash from photo_hash where sha256 = ?", Long.class, sha256);
+        if (!stored.isEmpty()) {
+            return Optional.of(stored.get(0));
+        }
+        Optional<Path> photo = photoStorageService.find(sha256);
+        if (photo.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(record(sha256, imagePreprocessingService.decode(photo.get())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void reload() {
+        long start = System.nanoTime();
+        // Avant toute lecture : les photos ajoutées pendant le chargement seront rejouées
+        index.beginReload();
+        Long expected = jdbcTemplate.queryForObject("select count(*) from photo_hash", Long.class);
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, expected != null ? expected : 0) + 1024);
+        long[][] hashes = {new long[capacity]};
+        long[][] keys = {new long[capacity * 4]};
+        int[] count = {0};
+
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "select sha256, perceptual_hash from photo_hash", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Curseur serveur : seules loadFetchSize lignes sont en mémoire à la fois
+            statement.setFetchSize(loadFetchSize);
+            return statement;
+        }, rs -> {
+            int id = count[0]++;
+            if (id == hashes[0].length) {
+                hashes[0] = Arrays.copyOf(hashes[0], id * 2);
+                keys[0] = Arrays.copyOf(keys[0], id * 8);
+            }
+            hashes[0][id] = rs.getLong(2);
+            MultiIndexHashTable.encode(rs.getString(1), keys[0], id);
+        }));
+
+        index.replaceAll(hashes[0], keys[0], count[0]);
+        logger.info("🧬 Similarity index loaded: {} photos in {} ms", count[0], (System.nanoTime() - start) / 1_000_000);
+    }
+}
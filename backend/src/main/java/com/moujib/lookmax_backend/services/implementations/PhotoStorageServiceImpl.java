@@ -0,0 +1,202 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.exceptions.PhotoTooLargeException;
+import com.moujib.lookmax_backend.exceptions.UnsupportedImageException;
+import com.moujib.lookmax_backend.models.PhotoUploadResult;
+import com.moujib.lookmax_backend.services.PhotoStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Stockage des photos sur disque, adressé par contenu ({@code <racine>/<2 premiers hex>/<sha256>}).
+ * <p>
+ * Le corps de la requête est copié par blocs de {@value #BUFFER_SIZE} octets vers un fichier
+ * temporaire via NIO : empreinte SHA-256, contrôle des magic bytes et limite de taille sont
+ * appliqués dans la même passe, donc la mémoire utilisée par upload est constante.
+ */
+@Service
+public class PhotoStorageServiceImpl implements PhotoStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoStorageServiceImpl.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAGIC_LENGTH = 12;
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    // Formats lus par ImageIO sans plugin : une WebP ou HEIC stockée échouerait à chaque analyse
+    private static final Set<String> DECODABLE_TYPES = Set.of("image/jpeg", "image/png");
+
+    private final Path storageRoot;
+    private final Path tempDir;
+    private final long maxSizeBytes;
+
+    public PhotoStorageServiceImpl(@Value("${lookmax.photos.storage-dir:${java.io.tmpdir}/lookmax/photos}") String storageDir,
+                                   @Value("${lookmax.photos.max-size-bytes:10485760}") long maxSizeBytes) throws IOException {
+        this.storageRoot = Path.of(storageDir).toAbsolutePath();
+        this.tempDir = Files.createDirectories(storageRoot.resolve("tmp"));
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    @Override
+    public PhotoUploadResult store(InputStream content, long declaredLength) throws IOException {
+        // Refus immédiat si le client annonce déjà une taille trop grande
+        if (declaredLength > maxSizeBytes) {
+            throw new PhotoTooLargeException(maxSizeBytes);
+        }
+
+        MessageDigest digest = sha256();
+        byte[] header = new byte[MAGIC_LENGTH];
+        int headerLength = 0;
+        String contentType = null;
+        long total = 0;
+
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            try (ReadableByteChannel in = Channels.newChannel(content);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    total += read;
+                    if (total > maxSizeBytes) {
+                        throw new PhotoTooLargeException(maxSizeBytes);
+                    }
+                    buffer.flip();
+
+                    // Les premiers octets suffisent à reconnaître le format
+                    if (headerLength < MAGIC_LENGTH) {
+                        int n = Math.min(MAGIC_LENGTH - headerLength, buffer.remaining());
+                        buffer.get(buffer.position(), header, headerLength, n);
+                        headerLength += n;
+                        if (headerLength == MAGIC_LENGTH) {
+                            contentType = requireImage(header, headerLength);
+                        }
+                    }
+
+                    digest.update(buffer.array(), buffer.position(), buffer.remaining());
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+
+            if (total == 0) {
+                throw new UnsupportedImageException("Empty upload");
+            }
+            if (contentType == null) {
+                contentType = requireImage(header, headerLength);
+            }
+
+            return publish(temp, HexFormat.of().formatHex(digest.digest()), contentType, total);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public PhotoUploadResult adopt(Path file, String sha256, String contentType, long sizeBytes) throws IOException {
+        if (sha256 == null || !SHA256_HEX.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Invalid sha256 " + sha256);
+        }
+        PhotoUploadResult result = publish(file, sha256, contentType, sizeBytes);
+        // Doublon : le fichier n'a pas été déplacé
+        Files.deleteIfExists(file);
+        return result;
+    }
+
+    /**
+     * Déplace un fichier complet et validé à son emplacement définitif ; l'appelant supprime
+     * {@code file} s'il est resté en place (doublon).
+     */
+    private PhotoUploadResult publish(Path file, String sha256, String contentType, long sizeBytes) throws IOException {
+        Path target = pathFor(sha256);
+        Files.createDirectories(target.getParent());
+
+        if (Files.exists(target)) {
+            logger.debug("♻️ Photo {} already stored", sha256);
+            return new PhotoUploadResult(sha256, contentType, sizeBytes, true);
+        }
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            return new PhotoUploadResult(sha256, contentType, sizeBytes, true);
+        }
+
+        logger.debug("💾 Photo {} stored ({} bytes, {})", sha256, sizeBytes, contentType);
+        return new PhotoUploadResult(sha256, contentType, sizeBytes, false);
+    }
+
+    @Override
+    public Optional<Path> find(String sha256) {
+        if (sha256 == null || !SHA256_HEX.matcher(sha256).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathFor(sha256);
+        return Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private Path pathFor(String sha256) {
+        return storageRoot.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    static String requireImage(byte[] header, int length) {
+        String contentType = detectImageType(header, length);
+        if (contentType == null) {
+            throw new UnsupportedImageException("Unsupported image format");
+        }
+        if (!DECODABLE_TYPES.contains(contentType)) {
+            throw new UnsupportedImageException(contentType + " is not supported, upload a JPEG or PNG photo");
+        }
+        return contentType;
+    }
+
+    /**
+     * Reconnaît aussi WebP et HEIC, pour les refuser avec un message explicite.
+     */
+    static String detectImageType(byte[] h, int length) {
+        if (length >= 3 && (h[0] & 0xFF) == 0xFF && (h[1] & 0xFF) == 0xD8 && (h[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (length >= 8 && (h[0] & 0xFF) == 0x89 && h[1] == 'P' && h[2] == 'N' && h[3] == 'G'
+                && h[4] == 0x0D && h[5] == 0x0A && h[6] == 0x1A && h[7] == 0x0A) {
+            return "image/png";
+        }
+        if (length >= 12 && h[0] == 'R' && h[1] == 'I' && h[2] == 'F' && h[3] == 'F'
+                && h[8] == 'W' && h[9] == 'E' && h[10] == 'B' && h[11] == 'P') {
+            return "image/webp";
+        }
+        if (length >= 12 && h[4] == 'f' && h[5] == 't' && h[6] == 'y' && h[7] == 'p'
+                && h[8] == 'h' && h[9] == 'e' && (h[10] == 'i' || h[10] == 'v') && (h[11] == 'c' || h[11] == 'x')) {
+            return "image/heic";
+        }
+        return null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.exceptions.PhotoTooLargeException;
+import com.moujib.lookmax_backend.exceptions.TooManyUploadsException;
+import com.moujib.lookmax_backend.exceptions.UnsupportedImageException;
+import com.moujib.lookmax_backend.exceptions.UploadChecksumMismatchException;
+import com.moujib.lookmax_backend.exceptions.UploadConflictException;
+import com.moujib.lookmax_backend.exceptions.UploadSessionNotFoundException;
+import com.moujib.lookmax_backend.models.PhotoUploadResult;
+import com.moujib.lookmax_backend.models.UploadStatus;
+import com.moujib.lookmax_backend.services.PhotoStorageService;
+import com.moujib.lookmax_backend.services.ResumableUploadService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Sessions d'upload reprenables.
+ * <p>
+ * Chaque session réserve à sa création un fichier de la taille annoncée dans
+ * {@code lookmax.photos.uploads.dir}, que les blocs remplissent par écritures positionnelles. Les
+ * blocs arrivent dans l'ordre : le SHA-256 est donc calculé au fil de l'eau et la finalisation se
+ * contente d'un déplacement atomique vers le stockage, sans relire le fichier.
+ * <p>
+ * L'état des sessions est en mémoire : après un redémarrage les fichiers partiels deviennent
+ * orphelins et sont supprimés par le ramasse-miettes périodique, le client recommence l'upload.
+ */
+@Service
+public class ResumableUploadServiceImpl implements ResumableUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumableUploadServiceImpl.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAGIC_LENGTH = 12;
+    private static final String PART_SUFFIX = ".part";
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final PhotoStorageService photoStorageService;
+    private final Path uploadDir;
+    private final long maxSizeBytes;
+    private final long sessionTtlMillis;
+    private final int maxSessionsPerUser;
+    private final int maxSessions;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Rend atomiques le décompte des sessions ouvertes et l'ajout d'une nouvelle
+    private final ReentrantLock registryLock = new ReentrantLock();
+
+    public ResumableUploadServiceImpl(PhotoStorageService photoStorageService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${lookmax.photos.uploads.dir:${lookmax.photos.storage-dir:${java.io.tmpdir}/lookmax/photos}/uploads}") String uploadDir,
+                                      @Value("${lookmax.photos.max-size-bytes:10485760}") long maxSizeBytes,
+                                      @Value("${lookmax.photos.uploads.session-ttl-minutes:60}") long sessionTtlMinutes,
+                                      @Value("${lookmax.photos.uploads.max-sessions-per-user:5}") int maxSessionsPerUser,
+                                      @Value("${lookmax.photos.uploads.max-sessions:1000}") int maxSessions) throws IOException {
+        this.photoStorageService = photoStorageService;
+        this.uploadDir = Files.createDirectories(Path.of(uploadDir).toAbsolutePath());
+        this.maxSizeBytes = maxSizeBytes;
+        this.sessionTtlMillis = TimeUnit.MINUTES.toMillis(sessionTtlMinutes);
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.maxSessions = maxSessions;
+
+        Gauge.builder("lookmax.uploads.sessions", sessions, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public UploadStatus create(String uid, long size, String expectedSha256) throws IOException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Upload length must be positive");
+        }
+        if (size > maxSizeBytes) {
+            throw new PhotoTooLargeException(maxSizeBytes);
+        }
+        if (expectedSha256 != null && !SHA256_HEX.matcher(expectedSha256).matches()) {
+            throw new IllegalArgumentException("sha256 must be 64 lowercase hex characters");
+        }
+
+        Session session;
+        registryLock.lock();
+        try {
+            if (sessions.size() >= maxSessions) {
+                throw new TooManyUploadsException("Too many uploads in progress, retry later");
+            }
+            long open = sessions.values().stream().filter(s -> s.uid.equals(uid)).count();
+            if (open >= maxSessionsPerUser) {
+                throw new TooManyUploadsException("At most " + maxSessionsPerUser + " uploads can be in progress per user");
+            }
+            String id = newId();
+            session = new Session(id, uid, size, expectedSha256, uploadDir.resolve(id + PART_SUFFIX));
+            // Enregistrée avant la création du fichier : le ramasse-miettes ne le prend jamais pour un orphelin
+            sessions.put(id, session);
+        } finally {
+            registryLock.unlock();
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(session.file.toFile(), "rw")) {
+            // Taille finale fixée d'emblée : les écritures positionnelles ne font jamais grandir le fichier
+            file.setLength(size);
+        } catch (IOException e) {
+            discard(session);
+            throw e;
+        }
+
+        logger.debug("📤 Upload session {} opened by {} ({} bytes)", session.id, uid, size);
+        return session.status(sessionTtlMillis);
+    }
+
+    @Override
+    public UploadStatus status(String uid, String uploadId) {
+        return require(uid, uploadId).status(sessionTtlMillis);
+    }
+
+    @Override
+    public UploadStatus append(String uid, String uploadId, long offset, InputStream content) throws IOException {
+        Session session = require(uid, uploadId);
+        if (!session.lock.tryLock()) {
+            throw new UploadConflictException("Another chunk is being written to this upload", session.offset);
+        }
+        try {
+            ensureOpen(session);
+            if (offset != session.offset) {
+                throw new UploadConflictException("Expected offset " + session.offset + ", got " + offset, session.offset);
+            }
+            session.touch();
+
+            try (ReadableByteChannel in = Channels.newChannel(content);
+                 FileChannel out = FileChannel.open(session.file, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    if (read == 0) {
+                        continue;
+                    }
+                    buffer.flip();
+                    if (session.offset + buffer.remaining() > session.size) {
+                        throw new UploadConflictException("Chunk goes past the declared upload length", session.offset);
+                    }
+                    session.inspectHeader(buffer);
+
+                    long position = session.offset;
+                    while (buffer.hasRemaining()) {
+                        position += out.write(buffer, position);
+                    }
+                    // Empreinte et offset n'avancent qu'une fois les octets sur disque : une coupure
+                    // en plein bloc conserve tout ce qui a été écrit jusque-là
+                    session.digest.update(buffer.array(), 0, buffer.limit());
+                    session.offset = position;
+                    buffer.clear();
+                }
+            } catch (UnsupportedImageException e) {
+                discard(session);
+                throw e;
+            } finally {
+                session.touch();
+            }
+
+            return session.status(sessionTtlMillis);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @Override
+    public PhotoUploadResult complete(String uid, String uploadId) throws IOException {
+        Session session = require(uid, uploadId);
+        if (!session.lock.tryLock()) {
+            throw new UploadConflictException("A chunk is still being written to this upload", session.offset);
+        }
+        try {
+            ensureOpen(session);
+            if (session.offset != session.size) {
+                throw new UploadConflictException("Upload incomplete: " + session.offset + " of " + session.size
+                        + " bytes received", session.offset);
+            }
+            String contentType = session.contentType;
+            if (contentType == null) {
+                // Fichier plus court que l'en-tête complet
+                try {
+                    contentType = PhotoStorageServiceImpl.requireImage(session.header, (int) Math.min(session.offset, MAGIC_LENGTH));
+                } catch (UnsupportedImageException e) {
+                    discard(session);
+                    throw e;
+                }
+            }
+
+            if (session.sha256 == null) {
+                // digest() réinitialise l'empreinte : conservée pour une finalisation réessayée
+                session.sha256 = HexFormat.of().formatHex(session.digest.digest());
+            }
+            String sha256 = session.sha256;
+            if (session.expectedSha256 != null && !session.expectedSha256.equals(sha256)) {
+                discard(session);
+                throw new UploadChecksumMismatchException(session.expectedSha256, sha256);
+            }
+
+            // La session reste enregistrée pendant le déplacement : le ramasse-miettes ne prend pas
+            // le fichier pour un orphelin, et un échec laisse la finalisation réessayable
+            PhotoUploadResult result;
+            try {
+                result = photoStorageService.adopt(session.file, sha256, contentType, session.size);
+            } finally {
+                session.touch();
+            }
+            session.closed = true;
+            sessions.remove(session.id);
+            logger.debug("✅ Upload session {} completed as {}", session.id, sha256);
+            return result;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @Override
+    public void abort(String uid, String uploadId) throws IOException {
+        Session session = require(uid, uploadId);
+        session.lock.lock();
+        try {
+            ensureOpen(session);
+            discard(session);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Supprime les sessions inactives depuis plus que le TTL, ainsi que les fichiers partiels
+     * qui ne correspondent plus à aucune session (redémarrage, suppression interrompue).
+     */
+    @Scheduled(fixedDelayString = "${lookmax.photos.uploads.gc-interval-ms:300000}",
+            initialDelayString = "${lookmax.photos.uploads.gc-interval-ms:300000}")
+    public void collectExpired() {
+        long deadline = System.currentTimeMillis() - sessionTtlMillis;
+        int expired = 0;
+        for (Session session : sessions.values()) {
+            // Une session en cours d'écriture n'est pas abandonnée
+            if (session.lastActivityMillis < deadline && session.lock.tryLock()) {
+                try {
+                    if (!session.closed && session.lastActivityMillis < deadline) {
+                        discard(session);
+                        expired++;
+                    }
+                } catch (IOException e) {
+                    logger.warn("⚠️ Could not delete expired upload {}: {}", session.id, e.getMessage());
+                } finally {
+                    session.lock.unlock();
+                }
+            }
+        }
+
+        int orphans = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploadDir, "*" + PART_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!sessions.containsKey(name.substring(0, name.length() - PART_SUFFIX.length()))
+                        && Files.deleteIfExists(file)) {
+                    orphans++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not scan upload directory {}: {}", uploadDir, e.getMessage());
+        }
+
+        if (expired > 0 || orphans > 0) {
+            logger.info("🧹 Removed {} expired upload sessions and {} orphan files", expired, orphans);
+        }
+    }
+
+    private Session require(String uid, String uploadId) {
+        Session session = uploadId != null ? sessions.get(uploadId) : null;
+        // Une session d'un autre utilisateur est indiscernable d'une session inexistante
+        if (session == null || !session.uid.equals(uid)) {
+            throw new UploadSessionNotFoundException(uploadId);
+        }
+        return session;
+    }
+
+    private static void ensureOpen(Session session) {
+        if (session.closed) {
+            throw new UploadSessionNotFoundException(session.id);
+        }
+    }
+
+    private void discard(Session session) throws IOException {
+        session.closed = true;
+        sessions.remove(session.id);
+        Files.deleteIfExists(session.file);
+    }
+
+    private static String newId() {
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static final class Session {
+
+        final String id;
+        final String uid;
+        final long size;
+        final String expectedSha256;
+        final Path file;
+        final ReentrantLock lock = new ReentrantLock();
+        final MessageDigest digest;
+        final byte[] header = new byte[MAGIC_LENGTH];
+        String contentType;
+        String sha256;
+        volatile long offset;
+        volatile long lastActivityMillis;
+        volatile boolean closed;
+
+        Session(String id, String uid, long size, String expectedSha256, Path file) {
+            this.id = id;
+            this.uid = uid;
+            this.size = size;
+            this.expectedSha256 = expectedSha256;
+            this.file = file;
+            this.digest = sha256();
+            touch();
+        }
+
+        void touch() {
+            lastActivityMillis = System.currentTimeMillis();
+        }
+
+        /**
+         * Reconnaît le format dès que les premiers octets sont reçus, pour refuser un fichier
+         * non image au premier bloc plutôt qu'à la finalisation.
+         */
+        void inspectHeader(ByteBuffer buffer) {
+            // Indexé sur l'offset : un bloc interrompu puis renvoyé réécrit les mêmes cases
+            if (offset < MAGIC_LENGTH) {
+                int from = (int) offset;
+                int n = Math.min(MAGIC_LENGTH - from, buffer.remaining());
+                buffer.get(buffer.position(), header, from, n);
+                if (from + n == MAGIC_LENGTH) {
+                    contentType = PhotoStorageServiceImpl.requireImage(header, MAGIC_LENGTH);
+                }
+            }
+        }
+
+        UploadStatus status(long ttlMillis) {
+            return new UploadStatus(id, offset, size, Instant.ofEpochMilli(lastActivityMillis + ttlMillis));
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
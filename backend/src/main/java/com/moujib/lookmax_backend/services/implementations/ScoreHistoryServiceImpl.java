@@ -0,0 +1,230 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moujib.lookmax_backend.exceptions.InvalidCursorException;
+import com.moujib.lookmax_backend.models.HistoryPage;
+import com.moujib.lookmax_backend.models.ScoreHistoryEntry;
+import com.moujib.lookmax_backend.services.ScoreHistoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Historique des scores en JDBC direct.
+ * <p>
+ * La pagination se fait par seek sur {@code (created_at, id)} via l'index
+ * {@code idx_score_history_uid_created} : le coût d'une page ne dépend pas de sa position, là
+ * où un {@code OFFSET} relit toutes les lignes précédentes. L'export lit un curseur serveur
+ * Postgres ({@code fetchSize} lignes par aller-retour, transaction en lecture seule) et écrit
+ * chaque ligne dans le flux de réponse dès sa lecture.
+ */
+@Service
+public class ScoreHistoryServiceImpl implements ScoreHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreHistoryServiceImpl.class);
+
+    private static final String COLUMNS = "select id, sha256, analysis_version, overall_score, created_at from score_history ";
+
+    private static final String FIRST_PAGE = COLUMNS
+            + "where uid = ? order by created_at desc, id desc limit ?";
+
+    private static final String NEXT_PAGE = COLUMNS
+            + "where uid = ? and (created_at, id) < (?, ?) order by created_at desc, id desc limit ?";
+
+    private static final String EXPORT = COLUMNS
+            + "where uid = ? order by created_at desc, id desc";
+
+    private static final RowMapper<ScoreHistoryEntry> ROW_MAPPER = (rs, rowNum) -> toEntry(rs);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int exportFetchSize;
+    private final long countTtlMillis;
+    private final int countCacheMaxEntries;
+
+    private final ReentrantLock countLock = new ReentrantLock();
+    private final LinkedHashMap<String, CachedCount> counts = new LinkedHashMap<>(256, 0.75f, true);
+
+    public ScoreHistoryServiceImpl(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ObjectMapper objectMapper,
+                                   @Value("${lookmax.history.export-fetch-size:500}") int exportFetchSize,
+                                   @Value("${lookmax.history.count-cache.ttl-seconds:60}") long countTtlSeconds,
+                                   @Value("${lookmax.history.count-cache.max-entries:10000}") int countCacheMaxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.exportFetchSize = exportFetchSize;
+        this.countTtlMillis = countTtlSeconds * 1000L;
+        this.countCacheMaxEntries = countCacheMaxEntries;
+    }
+
+    @Override
+    public HistoryPage page(String uid, String cursor, int limit) {
+        // Une ligne de plus que demandé : sa présence indique qu'une page suivante existe
+        List<ScoreHistoryEntry> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = jdbcTemplate.query(FIRST_PAGE, ROW_MAPPER, uid, limit + 1);
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            rows = jdbcTemplate.query(NEXT_PAGE, ROW_MAPPER, uid,
+                    position.createdAt().atOffset(ZoneOffset.UTC), position.id(), limit + 1);
+        }
+
+        if (rows.size() <= limit) {
+            return new HistoryPage(rows, null);
+        }
+        List<ScoreHistoryEntry> items = rows.subList(0, limit);
+        ScoreHistoryEntry last = items.get(limit - 1);
+        return new HistoryPage(List.copyOf(items), new Cursor(last.createdAt(), last.id()).encode());
+    }
+
+    @Override
+    public long cachedCount(String uid) {
+        long now = System.currentTimeMillis();
+        countLock.lock();
+        try {
+            CachedCount cached = counts.get(uid);
+            if (cached != null && cached.expiresAtMillis() > now) {
+                return cached.value();
+            }
+        } finally {
+            countLock.unlock();
+        }
+
+        // Requête hors verrou : deux comptages concurrents du même uid sont sans conséquence
+        Long value = jdbcTemplate.queryForObject("select count(*) from score_history where uid = ?", Long.class, uid);
+        long count = value != null ? value : 0L;
+
+        countLock.lock();
+        try {
+            counts.put(uid, new CachedCount(count, now + countTtlMillis));
+            if (counts.size() > countCacheMaxEntries) {
+                Map.Entry<String, CachedCount> eldest = counts.entrySet().iterator().next();
+                counts.remove(eldest.getKey());
+            }
+        } finally {
+            countLock.unlock();
+        }
+        return count;
+    }
+
+    @Override
+    public void export(String uid, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            long rows;
+            try {
+                rows = readOnlyTransaction.execute(status -> streamRows(uid, generator));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+            logger.debug("📤 History export for {}: {} rows in {} ms", uid, rows, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private long streamRows(String uid, JsonGenerator generator) {
+        long[] rows = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    EXPORT, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Avec autocommit désactivé (transaction), le driver Postgres lit par paquets de fetchSize
+            statement.setFetchSize(exportFetchSize);
+            statement.setString(1, uid);
+            return statement;
+        }, rs -> {
+            try {
+                writeEntry(generator, toEntry(rs));
+                // Vidé régulièrement : le client reçoit les données au fil de la lecture
+                if (++rows[0] % exportFetchSize == 0) {
+                    generator.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows[0];
+    }
+
+    private static void writeEntry(JsonGenerator generator, ScoreHistoryEntry entry) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", entry.id());
+        generator.writeStringField("sha256", entry.sha256());
+        generator.writeNumberField("analysisVersion", entry.analysisVersion());
+        generator.writeNumberField("overallScore", entry.overallScore());
+        generator.writeStringField("createdAt", entry.createdAt().toString());
+        generator.writeEndObject();
+    }
+
+    private static ScoreHistoryEntry toEntry(ResultSet rs) throws SQLException {
+        return new ScoreHistoryEntry(
+                rs.getLong("id"),
+                rs.getString("sha256"),
+                rs.getInt("analysis_version"),
+                rs.getDouble("overall_score"),
+                rs.getObject("created_at", OffsetDateTime.class).toInstant());
+    }
+
+    private record CachedCount(long value, long expiresAtMillis) {
+    }
+
+    /**
+     * Position de la dernière ligne servie, encodée en base64url ({@code micros:id}).
+     */
+    record Cursor(Instant createdAt, long id) {
+
+        // Hors de cette plage, Postgres (ou la conversion en OffsetDateTime) rejetterait l'horodatage
+        private static final Instant MIN = Instant.parse("0001-01-01T00:00:00Z");
+        private static final Instant MAX = Instant.parse("9999-12-31T23:59:59.999999Z");
+
+        String encode() {
+            long micros = ChronoUnit.MICROS.between(Instant.EPOCH, createdAt);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((micros + ":" + id).getBytes(StandardCharsets.US_ASCII));
+        }
+
+        static Cursor decode(String value) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.US_ASCII);
+                int separator = raw.indexOf(':');
+                long micros = Long.parseLong(raw.substring(0, separator));
+                long id = Long.parseLong(raw.substring(separator + 1));
+                Instant createdAt = Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+                if (createdAt.isBefore(MIN) || createdAt.isAfter(MAX)) {
+                    throw new InvalidCursorException("Invalid history cursor");
+                }
+                return new Cursor(createdAt, id);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException | ArithmeticException e) {
+                throw new InvalidCursorException("Invalid history cursor");
+            }
+        }
+    }
+}
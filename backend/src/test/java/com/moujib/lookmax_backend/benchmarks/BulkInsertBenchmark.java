@@ -0,0 +1,81 @@
+package com.moujib.lookmax_backend.benchmarks;
+
+import com.moujib.lookmax_backend.entities.ScoreHistoryEntity;
+import com.moujib.lookmax_backend.repositories.ScoreHistoryRepository;
+import com.moujib.lookmax_backend.services.BulkWriteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insertion de 100 000 lignes d'historique d'analyse dans le Postgres configuré, par lots JDBC
+ * ({@link BulkWriteService}), comparée à un {@code save} par ligne sur un échantillon.
+ * Lancement : {@code mvn test -Pbenchmark -Dtest=BulkInsertBenchmark} (base locale requise).
+ */
+@Tag("benchmark")
+@SpringBootTest
+class BulkInsertBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkInsertBenchmark.class);
+
+    private static final String UID_PREFIX = "bench-bulk-";
+    private static final int BULK_ROWS = 100_000;
+    private static final int SINGLE_ROWS = 2_000;
+
+    @Autowired
+    private BulkWriteService bulkWriteService;
+
+    @Autowired
+    private ScoreHistoryRepository scoreHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from score_history where uid like ?", UID_PREFIX + "%");
+    }
+
+    @Test
+    void insertHundredThousandAnalysisRows() {
+        long start = System.nanoTime();
+        for (ScoreHistoryEntity entity : rows(SINGLE_ROWS)) {
+            scoreHistoryRepository.save(entity);
+        }
+        double singleRate = SINGLE_ROWS / ((System.nanoTime() - start) / 1e9);
+
+        List<ScoreHistoryEntity> rows = rows(BULK_ROWS);
+        start = System.nanoTime();
+        int inserted = bulkWriteService.insertAll(rows);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double bulkRate = inserted / seconds;
+
+        logger.info("💾 save() per row: {} rows/s | bulk: {} rows in {}s -> {} rows/s (x{})",
+                Math.round(singleRate), inserted, "%.2f".formatted(seconds), Math.round(bulkRate),
+                "%.1f".formatted(bulkRate / singleRate));
+        assertThat(inserted).isEqualTo(BULK_ROWS);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from score_history where uid like ?", Long.class, UID_PREFIX + "%"))
+                .isEqualTo(BULK_ROWS + SINGLE_ROWS);
+        assertThat(bulkRate).isGreaterThan(singleRate);
+    }
+
+    private static List<ScoreHistoryEntity> rows(int count) {
+        List<ScoreHistoryEntity> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String sha256 = String.format("%064x", i);
+            rows.add(ScoreHistoryEntity.of(UID_PREFIX + (i % 500), sha256, 1, (i * 37) % 100));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,61 @@
+package com.moujib.lookmax_backend.benchmarks;
+
+import com.moujib.lookmax_backend.models.DecodedImage;
+import com.moujib.lookmax_backend.services.implementations.FacialAnalysisServiceImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+/**
+ * Débit du moteur d'analyse en images/seconde et images/seconde/cœur, sur une image de la
+ * résolution d'analyse par défaut (1024x768). Chiffre à suivre de version en version :
+ * {@code mvn test -Pbenchmark -Dtest=FacialAnalysisThroughputBenchmark}.
+ */
+@Tag("benchmark")
+class FacialAnalysisThroughputBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacialAnalysisThroughputBenchmark.class);
+
+    private static final int WARMUP_IMAGES = 200;
+    private static final int MEASURED_IMAGES = 1_000;
+
+    @Test
+    void imagesPerSecondPerCore() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        DecodedImage image = syntheticImage(1024, 768);
+
+        report("sequential", new FacialAnalysisServiceImpl(1, true, 32), image, 1);
+        FacialAnalysisServiceImpl parallel = new FacialAnalysisServiceImpl(cores, false, 32);
+        try {
+            report("parallel", parallel, image, cores);
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    private static void report(String mode, FacialAnalysisServiceImpl engine, DecodedImage image, int cores) {
+        for (int i = 0; i < WARMUP_IMAGES; i++) {
+            engine.analyze(image);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_IMAGES; i++) {
+            engine.analyze(image);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double imagesPerSecond = MEASURED_IMAGES / seconds;
+        logger.info("📊 analysis {} {} images/s, {} images/s/core ({} cores)",
+                mode, "%.1f".formatted(imagesPerSecond), "%.1f".formatted(imagesPerSecond / cores), cores);
+    }
+
+    private static DecodedImage syntheticImage(int width, int height) {
+        Random random = new Random(1);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(0x1000000);
+        }
+        return new DecodedImage(width, height, pixels, width, height, 1);
+    }
+}
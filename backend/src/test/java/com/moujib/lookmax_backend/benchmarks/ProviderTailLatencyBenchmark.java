@@ -0,0 +1,104 @@
+package com.moujib.lookmax_backend.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moujib.lookmax_backend.configurations.ProviderProperties;
+import com.moujib.lookmax_backend.exceptions.ProviderUnavailableException;
+import com.moujib.lookmax_backend.services.implementations.ExternalProviderClientImpl;
+import com.moujib.lookmax_backend.services.implementations.StubProviderServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latence de queue face à un fournisseur dont 5 % des réponses sont lentes et 2 % en échec.
+ * <p>
+ * Sans protection, le p99 suit la réponse lente ; avec un timeout de réponse court et des
+ * retries à jitter, la requête lente est abandonnée puis rejouée sur une autre connexion.
+ * Lancement : {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ProviderTailLatencyBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderTailLatencyBenchmark.class);
+
+    private static final int CALLS = 400;
+    private static final int CONCURRENCY = 32;
+    private static final long SLOW_MS = 1_500;
+
+    @Test
+    void timeoutsAndRetriesBoundTheTail() throws Exception {
+        try (StubProviderServer stub = new StubProviderServer(7L)) {
+            stub.behave("/analyze", new StubProviderServer.Behaviour(20, 0.05, SLOW_MS, 0.02, 0));
+
+            long[] unprotected = run(stub, Duration.ofSeconds(10), 0);
+            long[] protectedCalls = run(stub, Duration.ofMillis(200), 2);
+
+            logger.info("📊 unprotected: p50={} ms, p99={} ms; timeout+retries: p50={} ms, p99={} ms",
+                    percentile(unprotected, 50), percentile(unprotected, 99),
+                    percentile(protectedCalls, 50), percentile(protectedCalls, 99));
+            assertThat(percentile(protectedCalls, 99)).isLessThan(percentile(unprotected, 99));
+            assertThat(percentile(protectedCalls, 99)).isLessThan(SLOW_MS);
+        }
+    }
+
+    private long[] run(StubProviderServer stub, Duration responseTimeout, int maxRetries) throws Exception {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("benchmark").maxConnections(CONCURRENCY * 2).build();
+        ProviderProperties.Provider provider = new ProviderProperties.Provider(stub.baseUrl(), false,
+                Duration.ofSeconds(1), responseTimeout, Duration.ofSeconds(10), CONCURRENCY, Duration.ofSeconds(1),
+                maxRetries, Duration.ofMillis(20), Duration.ofMillis(100), 100, 100, 100, Duration.ofSeconds(30), 1,
+                Duration.ZERO, 0);
+        ExternalProviderClientImpl client = new ExternalProviderClientImpl(
+                new ProviderProperties(null, Map.of("stub", provider)), connectionProvider, new ObjectMapper(),
+                new SimpleMeterRegistry());
+
+        Semaphore concurrency = new Semaphore(CONCURRENCY);
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<Long>> futures = new ArrayList<>(CALLS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLS; i++) {
+                int n = i;
+                futures.add(executor.submit(() -> {
+                    concurrency.acquire();
+                    long start = System.nanoTime();
+                    try {
+                        client.post("stub", "/analyze", Map.of("n", n));
+                    } catch (ProviderUnavailableException e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        concurrency.release();
+                    }
+                    return (System.nanoTime() - start) / 1_000_000;
+                }));
+            }
+            long[] latencies = new long[CALLS];
+            for (int i = 0; i < CALLS; i++) {
+                latencies[i] = futures.get(i).get();
+            }
+            Arrays.sort(latencies);
+            logger.info("   retries={}: {} error(s) out of {} calls", maxRetries, errors.get(), CALLS);
+            return latencies;
+        } finally {
+            connectionProvider.dispose();
+        }
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,146 @@
+package com.moujib.lookmax_backend.benchmarks;
+
+import com.moujib.lookmax_backend.configurations.TestTokenIssuer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Temps jusqu'à la première requête authentifiée réussie ({@code GET /api/user/profile} avec un
+ * token de {@link TestTokenIssuer}), mesuré depuis le lancement de la JVM, pour trois modes :
+ * configuration par défaut, profil {@code fast-startup}, et profil {@code fast-startup} avec
+ * AOT et archive CDS.
+ * <p>
+ * Prérequis : {@code mvn package -Pfast-startup -DskipTests} (jar éclaté et archive dans
+ * {@code target/cds}) et le Postgres local. Lancement :
+ * {@code mvn test -Pbenchmark -Dtest=StartupTimeBenchmark}.
+ * <p>
+ * Le mode par défaut démarre avec {@code firebase.init-mode=lazy}, pour tourner sans credentials
+ * Google ; avec des credentials, {@code -Dstartup.default-init-mode=eager} mesure la
+ * configuration par défaut telle quelle.
+ */
+@Tag("benchmark")
+class StartupTimeBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimeBenchmark.class);
+
+    private static final Path CDS_DIRECTORY = Path.of("target", "cds");
+    private static final int RUNS = 3;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+    private static final String DEFAULT_INIT_MODE = System.getProperty("startup.default-init-mode", "lazy");
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    void compareTimeToFirstSuccessfulRequest() throws Exception {
+        Path jar = findApplicationJar();
+        assumeTrue(jar != null && Files.exists(CDS_DIRECTORY.resolve("application.jsa")),
+                "Run 'mvn package -Pfast-startup -DskipTests' first");
+
+        try (TestTokenIssuer issuer = new TestTokenIssuer()) {
+            String token = issuer.mintFor("startup-user", Map.of());
+            Map<String, List<String>> modes = Map.of(
+                    "default", List.of("-Dfirebase.init-mode=" + DEFAULT_INIT_MODE),
+                    "fast-startup", List.of("-Dspring.profiles.active=fast-startup"),
+                    "fast-startup+aot+cds", List.of("-Dspring.profiles.active=fast-startup",
+                            "-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=application.jsa"));
+
+            long defaultMillis = 0;
+            long optimisedMillis = 0;
+            for (String mode : List.of("default", "fast-startup", "fast-startup+aot+cds")) {
+                long[] runs = new long[RUNS];
+                for (int i = 0; i < RUNS; i++) {
+                    runs[i] = timeToFirstRequest(jar, mode, modes.get(mode), issuer, token);
+                }
+                Arrays.sort(runs);
+                long median = runs[RUNS / 2];
+                logger.info("⏱️ {} median {} ms (runs {})",
+                        mode.equals("default") ? "default (" + DEFAULT_INIT_MODE + ")" : mode, median, Arrays.toString(runs));
+                if (mode.equals("default")) {
+                    defaultMillis = median;
+                } else if (mode.equals("fast-startup+aot+cds")) {
+                    optimisedMillis = median;
+                }
+            }
+            assertThat(optimisedMillis).isLessThan(defaultMillis);
+        }
+    }
+
+    private long timeToFirstRequest(Path jar, String mode, List<String> jvmArgs, TestTokenIssuer issuer, String token)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.addAll(List.of("-jar", jar.getFileName().toString(),
+                "--server.port=" + port,
+                "--firebase.project-id=" + TestTokenIssuer.PROJECT_ID,
+                "--firebase.keys.url=" + issuer.keysUrl()));
+
+        Path log = Path.of("target", "startup-" + mode + ".log");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/user/profile"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(CDS_DIRECTORY.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " exited during startup, see " + log);
+                }
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException ignored) {
+                    // Port pas encore ouvert
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(mode + " not ready after " + STARTUP_TIMEOUT + ", see " + log);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static Path findApplicationJar() throws IOException {
+        if (!Files.isDirectory(CDS_DIRECTORY)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(CDS_DIRECTORY)) {
+            return files.filter(file -> file.toString().endsWith(".jar")).findFirst().orElse(null);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.moujib.lookmax_backend.benchmarks;
+
+import com.moujib.lookmax_backend.LookmaxBackendApplication;
+import com.moujib.lookmax_backend.configurations.TestTokenIssuer;
+import com.moujib.lookmax_backend.entities.ScoreHistoryEntity;
+import com.moujib.lookmax_backend.services.BulkWriteService;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare le débit de {@code GET /api/user/history} entre le pool Tomcat de threads plateforme
+ * (200 threads par défaut) et un thread virtuel par requête ({@code spring.threads.virtual.enabled}).
+ * <p>
+ * L'application complète est démarrée une fois par mode sur le Postgres configuré : chaque
+ * requête traverse Tomcat, l'authentification et une page d'historique lue en JDBC. En mode
+ * virtuel, les connexions passent par {@code DatabaseConcurrencyLimiter} ; le benchmark vérifie
+ * qu'aucune requête n'échoue faute de connexion alors que les utilisateurs concurrents dépassent
+ * largement {@code maximum-pool-size}. L'endpoint étant borné par la base, un gain de débit n'est
+ * pas garanti : les chiffres sont journalisés pour être suivis de version en version.
+ * Lancement : {@code mvn test -Pbenchmark -Dtest=VirtualThreadThroughputBenchmark} (base locale requise).
+ */
+@Tag("benchmark")
+class VirtualThreadThroughputBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadThroughputBenchmark.class);
+
+    private static final String UID_PREFIX = "bench-vt-";
+    private static final int USERS = 50;
+    private static final int ROWS_PER_USER = 200;
+    private static final int CONCURRENT_USERS = 1_000;
+    private static final int REQUESTS_PER_USER = 4;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void compareExecutionModes() throws Exception {
+        try (TestTokenIssuer issuer = new TestTokenIssuer()) {
+            List<String> tokens = new ArrayList<>(USERS);
+            for (int i = 0; i < USERS; i++) {
+                tokens.add(issuer.mintFor(UID_PREFIX + i, Map.of()));
+            }
+
+            double platform = run(false, issuer, tokens);
+            double virtual = run(true, issuer, tokens);
+
+            logger.info("📊 platform={} req/s, virtual={} req/s, speedup=x{}",
+                    Math.round(platform), Math.round(virtual), "%.2f".formatted(virtual / platform));
+        }
+    }
+
+    private double run(boolean virtualThreads, TestTokenIssuer issuer, List<String> tokens) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        // En arguments : des propriétés par défaut seraient écrasées par application.yml
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LookmaxBackendApplication.class)
+                .run("--server.port=0",
+                        "--management.server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--firebase.init-mode=lazy",
+                        "--firebase.project-id=" + TestTokenIssuer.PROJECT_ID,
+                        "--firebase.keys.url=" + issuer.keysUrl(),
+                        // Un seul client : les seaux par uid rejetteraient l'essentiel de la charge
+                        "--lookmax.rate-limit.enabled=false")) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            jdbcTemplate.update("delete from score_history where uid like ?", UID_PREFIX + "%");
+            context.getBean(BulkWriteService.class).insertAll(rows());
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                double throughput = load(mode, port, tokens);
+
+                FunctionTimer permitWait = context.getBean(MeterRegistry.class)
+                        .find("lookmax.db.permit.wait").functionTimer();
+                if (virtualThreads) {
+                    assertThat(permitWait).isNotNull();
+                    assertThat(permitWait.count()).isGreaterThanOrEqualTo(CONCURRENT_USERS * REQUESTS_PER_USER);
+                    logger.info("🚦 {} mean wait for a JDBC permit: {} ms", mode,
+                            "%.2f".formatted(permitWait.mean(TimeUnit.MILLISECONDS)));
+                } else {
+                    assertThat(permitWait).isNull();
+                }
+                return throughput;
+            } finally {
+                jdbcTemplate.update("delete from score_history where uid like ?", UID_PREFIX + "%");
+            }
+        }
+    }
+
+    private double load(String mode, int port, List<String> tokens) throws Exception {
+        int total = CONCURRENT_USERS * REQUESTS_PER_USER;
+        List<Future<Integer>> statuses = new ArrayList<>(total);
+        long start = System.nanoTime();
+        try (ExecutorService users = Executors.newFixedThreadPool(CONCURRENT_USERS, Thread.ofVirtual().factory())) {
+            for (int i = 0; i < total; i++) {
+                HttpRequest request = HttpRequest.newBuilder(
+                                URI.create("http://127.0.0.1:" + port + "/api/user/history?limit=20"))
+                        .header("Authorization", "Bearer " + tokens.get(i % tokens.size()))
+                        .timeout(Duration.ofMinutes(1))
+                        .build();
+                statuses.add(users.submit(() ->
+                        httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()));
+            }
+            for (Future<Integer> status : statuses) {
+                assertThat(status.get(5, TimeUnit.MINUTES)).isEqualTo(200);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double throughput = total / seconds;
+        logger.info("🧵 {} {} requests in {}s -> {} req/s", mode, total, "%.2f".formatted(seconds), Math.round(throughput));
+        return throughput;
+    }
+
+    private static List<ScoreHistoryEntity> rows() {
+        List<ScoreHistoryEntity> rows = new ArrayList<>(USERS * ROWS_PER_USER);
+        for (int i = 0; i < USERS * ROWS_PER_USER; i++) {
+            rows.add(ScoreHistoryEntity.of(UID_PREFIX + (i % USERS), "%064x".formatted(i), 1, (i * 37) % 100));
+        }
+        return rows;
+    }
+}
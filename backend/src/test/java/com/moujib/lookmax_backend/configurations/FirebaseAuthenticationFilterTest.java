@@ -0,0 +1,71 @@
+package com.moujib.lookmax_backend.configurations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FirebaseAuthenticationFilterTest {
+
+    private TestTokenIssuer issuer;
+    private FirebaseAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        issuer = new TestTokenIssuer();
+        filter = new FirebaseAuthenticationFilter(new VerifiedTokenCache(true, 100, 30), issuer.keyManager(),
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        issuer.close();
+    }
+
+    @Test
+    void tokensOfTheSameProfileShareOneAuthoritySet() throws Exception {
+        Authentication alice = filter.authenticate(issuer.mintFor("alice", Map.of("roles", List.of("coach"), "admin", true)));
+        Authentication bob = filter.authenticate(issuer.mintFor("bob", Map.of("roles", List.of("coach"), "admin", true)));
+
+        assertThat(alice.getAuthorities()).isSameAs(bob.getAuthorities());
+        assertThat(alice.getAuthorities()).extracting(Object::toString)
+                .containsExactly("ROLE_USER", "ROLE_COACH", "ROLE_ADMIN");
+        assertThat(alice.getName()).isEqualTo("alice");
+    }
+
+    @Test
+    void cachedTokenIsAuthenticatedWithoutAllocating() throws Exception {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        String token = issuer.mintFor("user-123", Map.of("roles", List.of("premium")));
+        Authentication first = filter.authenticate(token);
+        for (int i = 0; i < 20_000; i++) {
+            filter.authenticate(token);
+        }
+
+        int iterations = 100_000;
+        long threadId = Thread.currentThread().threadId();
+        int misses = 0;
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            if (filter.authenticate(token) != first) {
+                misses++;
+            }
+        }
+        long bytesPerCall = (threads.getThreadAllocatedBytes(threadId) - before) / iterations;
+
+        assertThat(misses).isZero();
+        // Seule la clé du cache (empreinte du token) est allouée, voire aucune après escape analysis
+        assertThat(bytesPerCall).isLessThan(128);
+    }
+}
@@ -0,0 +1,87 @@
+package com.moujib.lookmax_backend.configurations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Map;
+
+import static com.moujib.lookmax_backend.configurations.TestTokenIssuer.PROJECT_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérification locale contre un serveur de clés stub, sans accès à Google.
+ */
+class FirebaseKeyManagerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TestTokenIssuer issuer;
+    private FirebaseKeyManager keyManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        issuer = new TestTokenIssuer();
+        keyManager = issuer.keyManager();
+    }
+
+    @AfterEach
+    void tearDown() {
+        issuer.close();
+    }
+
+    @Test
+    void keysArePrefetchedDuringWarmUp() {
+        assertThat(keyManager.loadedKeyCount()).isEqualTo(1);
+    }
+
+    @Test
+    void validTokenIsVerifiedLocally() throws Exception {
+        String token = issuer.mintFor("user-123", Map.of());
+
+        Map<String, Object> claims = keyManager.verifyIdToken(token);
+
+        assertThat(claims).containsEntry("sub", "user-123").containsEntry("email", "user-123@lookmax.test");
+    }
+
+    @Test
+    void tamperedTokenIsRejected() throws Exception {
+        long now = System.currentTimeMillis() / 1000L;
+        String[] parts = issuer.mintFor("user-123", Map.of()).split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(Map.of(
+                "iss", "https://securetoken.google.com/" + PROJECT_ID,
+                "aud", PROJECT_ID,
+                "sub", "admin",
+                "iat", now,
+                "exp", now + 3600)));
+
+        assertThatThrownBy(() -> keyManager.verifyIdToken(parts[0] + "." + forgedPayload + "." + parts[2]))
+                .isInstanceOf(InvalidIdTokenException.class);
+    }
+
+    @Test
+    void unknownKeyIdIsRejectedWithoutFallingBackToTheSdk() throws Exception {
+        String[] parts = issuer.mintFor("user-123", Map.of()).split("\\.");
+        String rotatedHeader = Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(
+                Map.of("alg", "RS256", "kid", "rotated-key", "typ", "JWT")));
+
+        // Clés chargées à l'instant : aucun nouveau rafraîchissement, refus immédiat
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> keyManager.verifyIdToken(rotatedHeader + "." + parts[1] + "." + parts[2]))
+                .isInstanceOf(InvalidIdTokenException.class)
+                .hasMessageContaining("unknown kid");
+        assertThat(System.nanoTime() - start).isLessThan(500_000_000L);
+    }
+
+    @Test
+    void expiredTokenIsRejected() throws Exception {
+        long now = System.currentTimeMillis() / 1000L;
+        String token = issuer.mintFor("user-123", Map.of("iat", now - 7200, "exp", now - 3600));
+
+        assertThatThrownBy(() -> keyManager.verifyIdToken(token))
+                .isInstanceOf(InvalidIdTokenException.class)
+                .hasMessageContaining("expired");
+    }
+}
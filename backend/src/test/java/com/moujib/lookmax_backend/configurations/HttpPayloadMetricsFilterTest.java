@@ -0,0 +1,35 @@
+package com.moujib.lookmax_backend.configurations;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpPayloadMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HttpPayloadMetricsFilter filter = new HttpPayloadMetricsFilter(registry, true);
+
+    @Test
+    void requestsOfTheSameEndpointShareOneSummary() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/photos/abc");
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/photos/{sha256}");
+            filter.doFilter(request, new MockHttpServletResponse(),
+                    (req, res) -> res.getOutputStream().write("{\"ok\":true}".getBytes(StandardCharsets.US_ASCII)));
+        }
+
+        DistributionSummary responses = registry.get("http.server.response.size")
+                .tag("uri", "/api/photos/{sha256}").tag("method", "GET").summary();
+        assertThat(responses.count()).isEqualTo(3);
+        assertThat(responses.totalAmount()).isEqualTo(33);
+        assertThat(filter.summary("http.server.response.size", "/api/photos/{sha256}", "GET")).isSameAs(responses);
+        assertThat(registry.find("http.server.response.size").summaries()).hasSize(1);
+    }
+}
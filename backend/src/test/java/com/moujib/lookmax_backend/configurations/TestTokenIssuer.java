@@ -0,0 +1,118 @@
+package com.moujib.lookmax_backend.configurations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Émetteur local d'ID tokens RS256 au format Firebase, avec son endpoint JWKS.
+ * Utilisé par les tests, les benchmarks et le test de charge pour vérifier des tokens sans accès
+ * à Google. Avec une graine, la paire de clés est reproductible : un backend lancé avec le profil
+ * {@code loadtest} accepte les tokens quel que soit l'ordre de démarrage.
+ */
+public final class TestTokenIssuer implements AutoCloseable {
+
+    public static final String PROJECT_ID = "lookmax-test";
+    public static final String KEY_ID = "test-key";
+
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final KeyPair keyPair;
+    private final HttpServer keyServer;
+
+    public TestTokenIssuer() throws IOException, GeneralSecurityException {
+        this(0, null);
+    }
+
+    /**
+     * @param port port de l'endpoint {@code /keys} (0 = port libre)
+     * @param seed graine de la paire de clés, {@code null} pour une paire aléatoire
+     */
+    public TestTokenIssuer(int port, Long seed) throws IOException, GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        if (seed != null) {
+            SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
+            random.setSeed(seed);
+            generator.initialize(2048, random);
+        } else {
+            generator.initialize(2048);
+        }
+        keyPair = generator.generateKeyPair();
+
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        byte[] jwks = objectMapper.writeValueAsBytes(Map.of("keys", new Object[]{Map.of(
+                "kty", "RSA",
+                "alg", "RS256",
+                "kid", KEY_ID,
+                "n", B64.encodeToString(publicKey.getModulus().toByteArray()),
+                "e", B64.encodeToString(publicKey.getPublicExponent().toByteArray()))}));
+
+        keyServer = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        keyServer.createContext("/keys", exchange -> {
+            exchange.getResponseHeaders().add("Cache-Control", "public, max-age=3600");
+            exchange.sendResponseHeaders(200, jwks.length);
+            exchange.getResponseBody().write(jwks);
+            exchange.close();
+        });
+        keyServer.start();
+    }
+
+    public String keysUrl() {
+        return "http://127.0.0.1:" + keyServer.getAddress().getPort() + "/keys";
+    }
+
+    public FirebaseKeyManager keyManager() {
+        FirebaseKeyManager keyManager = new FirebaseKeyManager(objectMapper, new SimpleMeterRegistry(),
+                new StaticListableBeanFactory().getBeanProvider(FirebaseConfig.class),
+                keysUrl(), true, PROJECT_ID, 300, 60, 5, 5, true, 1000);
+        keyManager.warmUp();
+        return keyManager;
+    }
+
+    /**
+     * Token valide une heure pour {@code uid}, complété par {@code extraClaims}.
+     */
+    public String mintFor(String uid, Map<String, Object> extraClaims) throws GeneralSecurityException, IOException {
+        long now = System.currentTimeMillis() / 1000L;
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("iss", "https://securetoken.google.com/" + PROJECT_ID);
+        claims.put("aud", PROJECT_ID);
+        claims.put("sub", uid);
+        claims.put("email", uid + "@lookmax.test");
+        claims.put("iat", now);
+        claims.put("auth_time", now);
+        claims.put("exp", now + 3600);
+        claims.putAll(extraClaims);
+        return mint(claims);
+    }
+
+    public String mint(Map<String, Object> claims) throws GeneralSecurityException, IOException {
+        String header = B64.encodeToString(objectMapper.writeValueAsBytes(
+                Map.of("alg", "RS256", "kid", KEY_ID, "typ", "JWT")));
+        String payload = B64.encodeToString(objectMapper.writeValueAsBytes(claims));
+        Signature signer = Signature.getInstance("SHA256withRSA");
+        signer.initSign(keyPair.getPrivate());
+        signer.update((header + "." + payload).getBytes(StandardCharsets.US_ASCII));
+        return header + "." + payload + "." + B64.encodeToString(signer.sign());
+    }
+
+    @Override
+    public void close() {
+        keyServer.stop(0);
+    }
+}
@@ -0,0 +1,75 @@
+package com.moujib.lookmax_backend.configurations;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.moujib.lookmax_backend.configurations.TokenBucketRateLimiter.Group.ANALYSIS;
+import static com.moujib.lookmax_backend.configurations.TokenBucketRateLimiter.Group.READS;
+import static com.moujib.lookmax_backend.configurations.TokenBucketRateLimiter.Group.UPLOADS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // Analyse : rafale de 5, un jeton toutes les 2 secondes
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 20, 5, 30, 60, 600, 3);
+
+    @Test
+    void burstIsAllowedThenRetryAfterMatchesRefill() {
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(ANALYSIS, "user-1", now)).isZero();
+        }
+
+        assertThat(limiter.tryAcquire(ANALYSIS, "user-1", now)).isEqualTo(2 * SECOND);
+        assertThat(limiter.tryAcquire(ANALYSIS, "user-1", now + 2 * SECOND)).isZero();
+    }
+
+    @Test
+    void usersAndGroupsHaveSeparateBuckets() {
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(ANALYSIS, "user-1", now);
+        }
+
+        assertThat(limiter.tryAcquire(ANALYSIS, "user-2", now)).isZero();
+        assertThat(limiter.tryAcquire(UPLOADS, "user-1", now)).isZero();
+    }
+
+    @Test
+    void overflowKeysDoNotShareASingleBucket() {
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(ANALYSIS, "user-" + i, now);
+        }
+        String noisy = "ip:10.0.1.1";
+        String quiet = "ip:10.0.1.2";
+        assertThat(TokenBucketRateLimiter.stripe(noisy)).isNotEqualTo(TokenBucketRateLimiter.stripe(quiet));
+
+        while (limiter.tryAcquire(ANALYSIS, noisy, now) == 0) {
+            // Épuise le seau de débordement du client bruyant
+        }
+
+        assertThat(limiter.tryAcquire(ANALYSIS, quiet, now)).isZero();
+        assertThat(limiter.size(ANALYSIS)).isEqualTo(3);
+    }
+
+    @Test
+    void keyCountStaysBoundedAndIdleBucketsAreEvicted() {
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire(READS, "ip:10.0.0." + i, now);
+        }
+        assertThat(limiter.size(READS)).isEqualTo(3);
+
+        // Table pleine : les nouvelles clés passent par le débordement, sans balayage à la volée
+        limiter.tryAcquire(READS, "ip:10.0.1.1", now + 60 * SECOND);
+        assertThat(limiter.size(READS)).isEqualTo(3);
+
+        // Une fois pleins, les seaux sont supprimés au balayage suivant
+        assertThat(limiter.evictIdle(now + 60 * SECOND)).isEqualTo(3);
+        assertThat(limiter.size(READS)).isZero();
+    }
+}
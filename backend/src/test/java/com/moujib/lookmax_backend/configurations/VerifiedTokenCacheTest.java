@@ -0,0 +1,66 @@
+package com.moujib.lookmax_backend.configurations;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    private VerifiedTokenCache.CachedAuthentication verify(String token, long expiresAtMillis) {
+        verifications.incrementAndGet();
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        return new VerifiedTokenCache.CachedAuthentication(
+                new FirebaseAuthentication(Map.of("sub", token, "email", token + "@test"), authorities), expiresAtMillis);
+    }
+
+    @Test
+    void repeatedTokenIsVerifiedOnce() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 10, 0);
+        long exp = System.currentTimeMillis() + 60_000;
+
+        cache.getOrVerify("token-a", t -> verify(t, exp));
+        VerifiedTokenCache.CachedAuthentication second = cache.getOrVerify("token-a", t -> verify(t, exp));
+
+        assertThat(verifications).hasValue(1);
+        assertThat(second.principal().uid()).isEqualTo("token-a");
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredTokensAreNotServedFromCache() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 10, 30);
+        // Expire dans 10s, donc déjà dans la marge de sécurité de 30s
+        long exp = System.currentTimeMillis() + 10_000;
+
+        cache.getOrVerify("token-a", t -> verify(t, exp));
+        cache.getOrVerify("token-a", t -> verify(t, exp));
+
+        assertThat(verifications).hasValue(2);
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedAtCapacity() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 2, 0);
+        long exp = System.currentTimeMillis() + 60_000;
+
+        cache.getOrVerify("token-a", t -> verify(t, exp));
+        cache.getOrVerify("token-b", t -> verify(t, exp));
+        cache.getOrVerify("token-a", t -> verify(t, exp));
+        cache.getOrVerify("token-c", t -> verify(t, exp));
+        cache.getOrVerify("token-a", t -> verify(t, exp));
+
+        assertThat(verifications).hasValue(3);
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        assertThat(cache.stats().size()).isEqualTo(2);
+    }
+}
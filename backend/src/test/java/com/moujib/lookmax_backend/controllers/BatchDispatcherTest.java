@@ -0,0 +1,151 @@
+package com.moujib.lookmax_backend.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moujib.lookmax_backend.models.BatchItemResult;
+import com.moujib.lookmax_backend.models.BatchRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchDispatcherTest {
+
+    private final BatchDispatcher dispatcher = new BatchDispatcher(null, null, null, new ObjectMapper(), 20, 5_000);
+
+    @Test
+    void dependentItemsRunAfterTheirDependenciesWithTheirResults() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        List<BatchRequest.Item> items = List.of(
+                item("submit", List.of()),
+                item("poll", List.of("submit")),
+                item("history", List.of()),
+                item("report", List.of("submit", "poll")));
+
+        List<BatchItemResult> results = dispatcher.execute(items, deadlineIn(5_000), (item, dependencies) -> {
+            if (item.id().equals("submit")) {
+                sleep(50);
+            }
+            assertThat(dependencies.keySet()).containsExactlyInAnyOrderElementsOf(item.dependsOn());
+            order.add(item.id());
+            return new BatchItemResult(item.id(), 200, Map.of(), Map.of("seen", dependencies.keySet()));
+        });
+
+        assertThat(results).extracting(BatchItemResult::id).containsExactly("submit", "poll", "history", "report");
+        assertThat(results).allMatch(BatchItemResult::successful);
+        assertThat(order.indexOf("submit")).isLessThan(order.indexOf("poll"));
+        assertThat(order.indexOf("poll")).isLessThan(order.indexOf("report"));
+        // Indépendant : n'attend pas la dépendance lente
+        assertThat(order.indexOf("history")).isLessThan(order.indexOf("submit"));
+    }
+
+    @Test
+    void failedDependencyPropagatesAs424WithoutRunningDependents() {
+        List<String> ran = new CopyOnWriteArrayList<>();
+        List<BatchRequest.Item> items = List.of(
+                item("a", List.of()),
+                item("b", List.of("a")),
+                item("c", List.of("b")),
+                item("d", List.of()));
+
+        List<BatchItemResult> results = dispatcher.execute(items, deadlineIn(5_000), (item, dependencies) -> {
+            ran.add(item.id());
+            return item.id().equals("a")
+                    ? BatchItemResult.error("a", 500, "Internal Server Error", "boom")
+                    : new BatchItemResult(item.id(), 200, Map.of(), null);
+        });
+
+        assertThat(results).extracting(BatchItemResult::status).containsExactly(500, 424, 424, 200);
+        assertThat(ran).containsExactlyInAnyOrder("a", "d");
+    }
+
+    @Test
+    void itemStillRunningAtTheDeadlineTimesOut() {
+        List<BatchItemResult> results = dispatcher.execute(List.of(item("slow", List.of()), item("next", List.of("slow"))),
+                deadlineIn(100), (item, dependencies) -> {
+                    sleep(2_000);
+                    return new BatchItemResult(item.id(), 200, Map.of(), null);
+                });
+
+        assertThat(results.get(0).status()).isEqualTo(504);
+        // Selon l'ordre d'observation : échéance dépassée, ou dépendance annulée
+        assertThat(results.get(1).status()).isIn(504, 424);
+    }
+
+    @Test
+    void malformedBatchesAreRejectedBeforeAnythingRuns() {
+        // Un cycle implique forcément une dépendance vers un élément déclaré plus bas
+        assertRejected(List.of(item("a", List.of("b")), item("b", List.of("a"))), "later request b");
+        assertRejected(List.of(item("a", List.of("a"))), "unknown or later request a");
+        assertRejected(List.of(item("a", List.of("missing"))), "unknown or later request missing");
+        assertRejected(List.of(item("a", List.of()), item("a", List.of())), "unique id");
+        assertRejected(List.of(new BatchRequest.Item("a", "GET", "/api/jobs/{{b/id}}", null, List.of())), "references b");
+        assertRejected(List.of(new BatchRequest.Item("a", "GET", "/api/batch", null, List.of())), "Invalid path");
+        assertRejected(List.of(new BatchRequest.Item("a", "TRACE", "/api/main", null, List.of())), "Unsupported method");
+    }
+
+    @Test
+    void handlerOutcomesMapToPerItemStatuses() throws Exception {
+        long deadline = deadlineIn(50);
+
+        BatchItemResult created = BatchDispatcher.toResult("a",
+                ResponseEntity.status(HttpStatus.CREATED).header("Location", "/api/jobs/1").body(Map.of("id", "1")), deadline);
+        assertThat(created.status()).isEqualTo(201);
+        assertThat(created.headers()).containsEntry("Location", "/api/jobs/1");
+
+        assertThat(BatchDispatcher.toResult("b", List.of(1, 2), deadline).status()).isEqualTo(200);
+        assertThat(BatchDispatcher.toResult("c", new DeferredResult<>(), deadline).status()).isEqualTo(504);
+
+        DeferredResult<Object> failed = new DeferredResult<>();
+        failed.setErrorResult(new ResponseStatusException(HttpStatus.CONFLICT));
+        assertThat(BatchDispatcher.toResult("d", failed, deadline).status()).isEqualTo(409);
+
+        assertThat(BatchDispatcher.failure("e", new InvocationTargetException(
+                new ResponseStatusException(HttpStatus.NOT_FOUND))).status()).isEqualTo(404);
+        assertThat(BatchDispatcher.failure("f", new HttpMessageNotReadableException("bad json",
+                new MockHttpInputMessage(new byte[0]))).status()).isEqualTo(400);
+        assertThat(BatchDispatcher.failure("g", new IllegalStateException("boom")).status()).isEqualTo(500);
+    }
+
+    @Test
+    void dependencyValuesAreSubstitutedIntoThePath() {
+        Map<String, BatchItemResult> dependencies = Map.of(
+                "submit", new BatchItemResult("submit", 202, Map.of(), Map.of("job", Map.of("id", "a b/c"))));
+
+        assertThat(dispatcher.substitute("/api/jobs/{{submit/job/id}}?wait=true", dependencies))
+                .isEqualTo("/api/jobs/a%20b%2Fc?wait=true");
+    }
+
+    private void assertRejected(List<BatchRequest.Item> items, String message) {
+        assertThatThrownBy(() -> dispatcher.validate(items))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(message);
+    }
+
+    private static BatchRequest.Item item(String id, List<String> dependsOn) {
+        return new BatchRequest.Item(id, "GET", "/api/main", null, dependsOn);
+    }
+
+    private static long deadlineIn(long millis) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.moujib.lookmax_backend.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchSubRequestTest {
+
+    @Test
+    void methodPathAndQueryBelongToTheSubRequest() {
+        BatchSubRequest sub = new BatchSubRequest(envelope(), "GET", "/api/history?limit=5&cursor=a%20b&tag=x&tag=y", new byte[0]);
+
+        assertThat(sub.getMethod()).isEqualTo("GET");
+        assertThat(sub.getRequestURI()).isEqualTo("/app/api/history");
+        assertThat(sub.getServletPath()).isEqualTo("/api/history");
+        assertThat(sub.getQueryString()).isEqualTo("limit=5&cursor=a%20b&tag=x&tag=y");
+        assertThat(sub.getParameter("cursor")).isEqualTo("a b");
+        assertThat(sub.getParameterValues("tag")).containsExactly("x", "y");
+        assertThat(sub.getRequestURL().toString()).isEqualTo("http://localhost:80/app/api/history");
+    }
+
+    @Test
+    void headersAreSnapshottedAndBodyHeadersReplaced() throws Exception {
+        byte[] body = "{\"sha256\":\"abc\"}".getBytes(StandardCharsets.UTF_8);
+        BatchSubRequest post = new BatchSubRequest(envelope(), "POST", "/api/jobs", body);
+        BatchSubRequest get = new BatchSubRequest(envelope(), "GET", "/api/main", new byte[0]);
+
+        assertThat(post.getHeader("Authorization")).isEqualTo("Bearer token");
+        assertThat(Collections.list(post.getHeaders("accept-language"))).containsExactly("fr", "en");
+        assertThat(post.getContentType()).isEqualTo("application/json");
+        assertThat(post.getContentLengthLong()).isEqualTo(body.length);
+        assertThat(post.getInputStream().readAllBytes()).isEqualTo(body);
+        // Le Content-Type de l'enveloppe ne concerne pas une sous-requête sans corps
+        assertThat(get.getContentType()).isNull();
+        assertThat(get.getHeader("content-length")).isEqualTo("0");
+    }
+
+    @Test
+    void attributesAreIsolatedFromTheEnvelope() {
+        BatchSubRequest.Envelope envelope = envelope();
+        BatchSubRequest first = new BatchSubRequest(envelope, "GET", "/api/main", new byte[0]);
+        BatchSubRequest second = new BatchSubRequest(envelope, "GET", "/api/main", new byte[0]);
+
+        first.setAttribute("handler", "first");
+
+        assertThat(second.getAttribute("handler")).isNull();
+        assertThat(envelope.request().getAttribute("handler")).isNull();
+    }
+
+    private static BatchSubRequest.Envelope envelope() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/app/api/batch");
+        request.setContextPath("/app");
+        request.addHeader("Authorization", "Bearer token");
+        request.addHeader("Accept-Language", "fr");
+        request.addHeader("Accept-Language", "en");
+        request.setContentType("application/json");
+        return BatchSubRequest.Envelope.of(request);
+    }
+}
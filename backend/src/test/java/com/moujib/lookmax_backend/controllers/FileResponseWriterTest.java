@@ -0,0 +1,113 @@
+package com.moujib.lookmax_backend.controllers;
+
+import com.moujib.lookmax_backend.models.StoredFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileResponseWriterTest {
+
+    private static final String ETAG = "\"abc-thumb-v1\"";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rangeIsServedAsPartialContent() throws Exception {
+        StoredFile file = file("0123456789");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/photos/abc");
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        FileResponseWriter.write(file, request, response);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+    }
+
+    @Test
+    void suffixAndOpenEndedRanges() {
+        assertThat(FileResponseWriter.ByteRange.parse("bytes=-3", 10)).isEqualTo(new FileResponseWriter.ByteRange(7, 9));
+        assertThat(FileResponseWriter.ByteRange.parse("bytes=4-", 10)).isEqualTo(new FileResponseWriter.ByteRange(4, 9));
+        assertThat(FileResponseWriter.ByteRange.parse("bytes=10-", 10)).isSameAs(FileResponseWriter.ByteRange.UNSATISFIABLE);
+        assertThat(FileResponseWriter.ByteRange.parse("bytes=0-1,4-5", 10)).isNull();
+    }
+
+    @Test
+    void matchingEtagReturnsNotModified() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/photos/abc");
+        request.addHeader("If-None-Match", "\"other\", W/" + ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        FileResponseWriter.write(file("0123456789"), request, response);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void staleIfRangeFallsBackToFullContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/photos/abc");
+        request.addHeader("Range", "bytes=2-5");
+        request.addHeader("If-Range", "\"previous\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        FileResponseWriter.write(file("0123456789"), request, response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void fileEvictedAfterOpeningIsStillServed() throws Exception {
+        StoredFile file = file("0123456789");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/photos/abc");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            Files.delete(file.path());
+            FileResponseWriter.write(file, channel, request, response);
+        }
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void onlyFilesServedByPathAreHandedToSendfile() throws Exception {
+        StoredFile file = file("x".repeat(64 * 1024));
+
+        MockHttpServletRequest byPath = sendfileCapableRequest();
+        FileResponseWriter.write(file, byPath, new MockHttpServletResponse());
+        assertThat(byPath.getAttribute("org.apache.tomcat.sendfile.filename")).isEqualTo(file.path().toString());
+
+        MockHttpServletRequest byChannel = sendfileCapableRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            FileResponseWriter.write(file, channel, byChannel, response);
+        }
+        assertThat(byChannel.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+        assertThat(response.getContentAsByteArray()).hasSize(64 * 1024);
+    }
+
+    private static MockHttpServletRequest sendfileCapableRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/photos/abc");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        return request;
+    }
+
+    private StoredFile file(String content) throws Exception {
+        Path path = Files.writeString(dir.resolve("file.bin"), content, StandardCharsets.US_ASCII);
+        return new StoredFile(path, "image/jpeg", Files.size(path), ETAG);
+    }
+}
@@ -0,0 +1,121 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.AnalysisResult;
+import com.moujib.lookmax_backend.repositories.AnalysisResultRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AnalysisResultCacheImplTest {
+
+    private static final String SHA256 = "a".repeat(64);
+    private static final int CALLERS = 16;
+
+    // findById renvoie Optional.empty() : chaque appel est un miss jusqu'au tier Postgres
+    private final AnalysisResultRepository repository = mock(AnalysisResultRepository.class);
+    private final AnalysisResultCacheImpl cache = new AnalysisResultCacheImpl(repository, 100);
+
+    @Test
+    void simultaneousMissesRunTheComputationOnce() throws Exception {
+        AnalysisResult expected = result();
+        AtomicInteger calls = new AtomicInteger();
+
+        List<Future<AnalysisResult>> results = concurrently(() -> {
+            calls.incrementAndGet();
+            awaitOtherCallers();
+            return expected;
+        });
+
+        assertThat(calls).hasValue(1);
+        for (Future<AnalysisResult> result : results) {
+            assertThat(result.get()).isSameAs(expected);
+        }
+        assertThat(cache.stats().computations()).isEqualTo(1);
+        assertThat(cache.stats().coalesced()).isEqualTo(CALLERS - 1);
+        verify(repository, times(1)).save(any());
+    }
+
+    @Test
+    void failedComputationIsSharedButNotCached() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException("provider down");
+
+        List<Future<AnalysisResult>> results = concurrently(() -> {
+            calls.incrementAndGet();
+            awaitOtherCallers();
+            throw failure;
+        });
+
+        assertThat(calls).hasValue(1);
+        for (Future<AnalysisResult> result : results) {
+            assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class).hasCause(failure);
+        }
+        verify(repository, never()).save(any());
+
+        // L'échec n'est ni en mémoire ni en vol : l'appel suivant recalcule
+        AnalysisResult retried = cache.getOrCompute(SHA256, 1, () -> {
+            calls.incrementAndGet();
+            return result();
+        });
+
+        assertThat(retried).isNotNull();
+        assertThat(calls).hasValue(2);
+        assertThat(cache.get(SHA256, 1)).contains(retried);
+    }
+
+    /**
+     * Lance {@value #CALLERS} appels simultanés de la même clé ; le calcul n'est appelé qu'une fois.
+     */
+    private List<Future<AnalysisResult>> concurrently(Supplier<AnalysisResult> computation) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<AnalysisResult>> results = new ArrayList<>(CALLERS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.getOrCompute(SHA256, 1, computation);
+                }));
+            }
+            start.countDown();
+        }
+        return results;
+    }
+
+    // Le calcul ne se termine qu'une fois tous les autres appelants en attente de son résultat
+    private void awaitOtherCallers() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (cache.stats().coalesced() < CALLERS - 1) {
+            if (System.nanoTime() > deadline) {
+                // RuntimeException : propagée aux appelants en attente au lieu de les bloquer
+                throw new IllegalStateException("Only " + cache.stats().coalesced() + " callers coalesced");
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static AnalysisResult result() {
+        return new AnalysisResult(1, 640, 480, 7.5, 0.9, 0.8, 0.7, 0.6, 0.5, 0.4, 0.3);
+    }
+}
@@ -0,0 +1,100 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moujib.lookmax_backend.configurations.ProviderProperties;
+import com.moujib.lookmax_backend.exceptions.ProviderUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Comportement du client sortant contre un fournisseur simulé en local.
+ */
+class ExternalProviderClientImplTest {
+
+    private StubProviderServer stub;
+    private ConnectionProvider connectionProvider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubProviderServer(42L);
+        connectionProvider = ConnectionProvider.builder("test-providers").maxConnections(32).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+        stub.close();
+    }
+
+    @Test
+    void identicalConcurrentCallsShareOneRequestThenHitTheCache() throws Exception {
+        stub.behave("/analyze", new StubProviderServer.Behaviour(200, 0, 0, 0, 0));
+        ExternalProviderClientImpl client = client(provider(2, Duration.ofMinutes(5), 20, 10));
+
+        List<Future<JsonNode>> calls = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 10; i++) {
+                calls.add(executor.submit(() -> client.post("stub", "/analyze", Map.of("sha256", "abc"))));
+            }
+            for (Future<JsonNode> call : calls) {
+                assertThat(call.get().get("request").asInt()).isEqualTo(1);
+            }
+        }
+        client.post("stub", "/analyze", Map.of("sha256", "abc"));
+
+        assertThat(stub.requests("/analyze")).isEqualTo(1);
+    }
+
+    @Test
+    void transientFailuresAreRetried() {
+        stub.behave("/analyze", new StubProviderServer.Behaviour(0, 0, 0, 0, 2));
+        ExternalProviderClientImpl client = client(provider(2, Duration.ZERO, 20, 10));
+
+        JsonNode result = client.post("stub", "/analyze", Map.of("sha256", "abc"));
+
+        assertThat(result.get("request").asInt()).isEqualTo(3);
+    }
+
+    @Test
+    void circuitOpensAfterRepeatedFailures() {
+        stub.behave("/analyze", new StubProviderServer.Behaviour(0, 0, 0, 1.0, 0));
+        ExternalProviderClientImpl client = client(provider(0, Duration.ZERO, 4, 4));
+
+        for (int i = 0; i < 4; i++) {
+            int n = i;
+            assertThatThrownBy(() -> client.post("stub", "/analyze", Map.of("n", n)))
+                    .isInstanceOf(ProviderUnavailableException.class)
+                    .hasMessageContaining("failed");
+        }
+        assertThatThrownBy(() -> client.post("stub", "/analyze", Map.of("n", 4)))
+                .isInstanceOf(ProviderUnavailableException.class)
+                .hasMessageContaining("Circuit open");
+        assertThat(stub.requests("/analyze")).isEqualTo(4);
+    }
+
+    private ExternalProviderClientImpl client(ProviderProperties.Provider provider) {
+        ProviderProperties properties = new ProviderProperties(null, Map.of("stub", provider));
+        return new ExternalProviderClientImpl(properties, connectionProvider, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    private ProviderProperties.Provider provider(int maxRetries, Duration cacheTtl, int slidingWindow, int minimumCalls) {
+        return new ProviderProperties.Provider(stub.baseUrl(), false, Duration.ofSeconds(1), Duration.ofSeconds(2),
+                Duration.ofSeconds(5), 16, Duration.ofMillis(100), maxRetries, Duration.ofMillis(10),
+                Duration.ofMillis(50), slidingWindow, minimumCalls, 50, Duration.ofSeconds(30), 1, cacheTtl, 100);
+    }
+}
@@ -0,0 +1,51 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.AnalysisResult;
+import com.moujib.lookmax_backend.models.DecodedImage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacialAnalysisServiceImplTest {
+
+    private static DecodedImage randomImage(int width, int height, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(0x1000000);
+        }
+        return new DecodedImage(width, height, pixels, width, height, 1);
+    }
+
+    @Test
+    void parallelAndSequentialModesProduceIdenticalScores() {
+        DecodedImage image = randomImage(640, 480, 42);
+        FacialAnalysisServiceImpl sequential = new FacialAnalysisServiceImpl(1, true, 32);
+        FacialAnalysisServiceImpl parallel = new FacialAnalysisServiceImpl(4, false, 32);
+        try {
+            assertThat(parallel.analyze(image)).isEqualTo(sequential.analyze(image));
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void mirroredImageIsPerfectlySymmetric() {
+        int width = 64;
+        int height = 48;
+        DecodedImage random = randomImage(width, height, 7);
+        int[] pixels = random.pixels();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width / 2; x++) {
+                pixels[y * width + width - 1 - x] = pixels[y * width + x];
+            }
+        }
+
+        AnalysisResult result = new FacialAnalysisServiceImpl(1, true, 8).analyze(random);
+
+        assertThat(result.symmetry()).isEqualTo(1.0);
+        assertThat(result.overallScore()).isBetween(0.0, 100.0);
+    }
+}
@@ -0,0 +1,97 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FairJobQueueTest {
+
+    @Test
+    void usersAreServedInTurnWhateverTheirBacklog() throws Exception {
+        FairJobQueue queue = new FairJobQueue(100, 10, 10);
+        for (int i = 0; i < 4; i++) {
+            queue.offer("heavy", "heavy-" + i, false);
+        }
+        queue.offer("light", "light-0", false);
+        queue.offer("other", "other-0", false);
+
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            order.add(queue.poll(0, TimeUnit.SECONDS).jobId());
+        }
+
+        assertThat(order).containsExactly("heavy-0", "light-0", "other-0", "heavy-1", "heavy-2", "heavy-3");
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void jobsOfOneUserKeepSubmissionOrder() throws Exception {
+        FairJobQueue queue = new FairJobQueue(100, 10, 1);
+        queue.offer("alice", "a-0", false);
+        queue.offer("alice", "a-1", false);
+        queue.offer("alice", "a-2", false);
+
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            FairJobQueue.Entry entry = queue.poll(0, TimeUnit.SECONDS);
+            order.add(entry.jobId());
+            queue.done(entry.uid());
+        }
+
+        assertThat(order).containsExactly("a-0", "a-1", "a-2");
+    }
+
+    @Test
+    void userAtRunningLimitWaitsUntilDone() throws Exception {
+        FairJobQueue queue = new FairJobQueue(100, 10, 1);
+        queue.offer("alice", "a-0", false);
+        queue.offer("alice", "a-1", false);
+
+        FairJobQueue.Entry first = queue.poll(0, TimeUnit.SECONDS);
+
+        assertThat(queue.poll(10, TimeUnit.MILLISECONDS)).isNull();
+        queue.done(first.uid());
+        assertThat(queue.poll(0, TimeUnit.SECONDS).jobId()).isEqualTo("a-1");
+    }
+
+    @Test
+    void offersBeyondCapacityAreRejectedUnlessForced() {
+        FairJobQueue queue = new FairJobQueue(3, 2, 1);
+
+        assertThat(queue.offer("alice", "a-0", false)).isTrue();
+        assertThat(queue.offer("alice", "a-1", false)).isTrue();
+        // File de l'utilisateur pleine, file globale non
+        assertThat(queue.offer("alice", "a-2", false)).isFalse();
+        assertThat(queue.offer("bob", "b-0", false)).isTrue();
+        // File globale pleine
+        assertThat(queue.offer("carol", "c-0", false)).isFalse();
+        // Reprise au démarrage : les limites ne s'appliquent pas
+        assertThat(queue.offer("carol", "c-1", true)).isTrue();
+
+        assertThat(queue.size()).isEqualTo(4);
+    }
+
+    @Test
+    void pollWaitsForAnOfferFromAnotherThread() throws Exception {
+        FairJobQueue queue = new FairJobQueue(10, 10, 1);
+
+        assertThat(queue.poll(10, TimeUnit.MILLISECONDS)).isNull();
+
+        Thread producer = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            queue.offer("alice", "a-0", false);
+        });
+        FairJobQueue.Entry entry = queue.poll(5, TimeUnit.SECONDS);
+        producer.join();
+
+        assertThat(entry).isEqualTo(new FairJobQueue.Entry("alice", "a-0"));
+    }
+}
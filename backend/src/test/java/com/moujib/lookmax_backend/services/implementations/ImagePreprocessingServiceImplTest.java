@@ -0,0 +1,166 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.DecodedImage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImagePreprocessingServiceImplTest {
+
+    private static final byte[] NO_SEGMENT = new byte[0];
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Source 3x2 :
+     * <pre>
+     * 1 2 3
+     * 4 5 6
+     * </pre>
+     * et l'image telle qu'elle doit s'afficher pour chaque valeur du tag, ligne par ligne.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "1, 3, 2, '1 2 3 4 5 6'",
+            "2, 3, 2, '3 2 1 6 5 4'",
+            "3, 3, 2, '6 5 4 3 2 1'",
+            "4, 3, 2, '4 5 6 1 2 3'",
+            "5, 2, 3, '1 4 2 5 3 6'",
+            "6, 2, 3, '4 1 5 2 6 3'",
+            "7, 2, 3, '6 3 5 2 4 1'",
+            "8, 2, 3, '3 6 2 5 1 4'"
+    })
+    void everyOrientationIsApplied(int orientation, int width, int height, String expected) {
+        int[] source = {1, 2, 3, 4, 5, 6};
+
+        DecodedImage oriented = ImagePreprocessingServiceImpl.applyOrientation(source, 3, 2, orientation);
+
+        assertThat(oriented.width()).isEqualTo(width);
+        assertThat(oriented.height()).isEqualTo(height);
+        assertThat(oriented.pixels()).containsExactly(Arrays.stream(expected.split(" ")).mapToInt(Integer::parseInt).toArray());
+        assertThat(oriented.sourceWidth()).isEqualTo(3);
+        assertThat(oriented.sourceHeight()).isEqualTo(2);
+    }
+
+    @Test
+    void outOfRangeOrientationLeavesPixelsUntouched() {
+        int[] source = {1, 2, 3, 4, 5, 6};
+
+        assertThat(ImagePreprocessingServiceImpl.applyOrientation(source, 3, 2, 0).pixels()).isSameAs(source);
+        assertThat(ImagePreprocessingServiceImpl.applyOrientation(source, 3, 2, 9).pixels()).isSameAs(source);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1", "2", "3", "4", "5", "6", "7", "8"})
+    void orientationIsReadInBothByteOrders(int orientation) throws IOException {
+        assertThat(ImagePreprocessingServiceImpl.readExifOrientation(jpeg("ii.jpg", exif(ByteOrder.LITTLE_ENDIAN, orientation))))
+                .isEqualTo(orientation);
+        assertThat(ImagePreprocessingServiceImpl.readExifOrientation(jpeg("mm.jpg", exif(ByteOrder.BIG_ENDIAN, orientation))))
+                .isEqualTo(orientation);
+    }
+
+    @Test
+    void exifAfterAnotherApp1SegmentIsFound() throws IOException {
+        byte[] xmp = app1("http://ns.adobe.com/xap/1.0/\0<x:xmpmeta/>".getBytes(StandardCharsets.US_ASCII));
+
+        Path photo = jpeg("xmp.jpg", concat(xmp, exif(ByteOrder.BIG_ENDIAN, 6)));
+
+        assertThat(ImagePreprocessingServiceImpl.readExifOrientation(photo)).isEqualTo(6);
+    }
+
+    @Test
+    void missingOrBrokenExifFallsBackToNoTransformation() throws IOException {
+        byte[] valid = exif(ByteOrder.LITTLE_ENDIAN, 6);
+
+        // Pas d'EXIF du tout
+        assertThat(ImagePreprocessingServiceImpl.readExifOrientation(jpeg("plain.jpg", NO_SEGMENT))).isEqualTo(1);
+        // Valeur hors norme
+        assertThat(ImagePreprocessingServiceImpl.readExifOrientation(jpeg("nine.jpg", exif(ByteOrder.LITTLE_ENDIAN, 9))))
+                .isEqualTo(1);
+        // Segment coupé au milieu de l'entrée IFD (longueur déclarée cohérente)
+        byte[] truncated = app1(Arrays.copyOfRange(valid, 4, 4 + 16));
+        assertThat(ImagePreprocessingServiceImpl.readExifOrientation(jpeg("cut.jpg", truncated))).isEqualTo(1);
+        // Offset d'IFD qui pointe hors du segment
+        byte[] badOffset = valid.clone();
+        badOffset[4 + 6 + 4] = 0x7F;
+        assertThat(ImagePreprocessingServiceImpl.readExifOrientation(jpeg("offset.jpg", badOffset))).isEqualTo(1);
+        // Fichier qui se termine dans le segment EXIF
+        Path eof = Files.write(dir.resolve("eof.jpg"), Arrays.copyOf(concat(new byte[]{(byte) 0xFF, (byte) 0xD8}, valid), 20));
+        assertThat(ImagePreprocessingServiceImpl.readExifOrientation(eof)).isEqualTo(1);
+        // Autre format
+        Path png = dir.resolve("photo.png");
+        ImageIO.write(new BufferedImage(4, 2, BufferedImage.TYPE_INT_RGB), "png", png.toFile());
+        assertThat(ImagePreprocessingServiceImpl.readExifOrientation(png)).isEqualTo(1);
+    }
+
+    @Test
+    void decodedImageIsRotatedButKeepsSourceDimensions() throws IOException {
+        ImagePreprocessingServiceImpl service = new ImagePreprocessingServiceImpl(1024, 100_000_000, 16_777_216,
+                134_217_728, 1, 10_000);
+
+        DecodedImage rotated = service.decode(jpeg("rotated.jpg", exif(ByteOrder.BIG_ENDIAN, 6)));
+        DecodedImage broken = service.decode(jpeg("broken.jpg", app1("Exif\0\0MM".getBytes(StandardCharsets.US_ASCII))));
+
+        assertThat(rotated.width()).isEqualTo(20);
+        assertThat(rotated.height()).isEqualTo(40);
+        assertThat(rotated.sourceWidth()).isEqualTo(40);
+        assertThat(rotated.sourceHeight()).isEqualTo(20);
+        assertThat(broken.width()).isEqualTo(40);
+        assertThat(broken.height()).isEqualTo(20);
+    }
+
+    /**
+     * JPEG 40x20 encodé par ImageIO, {@code segments} insérés juste après SOI.
+     */
+    private Path jpeg(String name, byte[] segments) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB), "jpg", out);
+        byte[] encoded = out.toByteArray();
+        byte[] withSegments = concat(Arrays.copyOf(encoded, 2), segments, Arrays.copyOfRange(encoded, 2, encoded.length));
+        return Files.write(dir.resolve(name), withSegments);
+    }
+
+    /**
+     * APP1 « Exif » : en-tête TIFF puis un IFD d'une seule entrée Orientation (SHORT).
+     */
+    private static byte[] exif(ByteOrder order, int orientation) {
+        ByteBuffer tiff = ByteBuffer.allocate(6 + 8 + 2 + 12 + 4).order(order);
+        tiff.put("Exif\0\0".getBytes(StandardCharsets.US_ASCII));
+        tiff.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        tiff.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        tiff.putShort((short) 42);
+        tiff.putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        tiff.putInt(0);
+        return app1(tiff.array());
+    }
+
+    private static byte[] app1(byte[] payload) {
+        int length = payload.length + 2;
+        return concat(new byte[]{(byte) 0xFF, (byte) 0xE1, (byte) (length >> 8), (byte) length}, payload);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,144 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.SimilarPhoto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MultiIndexHashTableTest {
+
+    @Test
+    void searchMatchesBruteForceAcrossSegmentAndPendingAdds() {
+        Random random = new Random(3);
+        int size = 20_000;
+        long[] hashes = new long[size];
+        long[] keys = new long[size * 4];
+        for (int i = 0; i < size; i++) {
+            // Un tiers de quasi-doublons de l'entrée précédente
+            hashes[i] = i > 0 && i % 3 == 0 ? hashes[i - 1] ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64)) : random.nextLong();
+            MultiIndexHashTable.encode(sha(i), keys, i);
+        }
+        MultiIndexHashTable index = new MultiIndexHashTable(100);
+        index.replaceAll(hashes, keys, size - 250);
+        for (int i = size - 250; i < size; i++) {
+            index.add(sha(i), hashes[i]);
+        }
+
+        for (int radius : new int[]{0, 3, 6, 10}) {
+            for (int q = 0; q < 50; q++) {
+                long query = hashes[random.nextInt(size)] ^ (1L << random.nextInt(64));
+                long expected = 0;
+                for (long hash : hashes) {
+                    if (Long.bitCount(hash ^ query) <= radius) {
+                        expected++;
+                    }
+                }
+                List<SimilarPhoto> matches = index.search(query, radius, Integer.MAX_VALUE);
+                assertThat(matches).hasSize((int) expected).isSortedAccordingTo(
+                        (a, b) -> Integer.compare(a.distance(), b.distance()));
+            }
+        }
+        assertThat(index.size()).isEqualTo(size);
+    }
+
+    @Test
+    void filteredSearchKeepsOnlyTheClosestAcceptedEntries() {
+        MultiIndexHashTable index = new MultiIndexHashTable(4);
+        long query = 0x0123_4567_89AB_CDEFL;
+        for (int i = 0; i < 10; i++) {
+            index.add(sha(i), query ^ ((1L << i) - 1));
+        }
+
+        List<SimilarPhoto> matches = index.search(query, 9, 3, sha256 -> !sha256.equals(sha(1)) && !sha256.equals(sha(4)));
+
+        assertThat(matches).extracting(SimilarPhoto::sha256).containsExactly(sha(0), sha(2), sha(3));
+        assertThat(matches).extracting(SimilarPhoto::distance).containsExactly(0, 2, 3);
+        assertThat(index.search(query, 9, 0)).isEmpty();
+    }
+
+    @Test
+    void addsMergedDuringReloadAreReplayed() {
+        MultiIndexHashTable index = new MultiIndexHashTable(2);
+        long[] hashes = new long[8];
+        long[] keys = new long[8 * 4];
+        for (int i = 0; i < 8; i++) {
+            hashes[i] = i;
+            MultiIndexHashTable.encode(sha(i), keys, i);
+        }
+
+        index.beginReload();
+        // Le chargement n'a lu que les 5 premières ; 5 à 7 arrivent pendant, et 6 fusionne le tampon
+        for (int i = 5; i < 8; i++) {
+            index.add(sha(i), hashes[i]);
+        }
+        index.replaceAll(hashes, keys, 5);
+
+        assertThat(index.size()).isEqualTo(8);
+        assertThat(index.search(0, 3, Integer.MAX_VALUE)).extracting(SimilarPhoto::sha256)
+                .containsExactlyInAnyOrder(sha(0), sha(1), sha(2), sha(3), sha(4), sha(5), sha(6), sha(7));
+    }
+
+    @Test
+    void entryBothLoadedAndReplayedIsReturnedOnce() {
+        MultiIndexHashTable index = new MultiIndexHashTable(100);
+        long[] keys = new long[4];
+        MultiIndexHashTable.encode(sha(1), keys, 0);
+
+        index.beginReload();
+        index.add(sha(1), 42);
+        index.replaceAll(new long[]{42}, keys, 1);
+
+        assertThat(index.search(42, 0, 10)).extracting(SimilarPhoto::sha256).containsExactly(sha(1));
+        assertThat(index.search(42, 0, 1)).hasSize(1);
+    }
+
+    @Test
+    void mergeRunsOffTheCallerAndAddsKeepFlowingMeanwhile() {
+        List<Runnable> merges = new ArrayList<>();
+        MultiIndexHashTable index = new MultiIndexHashTable(4, merges::add);
+        for (int i = 0; i < 6; i++) {
+            index.add(sha(i), i);
+        }
+
+        // Seuil atteint au 4e ajout : une seule fusion planifiée, rien n'a été fusionné sur l'appelant
+        assertThat(merges).hasSize(1);
+        assertThat(index.search(0, 3, Integer.MAX_VALUE)).hasSize(6);
+
+        merges.remove(0).run();
+        for (int i = 6; i < 9; i++) {
+            index.add(sha(i), i);
+        }
+
+        assertThat(merges).hasSize(1);
+        merges.remove(0).run();
+        assertThat(merges).isEmpty();
+        assertThat(index.size()).isEqualTo(9);
+        assertThat(index.search(0, 4, Integer.MAX_VALUE)).extracting(SimilarPhoto::sha256)
+                .containsExactlyInAnyOrder(sha(0), sha(1), sha(2), sha(3), sha(4), sha(5), sha(6), sha(7), sha(8));
+    }
+
+    @Test
+    void mergeStartedBeforeAReloadIsDiscarded() {
+        List<Runnable> merges = new ArrayList<>();
+        MultiIndexHashTable index = new MultiIndexHashTable(2, merges::add);
+        index.add(sha(1), 1);
+        index.add(sha(2), 2);
+        long[] keys = new long[4];
+        MultiIndexHashTable.encode(sha(7), keys, 0);
+
+        index.beginReload();
+        index.replaceAll(new long[]{7}, keys, 1);
+        merges.remove(0).run();
+
+        assertThat(index.search(0, 3, Integer.MAX_VALUE)).extracting(SimilarPhoto::sha256).containsExactly(sha(7));
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    private static String sha(int i) {
+        return "%064x".formatted(i);
+    }
+}
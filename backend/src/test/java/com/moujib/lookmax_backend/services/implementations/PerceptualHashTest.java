@@ -0,0 +1,37 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.DecodedImage;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PerceptualHashTest {
+
+    @Test
+    void dHashSurvivesDownscalingButSeparatesDifferentImages() {
+        DecodedImage original = pattern(360, 280, 0);
+        DecodedImage downscaled = pattern(120, 94, 0);
+        DecodedImage other = pattern(360, 280, 1);
+
+        long hash = PerceptualHash.dHash(original);
+
+        assertThat(Long.bitCount(hash ^ PerceptualHash.dHash(downscaled))).isLessThanOrEqualTo(4);
+        assertThat(Long.bitCount(hash ^ PerceptualHash.dHash(other))).isGreaterThan(16);
+    }
+
+    private static DecodedImage pattern(int width, int height, int variant) {
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double u = (double) x / width;
+                double v = (double) y / height;
+                double value = variant == 0
+                        ? Math.sin(u * 7.0) * Math.cos(v * 5.0)
+                        : Math.cos(u * 11.0 + 1.3) * Math.sin(v * 9.0 + 0.7);
+                int grey = (int) Math.round(127.5 + 127.5 * value);
+                pixels[y * width + x] = grey << 16 | grey << 8 | grey;
+            }
+        }
+        return new DecodedImage(width, height, pixels, width, height, 1);
+    }
+}
@@ -0,0 +1,144 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.models.DecodedImage;
+import com.moujib.lookmax_backend.models.PhotoVariant;
+import com.moujib.lookmax_backend.models.StoredFile;
+import com.moujib.lookmax_backend.services.ImagePreprocessingService;
+import com.moujib.lookmax_backend.services.PhotoStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PhotoDerivativeServiceImplTest {
+
+    private static final int CALLERS = 16;
+
+    @TempDir
+    Path root;
+
+    private final PhotoStorageService storage = mock(PhotoStorageService.class);
+    private final ImagePreprocessingService images = mock(ImagePreprocessingService.class);
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicInteger decodes = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Contenu sans importance : le décodage est simulé, chaque dérivé a donc la même taille
+        Path original = Files.write(root.resolve("original.jpg"), new byte[]{1});
+        when(storage.find(anyString())).thenAnswer(invocation -> {
+            lookups.incrementAndGet();
+            return Optional.of(original);
+        });
+        when(images.decode(any(), any(), anyInt())).thenAnswer(invocation -> {
+            decodes.incrementAndGet();
+            return noise(64, 48);
+        });
+    }
+
+    @Test
+    void leastRecentlyServedDerivativeIsEvictedAtTheCap() throws Exception {
+        long size = new PhotoDerivativeServiceImpl(storage, images, root.resolve("probe").toString(), Long.MAX_VALUE, 0.85f)
+                .resolve(sha(0), PhotoVariant.THUMB).orElseThrow().size();
+        PhotoDerivativeServiceImpl derivatives = service(2 * size);
+        decodes.set(0);
+
+        StoredFile first = derivatives.resolve(sha(1), PhotoVariant.THUMB).orElseThrow();
+        StoredFile second = derivatives.resolve(sha(2), PhotoVariant.THUMB).orElseThrow();
+        // Resservi : le plus ancien devient le second
+        derivatives.resolve(sha(1), PhotoVariant.THUMB);
+        StoredFile third = derivatives.resolve(sha(3), PhotoVariant.THUMB).orElseThrow();
+
+        assertThat(first.path()).exists();
+        assertThat(second.path()).doesNotExist();
+        assertThat(third.path()).exists();
+        assertThat(decodes).hasValue(3);
+
+        // Redemandé après éviction : régénéré à l'identique
+        assertThat(derivatives.resolve(sha(2), PhotoVariant.THUMB).orElseThrow()).isEqualTo(second);
+        assertThat(second.path()).exists();
+        assertThat(decodes).hasValue(4);
+    }
+
+    @Test
+    void simultaneousFirstRequestsGenerateOnce() throws Exception {
+        PhotoDerivativeServiceImpl derivatives = service(Long.MAX_VALUE);
+        doAnswer(invocation -> {
+            decodes.incrementAndGet();
+            awaitOtherCallers();
+            return noise(64, 48);
+        }).when(images).decode(any(), any(), anyInt());
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<StoredFile>> results = new ArrayList<>(CALLERS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return derivatives.resolve(sha(1), PhotoVariant.MEDIUM).orElseThrow();
+                }));
+            }
+            start.countDown();
+        }
+
+        assertThat(decodes).hasValue(1);
+        StoredFile expected = results.get(0).get();
+        for (Future<StoredFile> result : results) {
+            assertThat(result.get()).isEqualTo(expected);
+        }
+        assertThat(expected.path()).exists();
+    }
+
+    private PhotoDerivativeServiceImpl service(long maxBytes) throws Exception {
+        return new PhotoDerivativeServiceImpl(storage, images, root.resolve("derivatives").toString(), maxBytes, 0.85f);
+    }
+
+    // La génération ne se termine qu'une fois tous les appelants entrés dans resolve()
+    private void awaitOtherCallers() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (lookups.get() < CALLERS) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Only " + lookups.get() + " callers arrived");
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static DecodedImage noise(int width, int height) {
+        int[] pixels = new int[width * height];
+        Random random = new Random(11);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(1 << 24);
+        }
+        return new DecodedImage(width, height, pixels, width, height, 1);
+    }
+
+    private static String sha(int i) {
+        return "%064x".formatted(i);
+    }
+}
@@ -0,0 +1,62 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PhotoOwnershipServiceImplTest {
+
+    private static final String OWNED_BY = "select sha256 from photo_owner where uid = ?";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PhotoOwnershipServiceImpl ownership = new PhotoOwnershipServiceImpl(jdbcTemplate, 300, 100);
+
+    @Test
+    void ownedPhotosAreLoadedOnceAndFollowLocalClaims() {
+        when(jdbcTemplate.queryForList(OWNED_BY, String.class, "user-1")).thenReturn(List.of(sha(1), sha(2)));
+        when(jdbcTemplate.update(anyString(), any(), any(), any())).thenReturn(1);
+
+        assertThat(ownership.ownedBy("user-1")).containsExactlyInAnyOrder(sha(1), sha(2));
+        assertThat(ownership.claim("user-1", sha(3))).isTrue();
+
+        assertThat(ownership.ownedBy("user-1")).containsExactlyInAnyOrder(sha(1), sha(2), sha(3));
+        assertThat(ownership.owns("user-1", sha(3))).isTrue();
+        verify(jdbcTemplate, times(1)).queryForList(OWNED_BY, String.class, "user-1");
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Integer.class), any(), any());
+    }
+
+    @Test
+    void claimingAPhotoTwiceReportsItAsAlreadyOwned() {
+        // on conflict do nothing : aucune ligne insérée
+        when(jdbcTemplate.update(anyString(), any(), any(), any())).thenReturn(0);
+
+        assertThat(ownership.claim("user-1", sha(1))).isFalse();
+    }
+
+    @Test
+    void leastRecentlyUsedUserIsEvictedAtTheCap() {
+        PhotoOwnershipServiceImpl small = new PhotoOwnershipServiceImpl(jdbcTemplate, 300, 1);
+        when(jdbcTemplate.queryForList(eq(OWNED_BY), eq(String.class), anyString())).thenReturn(List.of(sha(1)));
+
+        small.ownedBy("user-1");
+        small.ownedBy("user-2");
+        small.ownedBy("user-1");
+
+        verify(jdbcTemplate, times(2)).queryForList(OWNED_BY, String.class, "user-1");
+    }
+
+    private static String sha(int i) {
+        return "%064x".formatted(i);
+    }
+}
@@ -0,0 +1,115 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.exceptions.PhotoTooLargeException;
+import com.moujib.lookmax_backend.exceptions.UnsupportedImageException;
+import com.moujib.lookmax_backend.models.PhotoUploadResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PhotoStorageServiceImplTest {
+
+    private static final int MAX_SIZE = 200_000;
+
+    @TempDir
+    Path root;
+
+    private PhotoStorageServiceImpl storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = new PhotoStorageServiceImpl(root.toString(), MAX_SIZE);
+    }
+
+    @Test
+    void magicBytesIdentifyEachSupportedFormat() {
+        assertThat(detect(0xFF, 0xD8, 0xFF, 0xE0)).isEqualTo("image/jpeg");
+        assertThat(detect(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)).isEqualTo("image/png");
+        assertThat(detect('R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P')).isEqualTo("image/webp");
+        assertThat(detect(0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'h', 'e', 'i', 'c')).isEqualTo("image/heic");
+        assertThat(detect(0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'h', 'e', 'v', 'x')).isEqualTo("image/heic");
+    }
+
+    @Test
+    void formatsImageIoCannotDecodeAreRejected() {
+        byte[] webp = {'R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P'};
+        byte[] heic = {0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'h', 'e', 'i', 'c'};
+
+        assertThatThrownBy(() -> PhotoStorageServiceImpl.requireImage(webp, webp.length))
+                .isInstanceOf(UnsupportedImageException.class)
+                .hasMessageContaining("image/webp");
+        assertThatThrownBy(() -> storage.store(new ByteArrayInputStream(heic), heic.length))
+                .isInstanceOf(UnsupportedImageException.class);
+        assertThat(PhotoStorageServiceImpl.requireImage(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}, 3))
+                .isEqualTo("image/jpeg");
+    }
+
+    @Test
+    void unknownOrTruncatedHeadersAreRejected() {
+        assertThat(detect('G', 'I', 'F', '8', '9', 'a')).isNull();
+        assertThat(detect('%', 'P', 'D', 'F', '-', '1', '.', '7')).isNull();
+        // RIFF sans WEBP (WAV), ftyp d'une vidéo MP4
+        assertThat(detect('R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'A', 'V', 'E')).isNull();
+        assertThat(detect(0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'm', 'p', '4', '2')).isNull();
+        // Trop court pour être reconnu
+        assertThat(detect(0xFF, 0xD8)).isNull();
+        assertThat(detect(0x89, 'P', 'N', 'G')).isNull();
+        assertThat(detect()).isNull();
+
+        assertThatThrownBy(() -> storage.store(new ByteArrayInputStream("plain text, not an image".getBytes(StandardCharsets.US_ASCII)), -1))
+                .isInstanceOf(UnsupportedImageException.class);
+        assertThat(Files.exists(root.resolve("tmp"))).isTrue();
+        assertThat(root.resolve("tmp").toFile().list()).isEmpty();
+    }
+
+    @Test
+    void uploadExactlyAtTheLimitIsStored() throws Exception {
+        byte[] photo = jpeg(MAX_SIZE);
+
+        // Longueur inconnue (chunked) : seule la limite appliquée pendant la copie protège
+        PhotoUploadResult result = storage.store(new ByteArrayInputStream(photo), -1);
+
+        assertThat(result.sizeBytes()).isEqualTo(MAX_SIZE);
+        assertThat(result.contentType()).isEqualTo("image/jpeg");
+        assertThat(Files.readAllBytes(storage.find(result.sha256()).orElseThrow())).isEqualTo(photo);
+    }
+
+    @Test
+    void oneByteOverTheLimitIsRejectedWithoutLeavingAFile() {
+        byte[] photo = jpeg(MAX_SIZE + 1);
+
+        assertThatThrownBy(() -> storage.store(new ByteArrayInputStream(photo), -1))
+                .isInstanceOf(PhotoTooLargeException.class);
+        assertThatThrownBy(() -> storage.store(new ByteArrayInputStream(photo), MAX_SIZE + 1))
+                .isInstanceOf(PhotoTooLargeException.class);
+        assertThat(root.resolve("tmp").toFile().list()).isEmpty();
+    }
+
+    private static String detect(int... header) {
+        byte[] bytes = new byte[header.length];
+        for (int i = 0; i < header.length; i++) {
+            bytes[i] = (byte) header[i];
+        }
+        // Tampon plus grand que l'en-tête, comme dans store() : seule la longueur lue compte
+        return PhotoStorageServiceImpl.detectImageType(Arrays.copyOf(bytes, 12), header.length);
+    }
+
+    private static byte[] jpeg(int length) {
+        byte[] bytes = new byte[length];
+        new Random(5).nextBytes(bytes);
+        bytes[0] = (byte) 0xFF;
+        bytes[1] = (byte) 0xD8;
+        bytes[2] = (byte) 0xFF;
+        return bytes;
+    }
+}
@@ -0,0 +1,141 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.exceptions.UploadConflictException;
+import com.moujib.lookmax_backend.exceptions.UploadSessionNotFoundException;
+import com.moujib.lookmax_backend.models.PhotoUploadResult;
+import com.moujib.lookmax_backend.models.UploadStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResumableUploadServiceImplTest {
+
+    @TempDir
+    Path root;
+
+    private PhotoStorageServiceImpl storage;
+    private ResumableUploadServiceImpl uploads;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new PhotoStorageServiceImpl(root.resolve("photos").toString(), 10_485_760);
+        uploads = new ResumableUploadServiceImpl(storage, new SimpleMeterRegistry(),
+                root.resolve("photos/uploads").toString(), 10_485_760, 60, 5, 1000);
+    }
+
+    @Test
+    void interruptedChunkResumesFromLastWrittenByte() throws Exception {
+        byte[] photo = jpeg(300_000);
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(photo));
+        UploadStatus session = uploads.create("user-1", photo.length, sha256);
+
+        // Coupure réseau au milieu du premier bloc
+        assertThatThrownBy(() -> uploads.append("user-1", session.uploadId(), 0, dropsAfter(photo, 200_000)))
+                .isInstanceOf(IOException.class);
+        long resumeAt = uploads.status("user-1", session.uploadId()).offset();
+        assertThat(resumeAt).isPositive().isLessThanOrEqualTo(200_000);
+
+        assertThatThrownBy(() -> uploads.append("user-1", session.uploadId(), 0, new ByteArrayInputStream(photo)))
+                .isInstanceOf(UploadConflictException.class);
+        UploadStatus done = uploads.append("user-1", session.uploadId(), resumeAt,
+                new ByteArrayInputStream(photo, (int) resumeAt, photo.length - (int) resumeAt));
+        assertThat(done.complete()).isTrue();
+
+        PhotoUploadResult result = uploads.complete("user-1", session.uploadId());
+
+        assertThat(result.sha256()).isEqualTo(sha256);
+        assertThat(result.contentType()).isEqualTo("image/jpeg");
+        assertThat(Files.readAllBytes(storage.find(sha256).orElseThrow())).isEqualTo(photo);
+        assertThatThrownBy(() -> uploads.status("user-1", session.uploadId()))
+                .isInstanceOf(UploadSessionNotFoundException.class);
+    }
+
+    @Test
+    void sessionsAreInvisibleToOtherUsersAndOrphansAreCollected() throws Exception {
+        UploadStatus session = uploads.create("user-1", 1000, null);
+        Path orphan = Files.createFile(root.resolve("photos/uploads/left-by-restart.part"));
+
+        assertThatThrownBy(() -> uploads.status("user-2", session.uploadId()))
+                .isInstanceOf(UploadSessionNotFoundException.class);
+
+        uploads.collectExpired();
+
+        assertThat(orphan).doesNotExist();
+        assertThat(root.resolve("photos/uploads/" + session.uploadId() + ".part")).exists();
+    }
+
+    @Test
+    void failedCompletionKeepsTheSessionForARetry() throws Exception {
+        AtomicBoolean failNext = new AtomicBoolean(true);
+        PhotoStorageServiceImpl flaky = new PhotoStorageServiceImpl(root.resolve("photos").toString(), 10_485_760) {
+            @Override
+            public PhotoUploadResult adopt(Path file, String sha256, String contentType, long sizeBytes) throws IOException {
+                if (failNext.getAndSet(false)) {
+                    throw new IOException("Disk full");
+                }
+                return super.adopt(file, sha256, contentType, sizeBytes);
+            }
+        };
+        uploads = new ResumableUploadServiceImpl(flaky, new SimpleMeterRegistry(),
+                root.resolve("photos/uploads").toString(), 10_485_760, 60, 5, 1000);
+        byte[] photo = jpeg(50_000);
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(photo));
+        UploadStatus session = uploads.create("user-1", photo.length, sha256);
+        uploads.append("user-1", session.uploadId(), 0, new ByteArrayInputStream(photo));
+
+        assertThatThrownBy(() -> uploads.complete("user-1", session.uploadId())).isInstanceOf(IOException.class);
+        uploads.collectExpired();
+        assertThat(root.resolve("photos/uploads/" + session.uploadId() + ".part")).exists();
+
+        PhotoUploadResult result = uploads.complete("user-1", session.uploadId());
+
+        assertThat(result.sha256()).isEqualTo(sha256);
+        assertThat(Files.readAllBytes(flaky.find(sha256).orElseThrow())).isEqualTo(photo);
+    }
+
+    private static byte[] jpeg(int length) {
+        byte[] bytes = new byte[length];
+        new Random(7).nextBytes(bytes);
+        bytes[0] = (byte) 0xFF;
+        bytes[1] = (byte) 0xD8;
+        bytes[2] = (byte) 0xFF;
+        return bytes;
+    }
+
+    private static InputStream dropsAfter(byte[] content, int limit) {
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (position >= limit) {
+                    throw new IOException("Connection reset");
+                }
+                int n = Math.min(len, limit - position);
+                System.arraycopy(content, position, b, off, n);
+                position += n;
+                return n;
+            }
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.moujib.lookmax_backend.exceptions.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScoreHistoryCursorTest {
+
+    @Test
+    void cursorRoundTripsAtMicrosecondPrecision() {
+        ScoreHistoryServiceImpl.Cursor cursor =
+                new ScoreHistoryServiceImpl.Cursor(Instant.parse("2026-03-01T10:15:30.123456Z"), 4242L);
+
+        assertThat(ScoreHistoryServiceImpl.Cursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void tamperedCursorIsRejected() {
+        assertThatThrownBy(() -> ScoreHistoryServiceImpl.Cursor.decode("bm90LWEtY3Vyc29y"))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> ScoreHistoryServiceImpl.Cursor.decode("%%%"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void cursorOutsideTheStorableRangeIsRejected() {
+        for (long micros : new long[]{Long.MAX_VALUE, Long.MIN_VALUE, 253_402_300_800_000_000L}) {
+            String cursor = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((micros + ":1").getBytes(StandardCharsets.US_ASCII));
+
+            assertThatThrownBy(() -> ScoreHistoryServiceImpl.Cursor.decode(cursor))
+                    .isInstanceOf(InvalidCursorException.class);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.moujib.lookmax_backend.services.implementations;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fournisseur externe simulé en local : latence de base, fraction de réponses lentes, fraction
+ * d'échecs 503 et échecs forcés sur les N premières requêtes, le tout tiré d'un aléa à graine fixe.
+ */
+public final class StubProviderServer implements AutoCloseable {
+
+    /**
+     * @param failFirst nombre de premières requêtes qui échouent quoi qu'il arrive
+     */
+    public record Behaviour(long latencyMs, double slowRate, long slowLatencyMs, double failureRate, int failFirst) {
+
+        public static Behaviour fast() {
+            return new Behaviour(0, 0, 0, 0, 0);
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Random random;
+    private final Map<String, Behaviour> behaviours = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    public StubProviderServer(long seed) throws IOException {
+        random = new Random(seed);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            int count = requests.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet();
+            Behaviour behaviour = behaviours.getOrDefault(path, Behaviour.fast());
+
+            long size;
+            try (InputStream body = exchange.getRequestBody()) {
+                size = body.transferTo(OutputStream.nullOutputStream());
+            }
+
+            double draw = random.nextDouble();
+            boolean fail = count <= behaviour.failFirst() || draw < behaviour.failureRate();
+            long latency = random.nextDouble() < behaviour.slowRate() ? behaviour.slowLatencyMs() : behaviour.latencyMs();
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            byte[] response = fail
+                    ? "{\"error\":\"Service Unavailable\"}".getBytes(StandardCharsets.UTF_8)
+                    : ("{\"path\":\"" + path + "\",\"bytes\":" + size + ",\"request\":" + count + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(fail ? 503 : 200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    public void behave(String path, Behaviour behaviour) {
+        behaviours.put(path, behaviour);
+    }
+
+    public int requests(String path) {
+        AtomicInteger count = requests.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+}
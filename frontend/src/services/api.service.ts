@@ -89,6 +89,15 @@ class ApiService {
     return response.data;
   }
 
+  public async upload<T>(url: string, data: Blob, config?: AxiosRequestConfig): Promise<T> {
+    // Corps binaire brut : le backend l'écrit directement sur disque sans multipart
+    const response = await this.api.post<T>(url, data, {
+      ...config,
+      headers: { ...config?.headers, 'Content-Type': data.type || 'application/octet-stream' },
+    });
+    return response.data;
+  }
+
   public async put<T>(url: string, data?: ApiRequestData, config?: AxiosRequestConfig): Promise<T> {
     const response = await this.api.put<T>(url, data, config);
     return response.data;